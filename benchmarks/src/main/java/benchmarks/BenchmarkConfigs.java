@@ -0,0 +1,69 @@
+package benchmarks;
+
+import exceptions.InvalidDataException;
+import game.GameConfig;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+/**
+ * Generates game configurations of any size for the benchmarks, in the format of the configuration files.
+ * <p>
+ * The layouts repeat the fields of the example files: {@code test1} has expensive services and small
+ * luck payments, so the games are short, {@code testRandom} has cheap services and bigger luck payments,
+ * so the games are decided by the property taxes. No dice rolls are predefined.
+ * </p>
+ */
+final class BenchmarkConfigs {
+    private static final String[] TEST1_FIELDS = {
+            "property", "service 3000", "luck 400", "property", "service 2700",
+            "luck 200", "property", "service 2900", "luck 500", "property"
+    };
+    private static final String[] TEST_RANDOM_FIELDS = {
+            "property", "service 500", "luck 400", "property", "service 300",
+            "luck 200", "property", "service 600", "luck 1000", "property"
+    };
+    private static final String[] TEST1_PLAYERS = {"greedy", "careful", "tactician"};
+    private static final String[] TEST_RANDOM_PLAYERS = {"greedy", "careful", "tactician", "careful", "greedy"};
+
+    private BenchmarkConfigs() {}
+
+    /**
+     * @param layout test1 or testRandom
+     * @param fields the number of fields of the map
+     * @param playstyles the playstyle of every player, or null for the players of the layout's file
+     * @return the text of the configuration
+     */
+    static String configText(String layout, int fields, String[] playstyles) {
+        String[] pattern = layout.equals("test1") ? TEST1_FIELDS : TEST_RANDOM_FIELDS;
+        if (playstyles == null) playstyles = layout.equals("test1") ? TEST1_PLAYERS : TEST_RANDOM_PLAYERS;
+
+        StringBuilder text = new StringBuilder().append(fields).append('\n');
+        for (int i = 0; i < fields; i++) {
+            text.append(pattern[i % pattern.length]).append('\n');
+        }
+        text.append(playstyles.length).append('\n');
+        for (int i = 0; i < playstyles.length; i++) {
+            text.append("Player").append(i).append(' ').append(playstyles[i]).append('\n');
+        }
+        return text.toString();
+    }
+
+    static GameConfig config(String layout, int fields, String[] playstyles) {
+        try {
+            return GameConfig.read(new Scanner(configText(layout, fields, playstyles)));
+        } catch (InvalidDataException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static Path writeConfig(String layout, int fields) throws IOException {
+        Path file = Files.createTempFile("capitaly-" + layout + "-" + fields, ".txt");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, configText(layout, fields, null), StandardCharsets.UTF_8);
+        return file;
+    }
+}
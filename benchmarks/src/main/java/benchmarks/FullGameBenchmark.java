@@ -0,0 +1,44 @@
+package benchmarks;
+
+import engine.EngineType;
+import engine.GameEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time of a whole game, from reset to the last player standing,
+ * on maps built like test1.txt and testRandom.txt with 10 to 10,000 fields.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FullGameBenchmark {
+    @Param({"test1", "testRandom"})
+    public String layout;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int fields;
+
+    @Param({"OBJECT", "ARRAY"})
+    public EngineType engine;
+
+    private GameEngine game;
+    private SplittableRandom random;
+
+    @Setup
+    public void setup() {
+        game = engine.create(BenchmarkConfigs.config(layout, fields, null));
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public void game() {
+        game.reset();
+        game.simulatePlay(random.split());
+    }
+}
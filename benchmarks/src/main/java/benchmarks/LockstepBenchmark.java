@@ -0,0 +1,63 @@
+package benchmarks;
+
+import engine.ArrayEngine;
+import engine.LockstepEngine;
+import game.GameConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time of a batch of whole games played one by one by the array engine
+ * and all at once by the lockstep engine, with and without the Vector API.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class LockstepBenchmark {
+    private static final int GAMES = 1024;
+
+    @Param({"test1", "testRandom"})
+    public String layout;
+
+    @Param({"10", "100", "1000"})
+    public int fields;
+
+    @Param({"16", "64", "256"})
+    public int lanes;
+
+    @Param({"true", "false"})
+    public boolean vector;
+
+    private ArrayEngine game;
+    private LockstepEngine lockstep;
+    private SplittableRandom random;
+
+    @Setup
+    public void setup() {
+        System.setProperty("capitaly.vector", String.valueOf(vector));
+        GameConfig config = BenchmarkConfigs.config(layout, fields, null);
+        game = new ArrayEngine(config);
+        lockstep = new LockstepEngine(config, lanes);
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public void arrayEngine() {
+        for (int i = 0; i < GAMES; i++) {
+            game.reset();
+            game.simulatePlay(random.split());
+        }
+    }
+
+    @Benchmark
+    public int lockstepEngine() {
+        int[] turns = new int[1];
+        lockstep.play(GAMES, random::split, (engine, lane, index) -> turns[0] += engine.getTurn(lane));
+        return turns[0];
+    }
+}
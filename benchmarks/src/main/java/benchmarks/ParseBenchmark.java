@@ -0,0 +1,45 @@
+package benchmarks;
+
+import exceptions.InvalidDataException;
+import game.GameConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to read and parse a configuration file,
+ * with the byte-level parser of {@code readFromFile} and with a {@link Scanner}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int fields;
+
+    private String fileName;
+
+    @Setup
+    public void setup() throws IOException {
+        fileName = BenchmarkConfigs.writeConfig("testRandom", fields).toString();
+    }
+
+    @Benchmark
+    public GameConfig readFromFile() throws FileNotFoundException, InvalidDataException {
+        return GameConfig.readFromFile(fileName);
+    }
+
+    @Benchmark
+    public GameConfig readWithScanner() throws FileNotFoundException, InvalidDataException {
+        try (Scanner scanner = new Scanner(new File(fileName))) {
+            return GameConfig.read(scanner);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import engine.EngineType;
+import engine.GameEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many turns per second the engines play with different mixes of playstyles.
+ * The score is turns per second, a finished game is reset and continued within the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(TurnThroughputBenchmark.TURNS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TurnThroughputBenchmark {
+    static final int TURNS = 1024;
+
+    @Param({"greedy-careful-tactician", "greedy-greedy-greedy", "careful-careful-careful",
+            "tactician-tactician-tactician", "greedy-careful-tactician-careful-greedy"})
+    public String playstyles;
+
+    @Param({"OBJECT", "ARRAY"})
+    public EngineType engine;
+
+    private GameEngine game;
+    private SplittableRandom random;
+
+    @Setup
+    public void setup() {
+        game = engine.create(BenchmarkConfigs.config("testRandom", 20, playstyles.split("-")));
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public void turns() {
+        for (int i = 0; i < TURNS; i++) {
+            if (game.isOver()) game.reset();
+            game.playTurn(random.nextInt(6) + 1);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package engine;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The steps of the lanes of a {@link LockstepEngine} with the Vector API, as many lanes at once as the widest
+ * integer vector of the processor holds (16 with AVX-512).
+ * <p>
+ * A move from a field of the map by at most {@link LaneSteps#MAX_ROLL} on a longer map wraps at most once,
+ * so it is an addition, a comparison and a masked subtraction. The fee and the money needed to pay it are looked up
+ * field by field into one vector's worth of entries, then the fee is paid with a comparison and a masked subtraction
+ * too, and the lanes left to the engine are flagged and then listed without branches. The lookup is not a gather
+ * ({@code IntVector.fromArray} with an index map): C2 of JDK 17 miscompiles the gathers here, which crashed the JVM
+ * or gave wrong fees.
+ * The lanes after the last full vector are done by the scalar code. Only loaded by {@link LaneSteps#create(int, int[], int[])},
+ * when the {@code jdk.incubator.vector} module is present. It is in its own source root, only compiled by
+ * {@code mvn -Pvector}, so the rest of the code builds without the incubating module and its warning.
+ * </p>
+ */
+final class VectorLaneSteps extends LaneSteps {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    /** The fee and the money needed on the field of every lane of the current vector. */
+    private final int[] fieldFee = new int[SPECIES.length()];
+    private final int[] fieldMinimum = new int[SPECIES.length()];
+
+    VectorLaneSteps(int fields, int[] fee, int[] minimum) {
+        super(fields, fee, minimum);
+        if (fields <= MAX_ROLL) throw new IllegalArgumentException("The map must be longer than the largest roll!");
+    }
+
+    @Override
+    boolean isVectorised() {
+        return true;
+    }
+
+    @Override
+    int step(int[] from, int[] rolls, int[] balance, int[] wraps, int[] pending, int lanes) {
+        int upperBound = SPECIES.loopBound(lanes);
+        IntVector zero = IntVector.zero(SPECIES);
+        for (int lane = 0; lane < upperBound; lane += SPECIES.length()) {
+            IntVector roll = IntVector.fromArray(SPECIES, rolls, lane);
+            VectorMask<Integer> moved = roll.compare(VectorOperators.NE, 0);
+
+            // ---- The moves ----
+            IntVector to = IntVector.fromArray(SPECIES, from, lane).add(roll);
+            VectorMask<Integer> wrapped = to.compare(VectorOperators.GE, fields);
+            // A lane that didn't move is over, so its field isn't used, but it has to be one to load its fee
+            to = to.sub(fields, wrapped).max(zero);
+            to.intoArray(from, lane);
+            zero.blend(1, wrapped).intoArray(wraps, lane);
+
+            // ---- The fees ----
+            IntVector money = IntVector.fromArray(SPECIES, balance, lane);
+            for (int i = 0; i < fieldFee.length; i++) {
+                int field = from[lane + i];
+                fieldFee[i] = fee[field];
+                fieldMinimum[i] = minimum[field];
+            }
+            VectorMask<Integer> pays = money.compare(VectorOperators.GE, IntVector.fromArray(SPECIES, fieldMinimum, 0)).and(moved);
+            money.sub(IntVector.fromArray(SPECIES, fieldFee, 0), pays).intoArray(balance, lane);
+
+            // Whether every lane moved but didn't pay, listed below
+            zero.blend(1, moved.andNot(pays)).intoArray(pending, lane);
+        }
+
+        // The flags become the list in place: the list never gets ahead of the flag being read
+        int count = 0;
+        for (int lane = 0; lane < upperBound; lane++) {
+            int left = pending[lane];
+            pending[count] = lane;
+            count += left;
+        }
+
+        // The last lanes, fewer than a vector
+        return step(from, rolls, balance, wraps, pending, count, upperBound, lanes);
+    }
+}
@@ -1,4 +1,48 @@
+import analytics.LandingAnalysis;
+import analytics.Standings;
+import cluster.Coordinator;
+import cluster.LocalWorkers;
+import cluster.Worker;
+import dice.DiceFile;
+import dice.ExhaustionPolicy;
+import engine.EndReason;
+import engine.EngineType;
+import engine.GameSnapshot;
+import events.BinaryEventLog;
+import events.ConsoleEventListener;
+import events.EventLogReplay;
+import events.GameEventListener;
+import exceptions.InvalidDataException;
+import game.Game;
+import game.GameConfig;
+import game.GameLimits;
+import game.GameRules;
+import map.Movement;
+import metrics.MetricsReporter;
+import metrics.SimulationMetrics;
+import service.SimulationService;
+import simulation.BranchExplorer;
+import simulation.BranchResult;
+import simulation.CheckpointedRun;
+import simulation.GameResultsReader;
+import simulation.GameResultsWriter;
+import simulation.OnlineStatistics;
+import simulation.ParameterSweep;
+import simulation.ResultCache;
+import simulation.Tournament;
+import simulation.TournamentResult;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.LongSummaryStatistics;
 import java.util.Scanner;
+import java.util.SplittableRandom;
 
 /**
  * The main entry point of the Capitaly game simulation.
@@ -6,10 +50,107 @@ import java.util.Scanner;
  * Propmts the user for a file name, reads the game configuration from the file,
  * simulates the game, and outputs the name of the player who finished second to last
  * </p>
+ * <p>
+ * Started with arguments it runs in batch mode instead:
+ * {@code Main <file> <games> [seed] [threads] [object|array|lockstep] [shared|per-player]} simulates the given
+ * number of games and outputs the finishing position histogram of every player and playstyle.
+ * The options {@code --max-turns <turns>}, {@code --max-laps <laps>} and {@code --stalemate <turns>}
+ * end the games early, see {@link GameLimits}. With {@code --metrics <file>} the progress of the run is published
+ * through JMX and written to the file every second, see {@link SimulationMetrics}. With {@code --cache <directory>}
+ * a run that was done before is read from the directory instead of being played again, see {@link ResultCache}.
+ * With {@code --checkpoint <file>} the progress is saved every ten seconds, and a stopped run continues from the file,
+ * see {@link CheckpointedRun}. With {@code --results <file>} the outcome of every game is written to a columnar file,
+ * see {@link GameResultsWriter}, and {@code Main --column <results> <column>} sums up one column of such a file.
+ * With {@code --stats} the game lengths, the turns the players stayed in the game and the turns they went bankrupt in
+ * are summed up too, see {@link OnlineStatistics}, and with {@code --target-width <width>} the run stops as soon as
+ * the 95% interval of every player's probability to finish second to last is at most that wide, so {@code <games>}
+ * is only the most games to play, see {@link Tournament#runUntil(double, long, long)}.
+ * </p>
+ * <p>
+ * {@code Main --log <file> <log>} plays one game like the interactive mode and also records it
+ * into a binary event log, {@code Main --replay <file> <log> [turn]} rebuilds the game from
+ * such a log and outputs the state of the players at the given turn, and their standings, see {@link Standings}.
+ * </p>
+ * <p>
+ * {@code Main --write-dice <file> <dice> [bytes|packed]} stores the predefined dice rolls of a configuration
+ * in a binary dice file, {@code Main --dice <file> <dice> [wrap|random|stop]} plays one game with the rolls
+ * of a dice file, which is memory-mapped, so it can hold any number of rolls.
+ * </p>
+ * <p>
+ * {@code Main --landing <file> [moves]} computes the landing probabilities of the fields (or their expected landings
+ * in the first moves) without playing, and outputs the fields with the highest expected income.
+ * </p>
+ * <p>
+ * {@code Main --serve [port] [max requests] [host] [cache directory] [max queued]} runs the batch simulations of many
+ * clients over HTTP, see {@link SimulationService}.
+ * </p>
+ * <p>
+ * {@code Main --sweep <file> <games> <playstyle> [seed] [threads]} searches for the prices and playstyle thresholds
+ * under which the given playstyle wins the most. The candidates are every combination of the comma separated values
+ * of {@code --property-price}, {@code --house-price}, {@code --careful} and {@code --tactician}, or, with
+ * {@code --random <count>}, that many candidates drawn between the smallest and largest of them. See {@link ParameterSweep}.
+ * </p>
+ * <p>
+ * {@code Main --branch <file> <turn> <continuations> [seed] [threads]} plays the game to the given turn and then plays
+ * many random continuations from there, giving the chance of every player to win or finish second to last;
+ * {@code --exact <rolls>} also goes through every combination of the next rolls. See {@link BranchExplorer}.
+ * </p>
+ * <p>
+ * {@code Main --worker [port] [threads] [host]} plays the games other processes send it, and
+ * {@code Main --coordinate <file> <games> <host:port,...|local:count> [seed] [object|array|lockstep] [shared|per-player]}
+ * runs a batch on such workers, or on that many worker processes it starts on this host, with the same result as
+ * the batch mode. It takes the limit options of the batch mode too, and {@code --timeout <seconds>}, how long a worker
+ * may stay silent before its range is given to another one. See {@link Coordinator}.
+ * </p>
  * @author Horánszki Patrik Donát - CJJ14N
  */
 public class Main {
+    private static final long METRICS_INTERVAL_MILLIS = 1000;
+    private static final int SERVICE_CACHE_ENTRIES = 256;
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 10_000;
+
     public static void main(String[] args) {
+        if (args.length > 0) {
+            switch (args[0]) {
+                case "--log":
+                    runLogged(args);
+                    break;
+                case "--replay":
+                    runReplay(args);
+                    break;
+                case "--dice":
+                    runWithDiceFile(args);
+                    break;
+                case "--write-dice":
+                    writeDiceFile(args);
+                    break;
+                case "--landing":
+                    runLandingAnalysis(args);
+                    break;
+                case "--sweep":
+                    runSweep(args);
+                    break;
+                case "--serve":
+                    serve(args);
+                    break;
+                case "--branch":
+                    runBranches(args);
+                    break;
+                case "--worker":
+                    runWorker(args);
+                    break;
+                case "--coordinate":
+                    runCoordinated(args);
+                    break;
+                case "--column":
+                    summarizeColumn(args);
+                    break;
+                default:
+                    runBatch(args);
+            }
+            return;
+        }
+
         System.out.println("Game configuration file: ");
         Scanner input = new Scanner(System.in);
         String fileName = input.nextLine();
@@ -18,4 +159,514 @@ public class Main {
         game.simulatePlay();
         game.writeSecondToLastPlayer();
     }
-}
\ No newline at end of file
+
+    /**
+     * Plays one game and records it into an event log: {@code --log <file> <log>}
+     */
+    private static void runLogged(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: Main --log <file> <log>");
+            System.exit(-1);
+        }
+        Game game = new Game(args[1]);
+        try (BinaryEventLog log = new BinaryEventLog(Path.of(args[2]))) {
+            game.setEventListener(GameEventListener.both(new ConsoleEventListener(game.getConfig()), log));
+            game.simulatePlay();
+        } catch (IOException e) {
+            System.err.println("The event log could not be written: " + e.getMessage());
+            System.exit(-1);
+        }
+        game.writeSecondToLastPlayer();
+    }
+
+    /**
+     * Rebuilds a game from its event log: {@code --replay <file> <log> [turn]}
+     */
+    private static void runReplay(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: Main --replay <file> <log> [turn]");
+            System.exit(-1);
+        }
+        try {
+            int turn = args.length > 3 ? Integer.parseInt(args[3]) : -1;
+            GameConfig config = Game.loadConfig(args[1]);
+            Standings standings = new Standings(config);
+            Game game = EventLogReplay.replay(config, Path.of(args[2]), turn, standings);
+            EventLogReplay.writeStateToConsole(game);
+            standings.writeToConsole();
+        } catch (NumberFormatException e) {
+            System.err.println(e.getMessage() + " is not a valid number!");
+            System.exit(-1);
+        } catch (InvalidDataException e) {
+            System.err.println("Invalid data in " + args[2] + ": " + e.getMessage());
+            System.exit(-1);
+        } catch (IOException e) {
+            System.err.println("The event log could not be read: " + e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Plays one game with the rolls of a dice file: {@code --dice <file> <dice> [wrap|random|stop]}
+     */
+    private static void runWithDiceFile(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: Main --dice <file> <dice> [wrap|random|stop]");
+            System.exit(-1);
+        }
+        GameConfig config = Game.loadConfig(args[1]);
+        Game game = null;
+        try {
+            game = new Game(config.withPreDefinedDiceRolls(DiceFile.open(Path.of(args[2]))));
+            if (args.length > 3) game.setExhaustionPolicy(ExhaustionPolicy.valueOf(args[3].toUpperCase()));
+        } catch (InvalidDataException e) {
+            System.err.println("Invalid data in " + args[2] + ": " + e.getMessage());
+            System.exit(-1);
+        } catch (IOException e) {
+            System.err.println("The dice file could not be read: " + e.getMessage());
+            System.exit(-1);
+        }
+
+        game.simulatePlay();
+        if (game.getEndReason() == EndReason.DICE_RAN_OUT) {
+            System.out.println("The dice rolls ran out before the end of the game!");
+        }
+        game.writeSecondToLastPlayer();
+    }
+
+    /**
+     * Stores the predefined dice rolls of a configuration in a dice file: {@code --write-dice <file> <dice> [bytes|packed]}
+     */
+    private static void writeDiceFile(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: Main --write-dice <file> <dice> [bytes|packed]");
+            System.exit(-1);
+        }
+        GameConfig config = Game.loadConfig(args[1]);
+        if (!config.hasPreDefinedDiceRolls()) {
+            System.err.println(args[1] + " has no predefined dice rolls!");
+            System.exit(-1);
+        }
+        try {
+            DiceFile.Encoding encoding = args.length > 3
+                    ? DiceFile.Encoding.valueOf(args[3].toUpperCase())
+                    : DiceFile.Encoding.PACKED;
+            long rolls = DiceFile.write(Path.of(args[2]), config.getPreDefinedDiceRolls().open(), encoding);
+            System.out.println(rolls + " dice rolls written to " + args[2]);
+        } catch (InvalidDataException e) {
+            System.err.println("Invalid data in " + args[1] + ": " + e.getMessage());
+            System.exit(-1);
+        } catch (IOException e) {
+            System.err.println("The dice file could not be written: " + e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Computes the landing probabilities of the fields: {@code --landing <file> [moves]}
+     */
+    private static void runLandingAnalysis(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: Main --landing <file> [moves]");
+            System.exit(-1);
+        }
+        try {
+            LandingAnalysis analysis = new LandingAnalysis(Game.loadConfig(args[1]));
+            double[] landings = args.length > 2
+                    ? analysis.expectedLandings(Integer.parseInt(args[2]))
+                    : analysis.stationaryDistribution(1e-12, 1000);
+            analysis.writeTopFieldsToConsole(landings, 10);
+        } catch (NumberFormatException e) {
+            System.err.println(e.getMessage() + " is not a valid number!");
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Starts the HTTP simulation service: {@code --serve [port] [max requests] [host] [cache directory] [max queued]}
+     */
+    private static void serve(String[] args) {
+        try {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : SimulationService.DEFAULT_PORT;
+            int maxRequests = args.length > 2 ? Integer.parseInt(args[2]) : SimulationService.DEFAULT_MAX_REQUESTS;
+            String host = args.length > 3 ? args[3] : "localhost";
+            int maxQueued = args.length > 5 ? Integer.parseInt(args[5]) : SimulationService.DEFAULT_MAX_QUEUED;
+            SimulationService service = new SimulationService(new InetSocketAddress(host, port),
+                    Runtime.getRuntime().availableProcessors(), maxRequests, maxQueued);
+            if (args.length > 4) service.setCache(new ResultCache(Path.of(args[4]), SERVICE_CACHE_ENTRIES));
+            Runtime.getRuntime().addShutdownHook(new Thread(service::close));
+            service.start();
+            System.out.println("Listening on http://" + host + ":" + service.getAddress().getPort() + "/simulate");
+        } catch (NumberFormatException e) {
+            System.err.println(e.getMessage() + " is not a valid number!");
+            System.exit(-1);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("The service could not be started: " + e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Searches for the best rules of a playstyle: {@code --sweep <file> <games> <playstyle> [seed] [threads]}
+     */
+    private static void runSweep(String[] arguments) {
+        try {
+            GameRules defaults = GameRules.DEFAULT;
+            int[] propertyPrices = {defaults.getPropertyPrice()};
+            int[] housePrices = {defaults.getHousePrice()};
+            int[] carefulDivisors = {defaults.getCarefulDivisor()};
+            int[] tacticianPeriods = {defaults.getTacticianPeriod()};
+            int randomCandidates = 0;
+            ArrayList<String> positional = new ArrayList<>();
+            for (int i = 1; i < arguments.length; i++) {
+                boolean hasValue = i + 1 < arguments.length;
+                switch (arguments[i]) {
+                    case "--property-price":
+                        if (hasValue) propertyPrices = parseValues(arguments[++i]);
+                        break;
+                    case "--house-price":
+                        if (hasValue) housePrices = parseValues(arguments[++i]);
+                        break;
+                    case "--careful":
+                        if (hasValue) carefulDivisors = parseValues(arguments[++i]);
+                        break;
+                    case "--tactician":
+                        if (hasValue) tacticianPeriods = parseValues(arguments[++i]);
+                        break;
+                    case "--random":
+                        if (hasValue) randomCandidates = Integer.parseInt(arguments[++i]);
+                        break;
+                    default:
+                        positional.add(arguments[i]);
+                }
+            }
+            String[] args = positional.toArray(new String[0]);
+            if (args.length < 3) {
+                System.err.println("Usage: Main --sweep <file> <games> <playstyle> [seed] [threads] [--random <count>] "
+                        + "[--property-price <prices>] [--house-price <prices>] [--careful <divisors>] [--tactician <periods>]");
+                System.exit(-1);
+            }
+
+            GameConfig config = Game.loadConfig(args[0]);
+            long games = Long.parseLong(args[1]);
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+            int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+            List<GameRules> candidates = randomCandidates > 0
+                    ? ParameterSweep.random(randomCandidates, propertyPrices, housePrices, carefulDivisors, tacticianPeriods, seed)
+                    : ParameterSweep.grid(propertyPrices, housePrices, carefulDivisors, tacticianPeriods);
+            new ParameterSweep(config, args[2], threads, EngineType.ARRAY).run(candidates, games, seed).writeToConsole();
+        } catch (NumberFormatException e) {
+            System.err.println(e.getMessage() + " is not a valid number!");
+            System.exit(-1);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Plays many continuations of a game from a turn: {@code --branch <file> <turn> <continuations> [seed] [threads] [--exact <rolls>]}
+     */
+    private static void runBranches(String[] arguments) {
+        try {
+            int exactRolls = 0;
+            ArrayList<String> positional = new ArrayList<>();
+            for (int i = 1; i < arguments.length; i++) {
+                if (arguments[i].equals("--exact") && i + 1 < arguments.length) exactRolls = Integer.parseInt(arguments[++i]);
+                else positional.add(arguments[i]);
+            }
+            String[] args = positional.toArray(new String[0]);
+            if (args.length < 3) {
+                System.err.println("Usage: Main --branch <file> <turn> <continuations> [seed] [threads] [--exact <rolls>]");
+                System.exit(-1);
+            }
+
+            GameConfig config = Game.loadConfig(args[0]);
+            int turn = Integer.parseInt(args[1]);
+            long continuations = Long.parseLong(args[2]);
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+            int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+            // The turns before the position use the predefined rolls, and the seed when they run out
+            GameSnapshot start = BranchExplorer.playTo(config, turn, new SplittableRandom(seed));
+            BranchExplorer explorer = new BranchExplorer(config, start, threads, EngineType.ARRAY);
+            BranchResult result = explorer.run(continuations, seed);
+            if (exactRolls > 0) result.setExact(exactRolls, explorer.exact(exactRolls));
+            result.writeToConsole();
+        } catch (NumberFormatException e) {
+            System.err.println(e.getMessage() + " is not a valid number!");
+            System.exit(-1);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Reads one column of a results file: {@code --column <results> <column>}
+     */
+    private static void summarizeColumn(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: Main --column <results> <column>");
+            System.exit(-1);
+        }
+        try (GameResultsReader reader = new GameResultsReader(Path.of(args[1]))) {
+            LongSummaryStatistics statistics = new LongSummaryStatistics();
+            reader.scan(reader.getColumn(args[2]), statistics);
+            System.out.println(args[2] + ": " + statistics.getCount() + " games, min " + statistics.getMin()
+                    + ", max " + statistics.getMax() + String.format(", mean %.4f", statistics.getAverage()));
+        } catch (InvalidDataException e) {
+            System.err.println("Invalid data in " + args[1] + ": " + e.getMessage());
+            System.exit(-1);
+        } catch (IOException e) {
+            System.err.println("The results file could not be read: " + e.getMessage());
+            System.exit(-1);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Starts a worker of distributed batches: {@code --worker [port] [threads] [host]}
+     */
+    private static void runWorker(String[] args) {
+        try {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : Worker.DEFAULT_PORT;
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            String host = args.length > 3 ? args[3] : "0.0.0.0";
+            Worker worker = new Worker(new InetSocketAddress(host, port), threads);
+            Runtime.getRuntime().addShutdownHook(new Thread(worker::close));
+            worker.start();
+            System.out.println(Worker.LISTENING + worker.getPort());
+        } catch (NumberFormatException e) {
+            System.err.println(e.getMessage() + " is not a valid number!");
+            System.exit(-1);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("The worker could not be started: " + e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Runs many games of one configuration on workers:
+     * {@code --coordinate <file> <games> <host:port,...|local:count> [seed] [object|array|lockstep] [shared|per-player]}
+     */
+    private static void runCoordinated(String[] arguments) {
+        String file = null;
+        try {
+            GameLimits limits = GameLimits.NONE;
+            int timeoutMillis = Coordinator.DEFAULT_TIMEOUT_MILLIS;
+            ArrayList<String> positional = new ArrayList<>();
+            for (int i = 1; i < arguments.length; i++) {
+                boolean hasValue = i + 1 < arguments.length;
+                switch (arguments[i]) {
+                    case "--max-turns":
+                        if (hasValue) limits = limits.withMaxTurns(Long.parseLong(arguments[++i]));
+                        break;
+                    case "--max-laps":
+                        if (hasValue) limits = limits.withMaxLaps(Long.parseLong(arguments[++i]));
+                        break;
+                    case "--stalemate":
+                        if (hasValue) limits = limits.withStalemateWindow(Integer.parseInt(arguments[++i]));
+                        break;
+                    case "--timeout":
+                        if (hasValue) {
+                            int seconds = Integer.parseInt(arguments[++i]);
+                            if (seconds < 1 || seconds > Integer.MAX_VALUE / 1000) {
+                                throw new IllegalArgumentException("The timeout must be between 1 and " + Integer.MAX_VALUE / 1000 + " seconds!");
+                            }
+                            timeoutMillis = seconds * 1000;
+                        }
+                        break;
+                    default:
+                        positional.add(arguments[i]);
+                }
+            }
+            String[] args = positional.toArray(new String[0]);
+            if (args.length < 3) {
+                System.err.println("Usage: Main --coordinate <file> <games> <host:port,...|local:count> [seed] [object|array|lockstep] "
+                        + "[shared|per-player] [--max-turns <turns>] [--max-laps <laps>] [--stalemate <turns>] [--timeout <seconds>]");
+                System.exit(-1);
+            }
+
+            file = args[0];
+
+            // The workers get the text of the file, parsed here the same way
+            byte[] text = Files.readAllBytes(Path.of(file));
+            GameConfig config = GameConfig.parse(ByteBuffer.wrap(text));
+            long games = Long.parseLong(args[1]);
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+            EngineType engine = args.length > 4 ? EngineType.valueOf(args[4].toUpperCase()) : EngineType.ARRAY;
+            if (args.length > 5) config = config.withMovement(Movement.valueOf(args[5].toUpperCase().replace('-', '_')));
+            config = config.withLimits(limits);
+
+            List<InetSocketAddress> workers = new ArrayList<>();
+            if (args[2].startsWith("local:")) {
+                int count = Integer.parseInt(args[2].substring("local:".length()));
+                LocalWorkers localWorkers = new LocalWorkers(count, Math.max(1, Runtime.getRuntime().availableProcessors() / count));
+                // Also stops the workers when the run fails
+                Runtime.getRuntime().addShutdownHook(new Thread(localWorkers::close));
+                workers.addAll(localWorkers.getAddresses());
+            } else {
+                for (String worker : args[2].split(",")) {
+                    int separator = worker.lastIndexOf(':');
+                    if (separator < 0) throw new IllegalArgumentException(worker + " must be host:port!");
+                    workers.add(new InetSocketAddress(worker.substring(0, separator), Integer.parseInt(worker.substring(separator + 1))));
+                }
+            }
+            Coordinator coordinator = new Coordinator(workers);
+            coordinator.setTimeout(timeoutMillis);
+            coordinator.run(text, config, engine, games, seed).writeToConsole();
+        } catch (NumberFormatException e) {
+            System.err.println(e.getMessage() + " is not a valid number!");
+            System.exit(-1);
+        } catch (InvalidDataException e) {
+            System.err.println("Invalid data in " + file + ": " + e.getMessage());
+            System.exit(-1);
+        } catch (IOException e) {
+            System.err.println("The configuration could not be read or the workers could not be started: " + e.getMessage());
+            System.exit(-1);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Parses comma separated values, sorted, like {@code 500,1000,1500}.
+     */
+    private static int[] parseValues(String values) {
+        int[] parsed = Arrays.stream(values.split(",")).mapToInt(Integer::parseInt).toArray();
+        Arrays.sort(parsed);
+        return parsed;
+    }
+
+    /**
+     * Runs many games of one configuration: {@code <file> <games> [seed] [threads] [object|array|lockstep] [shared|per-player]}
+     */
+    private static void runBatch(String[] arguments) {
+        try {
+            // The limit options may come anywhere, the rest of the arguments are positional
+            GameLimits limits = GameLimits.NONE;
+            String metricsFile = null;
+            String cacheDirectory = null;
+            String checkpointFile = null;
+            String resultsFile = null;
+            boolean stats = false;
+            double targetWidth = 0;
+            ArrayList<String> positional = new ArrayList<>();
+            for (int i = 0; i < arguments.length; i++) {
+                boolean hasValue = i + 1 < arguments.length;
+                switch (arguments[i]) {
+                    case "--max-turns":
+                        if (hasValue) limits = limits.withMaxTurns(Long.parseLong(arguments[++i]));
+                        break;
+                    case "--max-laps":
+                        if (hasValue) limits = limits.withMaxLaps(Long.parseLong(arguments[++i]));
+                        break;
+                    case "--stalemate":
+                        if (hasValue) limits = limits.withStalemateWindow(Integer.parseInt(arguments[++i]));
+                        break;
+                    case "--metrics":
+                        if (hasValue) metricsFile = arguments[++i];
+                        break;
+                    case "--cache":
+                        if (hasValue) cacheDirectory = arguments[++i];
+                        break;
+                    case "--checkpoint":
+                        if (hasValue) checkpointFile = arguments[++i];
+                        break;
+                    case "--results":
+                        if (hasValue) resultsFile = arguments[++i];
+                        break;
+                    case "--stats":
+                        stats = true;
+                        break;
+                    case "--target-width":
+                        if (hasValue) targetWidth = Double.parseDouble(arguments[++i]);
+                        break;
+                    default:
+                        positional.add(arguments[i]);
+                }
+            }
+            String[] args = positional.toArray(new String[0]);
+            if (args.length < 2) {
+                System.err.println("Usage: Main <file> <games> [seed] [threads] [object|array|lockstep] [shared|per-player] "
+                        + "[--max-turns <turns>] [--max-laps <laps>] [--stalemate <turns>] [--metrics <file>] [--cache <directory>] [--checkpoint <file>] [--results <file>] "
+                        + "[--stats] [--target-width <width>]");
+                System.exit(-1);
+            }
+            if (resultsFile != null && (cacheDirectory != null || checkpointFile != null)) {
+                System.err.println("--results plays every game, it can't be used with --cache or --checkpoint!");
+                System.exit(-1);
+            }
+            if ((stats || targetWidth > 0) && (cacheDirectory != null || checkpointFile != null)) {
+                System.err.println("--stats and --target-width play the games, they can't be used with --cache or --checkpoint!");
+                System.exit(-1);
+            }
+            if (targetWidth < 0 || targetWidth > 1 || Double.isNaN(targetWidth)) {
+                System.err.println(targetWidth + " is not a valid width of an interval!");
+                System.exit(-1);
+            }
+
+            long games = Long.parseLong(args[1]);
+            long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+            GameConfig config = Game.loadConfig(args[0]);
+            int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            EngineType engine = args.length > 4 ? EngineType.valueOf(args[4].toUpperCase()) : EngineType.ARRAY;
+            if (args.length > 5) config = config.withMovement(Movement.valueOf(args[5].toUpperCase().replace('-', '_')));
+            config = config.withLimits(limits);
+            Tournament tournament = new Tournament(config, threads, engine);
+            ResultCache cache = cacheDirectory == null ? null : new ResultCache(Path.of(cacheDirectory), 1);
+            CheckpointedRun checkpoint = checkpointFile == null ? null
+                    : new CheckpointedRun(tournament, Path.of(checkpointFile), CHECKPOINT_INTERVAL_MILLIS);
+
+            OnlineStatistics statistics = stats ? new OnlineStatistics(config) : null;
+            tournament.setStatistics(statistics);
+
+            try (GameResultsWriter results = resultsFile == null ? null : new GameResultsWriter(Path.of(resultsFile), config, seed)) {
+                tournament.setResults(results);
+                if (metricsFile == null) {
+                    runTournament(tournament, cache, checkpoint, games, seed, targetWidth).writeToConsole();
+                } else {
+                    SimulationMetrics metrics = new SimulationMetrics(config);
+                    tournament.setMetrics(metrics);
+                    MetricsReporter reporter = new MetricsReporter(metrics, Path.of(metricsFile), METRICS_INTERVAL_MILLIS);
+                    try {
+                        runTournament(tournament, cache, checkpoint, games, seed, targetWidth).writeToConsole();
+                    } finally {
+                        reporter.close();
+                    }
+                }
+            }
+            if (statistics != null) statistics.writeToConsole();
+        } catch (NumberFormatException e) {
+            System.err.println(e.getMessage() + " is not a valid number!");
+            System.exit(-1);
+        } catch (InvalidDataException e) {
+            System.err.println("Invalid checkpoint: " + e.getMessage());
+            System.exit(-1);
+        } catch (IOException e) {
+            System.err.println("The cache, the checkpoint or the results file could not be used: " + e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Runs the tournament, unless its result is in the cache, continuing from the checkpoint if there is one.
+     * With a target width above 0 the run stops early, see {@link Tournament#runUntil(double, long, long)}.
+     */
+    private static TournamentResult runTournament(Tournament tournament, ResultCache cache, CheckpointedRun checkpoint,
+                                                  long games, long seed, double targetWidth) throws IOException, InvalidDataException {
+        String key = cache == null ? null : ResultCache.key(tournament.getConfig(), games, seed);
+        TournamentResult result = key == null ? null : cache.get(key);
+        if (result != null) return result;
+
+        if (targetWidth > 0) result = tournament.runUntil(targetWidth, games, seed);
+        else result = checkpoint == null ? tournament.run(games, seed) : checkpoint.run(games, seed);
+        if (key != null) cache.put(key, result);
+        return result;
+    }
+}
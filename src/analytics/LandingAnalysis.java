@@ -0,0 +1,202 @@
+package analytics;
+
+import ConsoleColors.ConsoleColors;
+import game.GameConfig;
+
+import java.util.Arrays;
+
+/**
+ * Computes exactly how often the fields of a map are landed on under random rolls of a die,
+ * instead of sampling it with simulated games.
+ * <p>
+ * The moves on the map form a Markov chain: from every field a roll of 1 to 6 leads to one of the
+ * next six fields (going around the map) with probability 1/6. The transition matrix is stored as
+ * compressed sparse rows in primitive arrays (six entries per field, fewer on maps shorter than six
+ * fields), so a step of the chain costs a few multiplications per field and a map of a million fields
+ * takes a few tens of megabytes.
+ * </p>
+ * <p>
+ * Two distributions are computed from it. The stationary distribution, found by power iteration, gives
+ * the share of landings of every field over a very long game. Because every field is entered from exactly
+ * as many fields as it is left to, this chain is doubly stochastic and its stationary distribution is uniform,
+ * so the iteration, which starts from the uniform vector, stops after its first step. The expected landings of
+ * the first moves from the start, before the first field, are where the maps differ: the fields a few rolls from
+ * the start are landed on much more often in a short game. Only the fields the moves so far can reach are
+ * stepped, so the first thousands of moves are cheap even on the largest maps.
+ * </p>
+ */
+public final class LandingAnalysis {
+    public static final int DIE_FACES = 6;
+
+    // ---- Rents, the same as in map.fields.Property ----
+    static final int RENT = 500;
+    static final int HOUSE_RENT = 2000;
+
+    private final GameConfig config;
+    private final int fields;
+
+    // ---- Transition matrix, in compressed sparse rows ----
+    private final int[] rowStart;
+    private final int[] column;
+    private final double[] probability;
+
+    /**
+     * Builds the transition matrix of the map of the given configuration.
+     *
+     * @param config the configuration whose map is analysed
+     */
+    public LandingAnalysis(GameConfig config) {
+        this.config = config;
+        this.fields = config.getFieldCount();
+
+        int entriesPerRow = Math.min(DIE_FACES, fields);
+        rowStart = new int[fields + 1];
+        column = new int[fields * entriesPerRow];
+        probability = new double[fields * entriesPerRow];
+
+        for (int field = 0; field < fields; field++) {
+            int start = field * entriesPerRow;
+            rowStart[field] = start;
+            for (int roll = 1; roll <= DIE_FACES; roll++) {
+                // On maps shorter than the die, several rolls lead to the same field
+                int target = (int) ((field + (long) roll) % fields);
+                int entry = start + (roll - 1) % entriesPerRow;
+                column[entry] = target;
+                probability[entry] += 1.0 / DIE_FACES;
+            }
+        }
+        rowStart[fields] = fields * entriesPerRow;
+    }
+
+    public int getFieldCount(){ return fields; }
+
+    /**
+     * Finds the stationary landing distribution by power iteration.
+     *
+     * @param tolerance the largest change (sum of absolute differences) of the distribution in the last step
+     * @param maxIterations the number of steps after which the iteration stops anyway
+     * @return the probability of landing on every field in a turn of a very long game
+     */
+    public double[] stationaryDistribution(double tolerance, int maxIterations) {
+        double[] distribution = new double[fields];
+        double[] next = new double[fields];
+        Arrays.fill(distribution, 1.0 / fields);
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            Arrays.fill(next, 0.0);
+            step(distribution, next, 0, fields);
+
+            double change = 0;
+            for (int field = 0; field < fields; field++) {
+                change += Math.abs(next[field] - distribution[field]);
+            }
+            double[] previous = distribution;
+            distribution = next;
+            next = previous;
+            if (change <= tolerance) break;
+        }
+        return distribution;
+    }
+
+    /**
+     * Computes how many times every field is landed on, on average, during the first moves from the start.
+     * With {@link map.Movement#PER_PLAYER} this is the landings of one player in their first moves,
+     * with {@link map.Movement#SHARED} the landings of all players in the first turns of the game.
+     *
+     * @param moves the number of moves
+     * @return the expected number of landings on every field, their sum is the number of moves
+     */
+    public double[] expectedLandings(int moves) {
+        double[] landings = new double[fields];
+        if (moves < 1) return landings;
+
+        // The first move is from before the first field
+        double[] distribution = new double[fields];
+        for (int roll = 1; roll <= DIE_FACES; roll++) {
+            distribution[(roll - 1) % fields] += 1.0 / DIE_FACES;
+        }
+        double[] next = new double[fields];
+        int first = 0;
+        int span = Math.min(DIE_FACES, fields);
+        add(landings, distribution, first, span);
+
+        for (int move = 1; move < moves; move++) {
+            // The fields reachable after this move: one further at the least, six at the most
+            int nextFirst = first + 1 == fields ? 0 : first + 1;
+            int nextSpan = (int) Math.min(fields, span + (long) DIE_FACES - 1);
+            clear(next, nextFirst, nextSpan);
+            step(distribution, next, first, span);
+            add(landings, next, nextFirst, nextSpan);
+
+            double[] previous = distribution;
+            distribution = next;
+            next = previous;
+            first = nextFirst;
+            span = nextSpan;
+        }
+        return landings;
+    }
+
+    /**
+     * Weights the landings with the money that changes hands on every field: the rent of a property
+     * (paid to its owner), the fee of a service (paid to the bank), or the payment of a luck field (paid to the player).
+     *
+     * @param landings the landing probabilities or expected landings of every field
+     * @param withHouses whether the rent of the properties is the rent with a house
+     * @return the expected money changing hands on every field
+     */
+    public double[] expectedIncome(double[] landings, boolean withHouses) {
+        double[] income = new double[fields];
+        int rent = withHouses ? HOUSE_RENT : RENT;
+        for (int field = 0; field < fields; field++) {
+            int amount = config.getFieldKind(field) == GameConfig.PROPERTY ? rent : config.getFieldValue(field);
+            income[field] = landings[field] * amount;
+        }
+        return income;
+    }
+
+    /**
+     * Writes the fields with the highest expected income to the console, with their landings.
+     *
+     * @param landings the landing probabilities or expected landings of every field
+     * @param count the number of fields to write
+     */
+    public void writeTopFieldsToConsole(double[] landings, int count) {
+        double[] income = expectedIncome(landings, false);
+        Integer[] order = new Integer[fields];
+        for (int field = 0; field < fields; field++) order[field] = field;
+        Arrays.sort(order, (a, b) -> Double.compare(income[b], income[a]));
+
+        System.out.println(ConsoleColors.CYAN + "Field | type | landings | expected income" + ConsoleColors.RESET);
+        for (int i = 0; i < Math.min(count, fields); i++) {
+            int field = order[i];
+            System.out.printf("%d | %s | %.6f | %.2f%n", field, config.getFieldType(field), landings[field], income[field]);
+        }
+    }
+
+    /**
+     * One step of the chain from the given window of fields: pushes the probability of every field
+     * along its row of the transition matrix.
+     */
+    private void step(double[] from, double[] to, int first, int span) {
+        for (int i = 0, field = first; i < span; i++, field = field + 1 == fields ? 0 : field + 1) {
+            double mass = from[field];
+            if (mass == 0) continue;
+            for (int entry = rowStart[field]; entry < rowStart[field + 1]; entry++) {
+                to[column[entry]] += mass * probability[entry];
+            }
+        }
+    }
+
+    private void add(double[] sum, double[] values, int first, int span) {
+        for (int i = 0, field = first; i < span; i++, field = field + 1 == fields ? 0 : field + 1) {
+            sum[field] += values[field];
+        }
+    }
+
+    private void clear(double[] values, int first, int span) {
+        for (int i = 0, field = first; i < span; i++, field = field + 1 == fields ? 0 : field + 1) {
+            values[field] = 0.0;
+        }
+    }
+}
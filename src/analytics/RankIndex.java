@@ -0,0 +1,170 @@
+package analytics;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Keeps players ordered by a key, so the rank of a player and the player at a rank are found in O(log n).
+ * <p>
+ * It is a treap whose nodes are the players themselves: the key, children, subtree size and random priority of every
+ * player are stored in primitive arrays indexed by the player, so updating a key allocates nothing. The players are
+ * ordered by their key, then by their index, so every order is total and ties go to the player read first.
+ * </p>
+ */
+final class RankIndex {
+    private static final int NONE = -1;
+
+    private final long[] key;
+    private final int[] left;
+    private final int[] right;
+    private final int[] size;
+    private final int[] priority;
+    private final boolean[] contained;
+    private int root = NONE;
+
+    // ---- Result of split ----
+    private int splitLeft;
+    private int splitRight;
+
+    /**
+     * @param players the number of players that can be in the index
+     * @param seed the seed of the priorities, which only decide the shape of the tree
+     */
+    RankIndex(int players, long seed) {
+        key = new long[players];
+        left = new int[players];
+        right = new int[players];
+        size = new int[players];
+        priority = new int[players];
+        contained = new boolean[players];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int player = 0; player < players; player++) priority[player] = random.nextInt();
+    }
+
+    void clear() {
+        Arrays.fill(contained, false);
+        root = NONE;
+    }
+
+    int size(){ return root == NONE ? 0 : size[root]; }
+    boolean contains(int player){ return contained[player]; }
+    long getKey(int player){ return key[player]; }
+
+    /**
+     * Adds the player with the given key, or moves them to it if they are already in the index.
+     */
+    void put(int player, long newKey) {
+        if (contained[player]) {
+            if (key[player] == newKey) return;
+            remove(player);
+        }
+        key[player] = newKey;
+        left[player] = NONE;
+        right[player] = NONE;
+        size[player] = 1;
+        contained[player] = true;
+
+        split(root, player);
+        int greater = splitRight;
+        root = merge(merge(splitLeft, player), greater);
+    }
+
+    void remove(int player) {
+        if (!contained[player]) return;
+        root = remove(root, player);
+        contained[player] = false;
+    }
+
+    /**
+     * @return the number of players before the given one, who has to be in the index
+     */
+    int rank(int player) {
+        int rank = 0;
+        int node = root;
+        while (node != player) {
+            if (before(player, node)) {
+                node = left[node];
+            } else {
+                rank += size(left[node]) + 1;
+                node = right[node];
+            }
+        }
+        return rank + size(left[player]);
+    }
+
+    /**
+     * @param rank the number of players before the one to find, less than {@link #size()}
+     * @return the player with the given rank
+     */
+    int select(int rank) {
+        int node = root;
+        while (true) {
+            int leftSize = size(left[node]);
+            if (rank < leftSize) {
+                node = left[node];
+            } else if (rank == leftSize) {
+                return node;
+            } else {
+                rank -= leftSize + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    private boolean before(int a, int b) {
+        return key[a] < key[b] || key[a] == key[b] && a < b;
+    }
+
+    private int size(int node) {
+        return node == NONE ? 0 : size[node];
+    }
+
+    private void update(int node) {
+        size[node] = 1 + size(left[node]) + size(right[node]);
+    }
+
+    /**
+     * Splits the subtree into the players before the given one ({@link #splitLeft}) and the rest ({@link #splitRight}).
+     */
+    private void split(int node, int player) {
+        if (node == NONE) {
+            splitLeft = NONE;
+            splitRight = NONE;
+            return;
+        }
+        if (before(node, player)) {
+            split(right[node], player);
+            right[node] = splitLeft;
+            splitLeft = node;
+        } else {
+            split(left[node], player);
+            left[node] = splitRight;
+            splitRight = node;
+        }
+        update(node);
+    }
+
+    /**
+     * Joins two subtrees, every player of the first being before every player of the second.
+     */
+    private int merge(int first, int second) {
+        if (first == NONE) return second;
+        if (second == NONE) return first;
+        if (priority[first] > priority[second]) {
+            right[first] = merge(right[first], second);
+            update(first);
+            return first;
+        }
+        left[second] = merge(first, left[second]);
+        update(second);
+        return second;
+    }
+
+    private int remove(int node, int player) {
+        if (node == player) return merge(left[node], right[node]);
+        if (before(player, node)) left[node] = remove(left[node], player);
+        else right[node] = remove(right[node], player);
+        update(node);
+        return node;
+    }
+}
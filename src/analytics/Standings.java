@@ -0,0 +1,252 @@
+package analytics;
+
+import ConsoleColors.ConsoleColors;
+import engine.GameSnapshot;
+import events.GameEvent;
+import events.GameEventListener;
+import game.GameConfig;
+import players.Player;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the standings of a game up to date event by event, so they can be asked at any turn
+ * without going through the board or every player.
+ * <p>
+ * Listening to a game, it keeps the money, the number of properties and houses, the net worth (money plus the price
+ * of the properties and houses, the score games that end early are ranked by) and the rent exposure of every player.
+ * The rent exposure is the rent of every property the other players own: what a player would pay landing on each of
+ * them once. Every event changes the numbers of one player (or frees the properties of one who lost) in constant time.
+ * </p>
+ * <p>
+ * The players still in the game are also kept in two {@link RankIndex order-statistic trees}, by net worth and by money,
+ * so the rank of a player, the player at a rank and the players closest to bankruptcy are found in O(log n),
+ * even in a game of thousands of players. The ranks are the finishing positions the game would give if it ended now:
+ * the remaining players by net worth (the first player on a tie), then the players who lost in the reverse order they lost.
+ * </p>
+ */
+public final class Standings implements GameEventListener {
+    private static final int NONE = -1;
+
+    private final GameConfig config;
+    private final int propertyPrice;
+    private final int housePrice;
+
+    // ---- Board ----
+    private final int[] owner;
+    private final boolean[] house;
+    /** The properties of every player as a linked list, so the properties of a player who lost are freed at once. */
+    private final int[] firstProperty;
+    private final int[] nextProperty;
+    /** The rent of every owned property together. */
+    private long totalRent;
+
+    // ---- Players ----
+    private final int[] money;
+    private final int[] propertyCount;
+    private final int[] houseCount;
+    private final long[] ownRent;
+    private final int[] lostIndex;
+    private int lostCount;
+    private final RankIndex byNetWorth;
+    private final RankIndex byMoney;
+
+    /**
+     * @param config the configuration of the game the standings are kept for
+     */
+    public Standings(GameConfig config) {
+        this.config = config;
+        propertyPrice = config.getRules().getPropertyPrice();
+        housePrice = config.getRules().getHousePrice();
+
+        int fields = config.getFieldCount();
+        owner = new int[fields];
+        house = new boolean[fields];
+        nextProperty = new int[fields];
+
+        int players = config.getPlayerCount();
+        firstProperty = new int[players];
+        money = new int[players];
+        propertyCount = new int[players];
+        houseCount = new int[players];
+        ownRent = new long[players];
+        lostIndex = new int[players];
+        byNetWorth = new RankIndex(players, 1);
+        byMoney = new RankIndex(players, 2);
+        reset();
+    }
+
+    /**
+     * Puts the standings back to the start of a game.
+     */
+    public void reset() {
+        clear();
+        for (int player = 0; player < money.length; player++) {
+            money[player] = Player.STARTING_MONEY;
+            index(player);
+        }
+    }
+
+    /**
+     * Sets the standings to the state of a snapshot, to follow a game restored from it.
+     *
+     * @param snapshot a snapshot of a game of the configuration
+     */
+    public void restore(GameSnapshot snapshot) {
+        if (snapshot.getFieldCount() != owner.length || snapshot.getPlayerCount() != money.length) {
+            throw new IllegalArgumentException("The snapshot is of a game of another size!");
+        }
+        clear();
+        for (int i = 0; i < snapshot.getLostCount(); i++) {
+            lostIndex[snapshot.getLost(i)] = lostCount++;
+        }
+        for (int field = 0; field < owner.length; field++) {
+            int fieldOwner = snapshot.getOwner(field);
+            if (fieldOwner == GameSnapshot.NO_OWNER) continue;
+            addProperty(fieldOwner, field);
+            if (snapshot.hasHouse(field)) addHouse(fieldOwner, field);
+        }
+        for (int player = 0; player < money.length; player++) {
+            money[player] = snapshot.getMoney(player);
+            if (!hasLost(player)) index(player);
+        }
+    }
+
+    private void clear() {
+        Arrays.fill(owner, NONE);
+        Arrays.fill(house, false);
+        Arrays.fill(firstProperty, NONE);
+        Arrays.fill(propertyCount, 0);
+        Arrays.fill(houseCount, 0);
+        Arrays.fill(ownRent, 0L);
+        Arrays.fill(lostIndex, NONE);
+        lostCount = 0;
+        totalRent = 0;
+        byNetWorth.clear();
+        byMoney.clear();
+    }
+
+    @Override
+    public void onEvent(GameEvent event, int player, int field, int amount, int balance) {
+        switch (event) {
+            case PROPERTY_BOUGHT:
+                addProperty(player, field);
+                break;
+            case HOUSE_BOUGHT:
+                addHouse(player, field);
+                break;
+            case LOST:
+                lose(player);
+                return;
+            default:
+                if (money[player] == balance) return;
+        }
+        money[player] = balance;
+        if (!hasLost(player)) index(player);
+    }
+
+    private void addProperty(int player, int field) {
+        owner[field] = player;
+        nextProperty[field] = firstProperty[player];
+        firstProperty[player] = field;
+        propertyCount[player]++;
+        ownRent[player] += LandingAnalysis.RENT;
+        totalRent += LandingAnalysis.RENT;
+    }
+
+    private void addHouse(int player, int field) {
+        house[field] = true;
+        houseCount[player]++;
+        ownRent[player] += LandingAnalysis.HOUSE_RENT - LandingAnalysis.RENT;
+        totalRent += LandingAnalysis.HOUSE_RENT - LandingAnalysis.RENT;
+    }
+
+    /**
+     * The player leaves the standings, and all their properties (and houses) become unowned.
+     */
+    private void lose(int player) {
+        if (hasLost(player)) return;
+        for (int field = firstProperty[player]; field != NONE; field = nextProperty[field]) {
+            owner[field] = NONE;
+            house[field] = false;
+        }
+        firstProperty[player] = NONE;
+        propertyCount[player] = 0;
+        houseCount[player] = 0;
+        totalRent -= ownRent[player];
+        ownRent[player] = 0;
+        lostIndex[player] = lostCount++;
+        byNetWorth.remove(player);
+        byMoney.remove(player);
+    }
+
+    private void index(int player) {
+        byNetWorth.put(player, -getNetWorth(player));
+        byMoney.put(player, money[player]);
+    }
+
+    // ---- Players ----
+    public int getPlayerCount(){ return money.length; }
+    public int getMoney(int player){ return money[player]; }
+    public int getPropertyCount(int player){ return propertyCount[player]; }
+    public int getHouseCount(int player){ return houseCount[player]; }
+    public boolean hasLost(int player){ return lostIndex[player] != NONE; }
+    /** @return the owner of the field, -1 if nobody owns it */
+    public int getOwner(int field){ return owner[field]; }
+
+    /** @return the money of the player plus the price of their properties and houses */
+    public long getNetWorth(int player) {
+        return money[player] + (long) propertyCount[player] * propertyPrice + (long) houseCount[player] * housePrice;
+    }
+
+    /** @return the rent of every property owned by the other players */
+    public long getRentExposure(int player) {
+        return hasLost(player) ? 0 : totalRent - ownRent[player];
+    }
+
+    // ---- Ranking ----
+    /** @return the number of players still in the game */
+    public int getRemainingCount(){ return byNetWorth.size(); }
+
+    /**
+     * @param player the index of the player
+     * @return the position the player would finish in if the game ended now, 1 being the first
+     */
+    public int getRank(int player) {
+        if (hasLost(player)) return money.length - lostIndex[player];
+        return byNetWorth.rank(player) + 1;
+    }
+
+    /**
+     * @param rank a position among the players still in the game, 1 being the first
+     * @return the player in that position
+     */
+    public int getPlayerAt(int rank) {
+        return byNetWorth.select(rank - 1);
+    }
+
+    /**
+     * @param index 0 for the player with the least money, 1 for the next one, and so on
+     * @return the player still in the game with that much money, the first of them being the closest to bankruptcy
+     */
+    public int getClosestToBankruptcy(int index) {
+        return byMoney.select(index);
+    }
+
+    /**
+     * Writes the players still in the game in the order of their rank, and who is closest to bankruptcy.
+     */
+    public void writeToConsole() {
+        System.out.println(ConsoleColors.CYAN + "Standings" + ConsoleColors.RESET);
+        for (int rank = 1; rank <= getRemainingCount(); rank++) {
+            int player = getPlayerAt(rank);
+            System.out.printf("%d. %s (%s): net worth %d, money %d, properties %d, houses %d, rent exposure %d%n",
+                    rank, config.getPlayerName(player), config.getPlaystyle(player), getNetWorth(player), money[player],
+                    propertyCount[player], houseCount[player], getRentExposure(player));
+        }
+        if (getRemainingCount() > 0) {
+            System.out.println(ConsoleColors.YELLOW + "Closest to bankruptcy: "
+                    + config.getPlayerName(getClosestToBankruptcy(0)) + ConsoleColors.RESET);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package cluster;
+
+import engine.EngineType;
+import exceptions.InvalidDataException;
+import game.GameConfig;
+import simulation.Tournament;
+import simulation.TournamentResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Runs a batch of games on {@link Worker} processes, on this host or others, over TCP.
+ * <p>
+ * The chunks of the run (see {@link Tournament}) are split into ranges of {@link #setRangeChunks(int) a few chunks}.
+ * Every worker gets a connection and its own thread here, which sends the {@link Job} once and then one range at a
+ * time, the next one as soon as the worker returns the result of the previous one, so faster workers play more ranges.
+ * A worker that goes away, refuses the job or sends nothing, not even {@link Protocol#WORKING a heartbeat}, within
+ * {@link #setTimeout(int) the timeout} is dropped, and its range is given to the others. Every game's dice rolls only depend on the master seed and the index of its chunk, and results only hold
+ * sums, so the merged result is the same as that of {@link Tournament#run(long, long)} in a single process, whichever
+ * workers played which ranges. The run only fails when every worker is gone before the last range is done.
+ * </p>
+ */
+public final class Coordinator {
+    public static final int DEFAULT_RANGE_CHUNKS = 16;
+    public static final int DEFAULT_TIMEOUT_MILLIS = 60 * 1000;
+
+    private final List<InetSocketAddress> workers;
+    private int rangeChunks = DEFAULT_RANGE_CHUNKS;
+    private int timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    /**
+     * @param workers the addresses of the workers
+     */
+    public Coordinator(List<InetSocketAddress> workers) {
+        if (workers.isEmpty()) throw new IllegalArgumentException("There must be at least one worker!");
+        this.workers = List.copyOf(workers);
+    }
+
+    /**
+     * @param rangeChunks the number of chunks a worker plays at a time
+     */
+    public void setRangeChunks(int rangeChunks) {
+        if (rangeChunks < 1) throw new IllegalArgumentException("A range must have at least one chunk!");
+        this.rangeChunks = rangeChunks;
+    }
+
+    /**
+     * A worker playing a range sends a heartbeat every {@link Protocol#HEARTBEAT_MILLIS}, so the timeout must be
+     * longer than that, and a few times longer on a busy network.
+     *
+     * @param timeoutMillis the longest time a worker may take to connect or stay silent before it is dropped
+     */
+    public void setTimeout(int timeoutMillis) {
+        if (timeoutMillis <= Protocol.HEARTBEAT_MILLIS) {
+            throw new IllegalArgumentException("The timeout must be longer than the heartbeat of the workers, "
+                    + Protocol.HEARTBEAT_MILLIS / 1000 + " seconds!");
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Simulates the given number of games on the workers and merges their results.
+     *
+     * @param text the text of the configuration file, which is sent to the workers
+     * @param config the configuration parsed from the text, with the rules, movement and limits of the run
+     * @param engine the engine the workers play with
+     * @param games the number of games to simulate
+     * @param masterSeed the seed every game's dice rolls are derived from
+     * @return the aggregated finishing positions, the same as those of {@link Tournament#run(long, long)}
+     * @throws InvalidDataException if the text is not a valid configuration
+     * @throws IllegalStateException if every worker is gone before the games are played
+     */
+    public TournamentResult run(byte[] text, GameConfig config, EngineType engine, long games, long masterSeed)
+            throws InvalidDataException {
+        Job job = new Job(text, config.getRules(), config.getMovement(), config.getLimits(), engine, games, masterSeed);
+        job.key();
+
+        long chunks = Tournament.getChunkCount(games);
+        Run run = new Run(Tournament.emptyResult(config), workers.size());
+        for (long first = 0; first < chunks; first += rangeChunks) run.pending.add(first);
+        run.remaining = run.pending.size();
+
+        for (InetSocketAddress address : workers) {
+            Thread thread = new Thread(() -> serve(run, address, job, chunks), "coordinator-" + address);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return run.await();
+    }
+
+    /**
+     * Sends ranges to one worker until every range is done, or the worker is gone.
+     */
+    private void serve(Run run, InetSocketAddress address, Job job, long chunks) {
+        Long range = null;
+        try (Socket socket = new Socket()) {
+            socket.connect(address, timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(Protocol.MAGIC);
+            out.writeInt(Protocol.VERSION);
+            job.write(out);
+            out.flush();
+            if (read(in, address) != Protocol.ACCEPTED) throw new InvalidDataException(address + " sent an invalid answer!");
+
+            while ((range = run.take()) != null) {
+                out.writeByte(Protocol.RANGE);
+                out.writeLong(range);
+                out.writeLong(Math.min(chunks, range + rangeChunks));
+                out.flush();
+                if (read(in, address) != Protocol.PARTIAL || in.readLong() != range) {
+                    throw new InvalidDataException(address + " sent an invalid answer!");
+                }
+                run.complete(TournamentResult.read(in));
+                range = null;
+            }
+            out.writeByte(Protocol.DONE);
+            out.flush();
+        } catch (IOException | InvalidDataException e) {
+            run.lost(range, address + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the type of an answer, skipping heartbeats, and the message of a worker that failed.
+     */
+    private static byte read(DataInputStream in, InetSocketAddress address) throws IOException, InvalidDataException {
+        byte type;
+        do type = in.readByte(); while (type == Protocol.WORKING);
+        if (type == Protocol.FAILED) throw new InvalidDataException(address + " failed: " + in.readUTF());
+        return type;
+    }
+
+    /**
+     * The ranges of one run still to play and the result of those played, shared by the threads of the workers.
+     */
+    private static final class Run {
+        /** The first chunk of every range waiting for a worker. */
+        final ArrayDeque<Long> pending = new ArrayDeque<>();
+        final TournamentResult result;
+        long remaining;
+        int connected;
+        String lastError;
+
+        Run(TournamentResult result, int connected) {
+            this.result = result;
+            this.connected = connected;
+        }
+
+        /**
+         * @return the result, when every range is done
+         */
+        synchronized TournamentResult await() {
+            try {
+                while (remaining > 0 && connected > 0) wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop();
+                throw new IllegalStateException("The run was interrupted!", e);
+            }
+            boolean done = remaining == 0;
+            stop();
+            if (!done) throw new IllegalStateException("Every worker is gone! The last error: " + lastError);
+            return result;
+        }
+
+        /**
+         * Ends the run, the workers still connected are sent {@link Protocol#DONE}.
+         */
+        private void stop() {
+            remaining = 0;
+            pending.clear();
+            notifyAll();
+        }
+
+        /**
+         * @return the first chunk of the next range to play, null when every range is done
+         */
+        synchronized Long take() {
+            while (pending.isEmpty() && remaining > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            return pending.poll();
+        }
+
+        synchronized void complete(TournamentResult partial) {
+            if (remaining == 0) return;
+            result.merge(partial);
+            remaining--;
+            notifyAll();
+        }
+
+        /**
+         * Drops a worker, giving its range to the others.
+         */
+        synchronized void lost(Long range, String error) {
+            if (range != null && remaining > 0) pending.addFirst(range);
+            lastError = error;
+            connected--;
+            notifyAll();
+        }
+    }
+}
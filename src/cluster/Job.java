@@ -0,0 +1,133 @@
+package cluster;
+
+import engine.EngineType;
+import engine.GameEngine;
+import exceptions.InvalidDataException;
+import game.GameConfig;
+import game.GameLimits;
+import game.GameRules;
+import map.Movement;
+import simulation.ResultCache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * What a {@link Coordinator} asks its workers to play: the text of the configuration, everything the command line
+ * changes in it, the engine, the number of games and the master seed.
+ * <p>
+ * The configuration is sent as the text of the file and parsed by the worker the same way as by the coordinator,
+ * so both play exactly the same games. The key of {@link ResultCache#key} is sent along, so a worker that parses
+ * the text into something else (other rule files of a playstyle, another version of the engines) refuses the job
+ * instead of returning other results.
+ * </p>
+ */
+final class Job {
+    /** The largest configuration text a worker accepts. */
+    static final int MAX_CONFIG_SIZE = 64 * 1024 * 1024;
+
+    final byte[] text;
+    final GameRules rules;
+    final Movement movement;
+    final GameLimits limits;
+    final EngineType engine;
+    final long games;
+    final long masterSeed;
+    private String key;
+
+    Job(byte[] text, GameRules rules, Movement movement, GameLimits limits, EngineType engine, long games, long masterSeed) {
+        this.text = text;
+        this.rules = rules;
+        this.movement = movement;
+        this.limits = limits;
+        this.engine = engine;
+        this.games = games;
+        this.masterSeed = masterSeed;
+    }
+
+    /**
+     * Parses the configuration of the job.
+     *
+     * @return the configuration of every game, with the rules, movement and limits of the job
+     * @throws InvalidDataException if the text contains invalid data
+     * @throws NumberFormatException if the text contains invalid number formats
+     */
+    GameConfig parse() throws InvalidDataException, NumberFormatException {
+        return GameConfig.parse(ByteBuffer.wrap(text)).withRules(rules).withMovement(movement).withLimits(limits);
+    }
+
+    /**
+     * @return the key of the games of the job, the empty string if a strategy can't be hashed
+     */
+    String key() throws InvalidDataException {
+        if (key == null) {
+            String hash = ResultCache.key(parse(), games, masterSeed);
+            key = hash == null ? "" : hash;
+        }
+        return key;
+    }
+
+    void write(DataOutput out) throws IOException, InvalidDataException {
+        out.writeInt(GameEngine.VERSION);
+        out.writeInt(text.length);
+        out.write(text);
+        out.writeInt(rules.getPropertyPrice());
+        out.writeInt(rules.getHousePrice());
+        out.writeInt(rules.getCarefulDivisor());
+        out.writeInt(rules.getTacticianPeriod());
+        out.writeByte(movement.ordinal());
+        out.writeLong(limits.getMaxTurns());
+        out.writeLong(limits.getMaxLaps());
+        out.writeInt(limits.getStalemateWindow());
+        out.writeByte(engine.ordinal());
+        out.writeLong(games);
+        out.writeLong(masterSeed);
+        out.writeUTF(key());
+    }
+
+    /**
+     * Reads a job written by {@link #write(DataOutput)} and checks that it parses into the same games here.
+     *
+     * @param in the input to read from
+     * @return the job
+     * @throws IOException if the input cannot be read
+     * @throws InvalidDataException if the job is not valid, or it isn't the same job here
+     */
+    static Job read(DataInput in) throws IOException, InvalidDataException {
+        if (in.readInt() != GameEngine.VERSION) throw new InvalidDataException("The coordinator runs another version of the engines!");
+        int size = in.readInt();
+        if (size < 0 || size > MAX_CONFIG_SIZE) throw new InvalidDataException(size + " is not a valid configuration size!");
+        byte[] text = new byte[size];
+        in.readFully(text);
+        Job job;
+        try {
+            GameRules rules = new GameRules(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+            Movement movement = valueOf(Movement.values(), in.readUnsignedByte());
+            GameLimits limits = GameLimits.NONE.withMaxTurns(in.readLong()).withMaxLaps(in.readLong()).withStalemateWindow(in.readInt());
+            EngineType engine = valueOf(EngineType.values(), in.readUnsignedByte());
+            long games = in.readLong();
+            long masterSeed = in.readLong();
+            if (games < 0) throw new InvalidDataException(games + " is not a valid number of games!");
+            job = new Job(text, rules, movement, limits, engine, games, masterSeed);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDataException(e.getMessage());
+        }
+
+        String key = in.readUTF();
+        try {
+            if (!job.key().equals(key)) {
+                throw new InvalidDataException("The configuration is not the same on the worker, check the rule files of the playstyles!");
+            }
+        } catch (NumberFormatException e) {
+            throw new InvalidDataException(e.getMessage() + " is not a valid number!");
+        }
+        return job;
+    }
+
+    private static <E> E valueOf(E[] values, int ordinal) throws InvalidDataException {
+        if (ordinal >= values.length) throw new InvalidDataException(ordinal + " is not a valid option!");
+        return values[ordinal];
+    }
+}
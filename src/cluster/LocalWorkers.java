@@ -0,0 +1,75 @@
+package cluster;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts {@link Worker} processes on this host, {@code Main --worker 0 <threads> localhost} with the class path and the
+ * module and system property options of this JVM, so a {@link Coordinator} can be tried with real processes
+ * and sockets on one machine. Closing it stops the processes.
+ */
+public final class LocalWorkers implements AutoCloseable {
+    private final List<Process> processes = new ArrayList<>();
+    private final List<InetSocketAddress> addresses = new ArrayList<>();
+
+    /**
+     * Starts the workers and waits until every one of them listens.
+     *
+     * @param count the number of worker processes
+     * @param threads the number of threads of every worker
+     * @throws IOException if a worker cannot be started
+     */
+    public LocalWorkers(int count, int threads) throws IOException {
+        if (count < 1) throw new IllegalArgumentException("The number of workers must be at least 1!");
+        try {
+            for (int i = 0; i < count; i++) start(threads);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void start(int threads) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        for (String option : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (option.startsWith("--add-modules") || option.startsWith("-D") || option.startsWith("-Xmx")) command.add(option);
+        }
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"),
+                "Main", "--worker", "0", String.valueOf(threads), "localhost"));
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        processes.add(process);
+
+        // The worker tells its port on the first line of its output
+        BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line = output.readLine();
+        if (line == null || !line.startsWith(Worker.LISTENING)) throw new IOException("A worker could not be started!");
+        try {
+            addresses.add(new InetSocketAddress("localhost", Integer.parseInt(line.substring(Worker.LISTENING.length()).trim())));
+        } catch (NumberFormatException e) {
+            throw new IOException("A worker could not be started: " + line);
+        }
+    }
+
+    public List<InetSocketAddress> getAddresses(){ return List.copyOf(addresses); }
+
+    @Override
+    public void close() {
+        for (Process process : processes) process.destroy();
+        for (Process process : processes) {
+            try {
+                process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
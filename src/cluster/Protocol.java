@@ -0,0 +1,35 @@
+package cluster;
+
+/**
+ * The messages between a {@link Coordinator} and a {@link Worker}, written with {@code DataOutput} (big-endian).
+ * <p>
+ * The coordinator opens the connection and sends {@link #MAGIC}, {@link #VERSION} and the {@link Job}. The worker answers
+ * {@link #ACCEPTED}, or {@link #FAILED} and a message. Then the coordinator sends {@link #RANGE} with the first chunk and
+ * the chunk after the last one of a range of the run, and the worker answers {@link #PARTIAL} with the first chunk again
+ * and the {@code TournamentResult} of the range, or {@link #FAILED} and a message. {@link #DONE} ends the connection.
+ * </p>
+ * <p>
+ * While it plays a range, the worker sends {@link #WORKING} every {@link #HEARTBEAT_MILLIS}, which the coordinator
+ * skips before an answer. So the timeout of the coordinator only runs out when a worker is silent, not when a range
+ * simply takes long. A heartbeat may also arrive after the answer, before the next one.
+ * </p>
+ */
+final class Protocol {
+    static final int MAGIC = 0x43415044; // "CAPD"
+    static final int VERSION = 2;
+    /** The time between two {@link #WORKING} messages of a worker playing a range. */
+    static final int HEARTBEAT_MILLIS = 5_000;
+
+    // ---- From the coordinator ----
+    static final byte RANGE = 1;
+    static final byte DONE = 2;
+
+    // ---- From the worker ----
+    static final byte ACCEPTED = 3;
+    static final byte PARTIAL = 4;
+    static final byte FAILED = 5;
+    static final byte WORKING = 6;
+
+    private Protocol() {
+    }
+}
@@ -0,0 +1,176 @@
+package cluster;
+
+import exceptions.InvalidDataException;
+import simulation.Tournament;
+import simulation.TournamentResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays the ranges of chunks a {@link Coordinator} sends, see {@link Protocol}.
+ * <p>
+ * Every connection gets its own thread, which parses the {@link Job} once into a {@link Tournament} and then plays
+ * every range with {@link Tournament#run(long, long, long, long)}, so a range gives exactly the result it gives in
+ * a single process. The games of every connection are played on one shared pool of threads, so a worker serving
+ * many coordinators uses its cores without overloading them. While a range is played, a shared timer sends the
+ * coordinator {@link Protocol#WORKING heartbeats}, so a long range isn't mistaken for a worker that is gone.
+ * </p>
+ */
+public final class Worker implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7070;
+    /** The start of the line a worker process writes when it listens, followed by its port. */
+    public static final String LISTENING = "Worker listening on port ";
+
+    private final ServerSocket server;
+    private final ExecutorService cores;
+    private final ScheduledExecutorService heartbeats;
+    private final int threads;
+    private final Thread acceptor;
+
+    /**
+     * Binds the worker, {@link #start()} starts accepting coordinators.
+     *
+     * @param address the address to listen on, port 0 for any free port
+     * @param threads the number of threads playing the games, usually the number of cores
+     * @throws IOException if the address cannot be bound
+     */
+    public Worker(InetSocketAddress address, int threads) throws IOException {
+        if (threads < 1) throw new IllegalArgumentException("The number of threads must be at least 1!");
+        this.threads = threads;
+        this.server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(address);
+        this.cores = Executors.newFixedThreadPool(threads, daemonThreads("worker-game"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("worker-heartbeat"));
+        // Not a daemon, so the process of a worker keeps running
+        this.acceptor = new Thread(this::accept, "worker-accept");
+    }
+
+    public void start() {
+        acceptor.start();
+    }
+
+    public int getPort(){ return server.getLocalPort(); }
+
+    @Override
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        cores.shutdownNow();
+        heartbeats.shutdownNow();
+    }
+
+    private void accept() {
+        ThreadFactory connections = daemonThreads("worker-connection");
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                connections.newThread(() -> serve(socket)).start();
+            } catch (IOException e) {
+                // The server was closed, or one connection failed
+            }
+        }
+    }
+
+    /**
+     * Plays the ranges of one coordinator until it is done or goes away.
+     */
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+            Job job;
+            Tournament tournament;
+            try {
+                if (in.readInt() != Protocol.MAGIC) throw new InvalidDataException("The connection is not from a coordinator!");
+                if (in.readInt() != Protocol.VERSION) throw new InvalidDataException("The coordinator uses another version of the protocol!");
+                job = Job.read(in);
+                tournament = new Tournament(job.parse(), threads, job.engine);
+                tournament.setExecutor(cores);
+            } catch (InvalidDataException e) {
+                fail(out, e.getMessage());
+                return;
+            }
+            out.writeByte(Protocol.ACCEPTED);
+            out.flush();
+
+            long chunks = Tournament.getChunkCount(job.games);
+            while (in.readByte() == Protocol.RANGE) {
+                long first = in.readLong();
+                long end = in.readLong();
+                if (first < 0 || first > end || end > chunks) {
+                    fail(out, first + " - " + end + " is not a valid range of chunks!");
+                    return;
+                }
+                TournamentResult result;
+                ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> beat(out),
+                        Protocol.HEARTBEAT_MILLIS, Protocol.HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                try {
+                    result = tournament.run(job.games, job.masterSeed, first, end);
+                } catch (IllegalStateException e) {
+                    fail(out, e.getMessage());
+                    return;
+                } finally {
+                    heartbeat.cancel(false);
+                }
+                synchronized (out) {
+                    out.writeByte(Protocol.PARTIAL);
+                    out.writeLong(first);
+                    result.write(out);
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // The coordinator went away, it gives the range to another worker
+        }
+    }
+
+    /**
+     * Sends a heartbeat, between the messages of the thread of the connection.
+     */
+    private static void beat(DataOutputStream out) {
+        synchronized (out) {
+            try {
+                out.writeByte(Protocol.WORKING);
+                out.flush();
+            } catch (IOException e) {
+                // The thread of the connection sees the coordinator is gone
+            }
+        }
+    }
+
+    private static void fail(DataOutputStream out, String message) throws IOException {
+        synchronized (out) {
+            out.writeByte(Protocol.FAILED);
+            out.writeUTF(message == null ? "The games could not be played!" : message);
+            out.flush();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,236 @@
+package dice;
+
+import exceptions.InvalidDataException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A sequence of predefined dice rolls stored in a binary file, which is memory-mapped instead of read.
+ * <p>
+ * The file starts with a header ({@link #MAGIC}, {@link #VERSION}, the {@link Encoding} and the number
+ * of rolls), followed by the rolls. With {@link Encoding#BYTES} every roll is one byte, with
+ * {@link Encoding#PACKED} 21 rolls of 3 bits are packed into every long, lowest bits first.
+ * The rolls are only decoded while a game reads them, and the operating system pages the file in and out,
+ * so a sequence of billions of rolls can be replayed with the same heap as a short one.
+ * </p>
+ * <p>
+ * A file is larger than what one mapping can hold, so it is mapped in segments of {@link #SEGMENT_SIZE} bytes.
+ * </p>
+ */
+public final class DiceFile implements RollSequence {
+    public static final int MAGIC = 0x43415044; // "CAPD"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    /** The number of rolls packed into one long with {@link Encoding#PACKED}. */
+    public static final int ROLLS_PER_WORD = 21;
+
+    static final int SEGMENT_SIZE = 1 << 30;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ByteBuffer NO_DATA = ByteBuffer.allocate(0);
+
+    /**
+     * How the rolls are stored in the file.
+     */
+    public enum Encoding {
+        /** One byte per roll. */
+        BYTES,
+        /** Three bits per roll, 21 rolls in every long. */
+        PACKED
+    }
+
+    private final Encoding encoding;
+    private final long length;
+    private final ByteBuffer[] segments;
+
+    private DiceFile(Encoding encoding, long length, ByteBuffer[] segments) {
+        this.encoding = encoding;
+        this.length = length;
+        this.segments = segments;
+    }
+
+    /**
+     * Maps the given dice file into memory.
+     *
+     * @param file the dice file
+     * @return the rolls of the file
+     * @throws IOException if the file cannot be read
+     * @throws InvalidDataException if the file is not a valid dice file
+     */
+    public static DiceFile open(Path file) throws IOException, InvalidDataException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) throw new InvalidDataException(file + " is not a dice file!");
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) throw new InvalidDataException(file + " is not a dice file!");
+            if (header.getShort() != VERSION) {
+                throw new InvalidDataException(file + " was written by another version of the game!");
+            }
+            int kind = header.getShort();
+            if (kind < 0 || kind >= Encoding.values().length) {
+                throw new InvalidDataException(kind + " is not a valid encoding of dice rolls!");
+            }
+            Encoding encoding = Encoding.values()[kind];
+            long length = header.getLong();
+            if (length < 0) throw new InvalidDataException(length + " is not a valid number of dice rolls!");
+
+            long dataSize = dataSize(encoding, length);
+            if (channel.size() < HEADER_SIZE + dataSize) throw new InvalidDataException(file + " ends early!");
+
+            ByteBuffer[] segments = new ByteBuffer[(int) ((dataSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + start,
+                        Math.min(SEGMENT_SIZE, dataSize - start));
+            }
+            return new DiceFile(encoding, length, segments);
+        }
+    }
+
+    /**
+     * Writes the given rolls into a new dice file, replacing an existing one.
+     * The rolls are streamed through a small buffer, so a sequence of any length can be written.
+     *
+     * @param file the file to write
+     * @param rolls the rolls to write, each from 1 to 6
+     * @param encoding how to store the rolls
+     * @return the number of rolls written
+     * @throws IOException if the file cannot be written
+     * @throws InvalidDataException if a roll is not between 1 and 6
+     */
+    public static long write(Path file, PrimitiveIterator.OfInt rolls, Encoding encoding) throws IOException, InvalidDataException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.position(HEADER_SIZE); // the header is written last, when the number of rolls is known
+
+            long length = 0;
+            long word = 0;
+            while (rolls.hasNext()) {
+                int roll = rolls.nextInt();
+                if (roll < 1 || roll > 6) throw new InvalidDataException(roll + " is not a valid dice roll!");
+
+                if (buffer.remaining() < Long.BYTES) writeBuffer(channel, buffer);
+                if (encoding == Encoding.BYTES) {
+                    buffer.put((byte) roll);
+                } else {
+                    int shift = (int) (length % ROLLS_PER_WORD) * 3;
+                    word |= (long) roll << shift;
+                    if (shift == (ROLLS_PER_WORD - 1) * 3) {
+                        buffer.putLong(word);
+                        word = 0;
+                    }
+                }
+                length++;
+            }
+            if (encoding == Encoding.PACKED && length % ROLLS_PER_WORD != 0) {
+                if (buffer.remaining() < Long.BYTES) writeBuffer(channel, buffer);
+                buffer.putLong(word);
+            }
+            writeBuffer(channel, buffer);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putShort(VERSION)
+                    .putShort((short) encoding.ordinal())
+                    .putLong(length)
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            return length;
+        }
+    }
+
+    private static void writeBuffer(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long dataSize(Encoding encoding, long length) {
+        return encoding == Encoding.BYTES ? length : (length + ROLLS_PER_WORD - 1) / ROLLS_PER_WORD * Long.BYTES;
+    }
+
+    public Encoding getEncoding(){ return encoding; }
+
+    @Override
+    public long length() { return length; }
+
+    @Override
+    public PrimitiveIterator.OfInt open() {
+        return new Reader();
+    }
+
+    /**
+     * Starts reading at the given roll directly, finding its segment and word without reading the rolls before it.
+     */
+    @Override
+    public PrimitiveIterator.OfInt open(long from) {
+        if (from < 0 || from > length) throw new IllegalArgumentException(from + " is not a roll of the sequence!");
+        return new Reader(from);
+    }
+
+    /**
+     * Decodes the rolls segment by segment.
+     */
+    private final class Reader implements PrimitiveIterator.OfInt {
+        private long remaining = length;
+        private int segment = -1;
+        private ByteBuffer data = NO_DATA;
+        private long word;
+        private int wordRolls;
+
+        Reader() {
+        }
+
+        Reader(long from) {
+            remaining = length - from;
+            if (remaining == 0) return;
+
+            long offset = encoding == Encoding.BYTES ? from : from / ROLLS_PER_WORD * Long.BYTES;
+            segment = (int) (offset / SEGMENT_SIZE);
+            data = segments[segment].duplicate();
+            data.position((int) (offset % SEGMENT_SIZE));
+            int skipped = (int) (from % ROLLS_PER_WORD);
+            if (encoding == Encoding.PACKED && skipped != 0) {
+                word = data.getLong() >>> 3 * skipped;
+                wordRolls = ROLLS_PER_WORD - skipped;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (remaining == 0) throw new NoSuchElementException("The predefined dice rolls ran out!");
+            remaining--;
+
+            int roll;
+            if (encoding == Encoding.BYTES) {
+                if (!data.hasRemaining()) data = segments[++segment].duplicate();
+                roll = data.get();
+            } else {
+                if (wordRolls == 0) {
+                    if (!data.hasRemaining()) data = segments[++segment].duplicate();
+                    word = data.getLong();
+                    wordRolls = ROLLS_PER_WORD;
+                }
+                roll = (int) word & 7;
+                word >>>= 3;
+                wordRolls--;
+            }
+            if (roll < 1 || roll > 6) throw new IllegalStateException(roll + " is not a valid dice roll!");
+            return roll;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package dice;
+
+/**
+ * Gives the dice rolls of a game, one by one.
+ * <p>
+ * A roll is a number from 1 to 6. A source may also run out for good, then it returns {@link #STOP}
+ * and the game ends where it is, without a winner.
+ * </p>
+ */
+public interface DiceSource {
+    /** Returned instead of a roll when there are no more rolls. */
+    int STOP = 0;
+
+    /**
+     * @return the next roll (1-6), or {@link #STOP} if the game can't go on
+     */
+    int nextRoll();
+}
@@ -0,0 +1,13 @@
+package dice;
+
+/**
+ * What happens when a game has used up every roll of its predefined sequence.
+ */
+public enum ExhaustionPolicy {
+    /** The sequence starts again from its first roll. */
+    WRAP,
+    /** The game goes on with random rolls. */
+    RANDOM,
+    /** The game ends where it is, see {@link DiceSource#STOP}. */
+    STOP
+}
@@ -0,0 +1,75 @@
+package dice;
+
+import java.util.PrimitiveIterator;
+
+/**
+ * Gives the rolls of a predefined sequence in order, and then continues as its {@link ExhaustionPolicy} says.
+ * <p>
+ * Only a reading position is kept, the rolls stay wherever the sequence holds them,
+ * so a game played from a file of any length takes the same memory.
+ * </p>
+ */
+public class PredefinedDice implements DiceSource {
+    private final RollSequence sequence;
+    private final DiceSource fallback;
+    private ExhaustionPolicy policy;
+    private PrimitiveIterator.OfInt rolls;
+    /** The number of rolls of the sequence read since it was last started. */
+    private long position;
+
+    /**
+     * @param sequence the predefined rolls
+     * @param policy what to do after the last roll of the sequence
+     * @param fallback the source of the rolls after the sequence with {@link ExhaustionPolicy#RANDOM}
+     */
+    public PredefinedDice(RollSequence sequence, ExhaustionPolicy policy, DiceSource fallback) {
+        this.sequence = sequence;
+        this.policy = policy;
+        this.fallback = fallback;
+        rewind();
+    }
+
+    /**
+     * Starts the sequence again from its first roll.
+     */
+    public void rewind() {
+        rolls = sequence.open();
+        position = 0;
+    }
+
+    /**
+     * Continues the sequence from the given roll, as if that many rolls had been read since it started.
+     *
+     * @param position the number of rolls to skip, at most the length of the sequence
+     */
+    public void seek(long position) {
+        rolls = sequence.open(position);
+        this.position = position;
+    }
+
+    /** @return the number of rolls of the sequence read since it was last started, where {@link #seek(long)} continues */
+    public long getPosition(){ return position; }
+
+    public ExhaustionPolicy getPolicy(){ return policy; }
+    public void setPolicy(ExhaustionPolicy policy){ this.policy = policy; }
+
+    @Override
+    public int nextRoll() {
+        if (rolls.hasNext()) {
+            position++;
+            return rolls.nextInt();
+        }
+
+        switch (policy) {
+            case WRAP:
+                rewind();
+                if (!rolls.hasNext()) return STOP;
+                position++;
+                return rolls.nextInt();
+            case RANDOM:
+                return fallback.nextRoll();
+            default:
+                return STOP;
+        }
+    }
+}
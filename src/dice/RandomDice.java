@@ -0,0 +1,28 @@
+package dice;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Rolls a fair die with a random generator.
+ * <p>
+ * The generator can be replaced between games, so a batch simulation can give every game
+ * its own seeded generator without building a new source.
+ * </p>
+ */
+public class RandomDice implements DiceSource {
+    private RandomGenerator random;
+
+    /**
+     * @param random the generator of the rolls
+     */
+    public RandomDice(RandomGenerator random) {
+        this.random = random;
+    }
+
+    public void setGenerator(RandomGenerator random){ this.random = random; }
+
+    @Override
+    public int nextRoll() {
+        return random.nextInt(6) + 1;
+    }
+}
@@ -0,0 +1,74 @@
+package dice;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A fixed, finite sequence of predefined dice rolls, which can be read from its start any number of times.
+ * <p>
+ * The rolls may be in an array, in the text of a configuration file or in a {@link DiceFile}; the sequence
+ * itself holds no reading position, so one sequence can be read by many games at once, even across threads.
+ * </p>
+ */
+public interface RollSequence {
+    /**
+     * @return the number of rolls in the sequence
+     */
+    long length();
+
+    /**
+     * Starts reading the sequence from its first roll.
+     *
+     * @return the rolls in order
+     */
+    PrimitiveIterator.OfInt open();
+
+    /**
+     * Starts reading the sequence from the given roll. By default the rolls before it are read and skipped,
+     * the sequences that can find a roll directly override this.
+     *
+     * @param from the index of the first roll to read, at most {@link #length()}
+     * @return the rolls in order, starting with the given one
+     */
+    default PrimitiveIterator.OfInt open(long from) {
+        if (from < 0 || from > length()) throw new IllegalArgumentException(from + " is not a roll of the sequence!");
+        PrimitiveIterator.OfInt rolls = open();
+        for (long i = 0; i < from; i++) rolls.nextInt();
+        return rolls;
+    }
+
+    /**
+     * Wraps the given rolls into a sequence. The array is not copied.
+     *
+     * @param rolls the rolls, each from 1 to 6
+     * @return the sequence of the rolls
+     */
+    static RollSequence of(int[] rolls) {
+        return new RollSequence() {
+            @Override
+            public long length() { return rolls.length; }
+
+            @Override
+            public PrimitiveIterator.OfInt open() {
+                return open(0);
+            }
+
+            @Override
+            public PrimitiveIterator.OfInt open(long from) {
+                if (from < 0 || from > rolls.length) throw new IllegalArgumentException(from + " is not a roll of the sequence!");
+                return new PrimitiveIterator.OfInt() {
+                    private int round = (int) from;
+
+                    @Override
+                    public boolean hasNext() { return round < rolls.length; }
+
+                    @Override
+                    public int nextInt() {
+                        if (round >= rolls.length) throw new NoSuchElementException("The predefined dice rolls ran out!");
+                        return rolls[round++];
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,520 @@
+package engine;
+
+import dice.ExhaustionPolicy;
+import dice.PredefinedDice;
+import dice.RandomDice;
+import events.GameEvent;
+import events.GameEventListener;
+import game.GameConfig;
+import game.GameLimits;
+import game.GameRules;
+import map.Positions;
+import strategy.DecisionTable;
+import strategy.Strategies;
+import strategy.Strategy;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * A game engine that keeps the whole game state in primitive arrays instead of
+ * {@code Field} and {@code Player} objects.
+ * <p>
+ * The board is stored as the kind and value of every field, the owner of every property
+ * and a bitset of the properties with a house. The players are stored as their playstyle,
+ * money and lost flag, their positions are kept by {@link Positions}. The players still in the game are kept
+ * in a {@link PlayerRing}, and the properties of every player are linked into a list, so neither the next player
+ * nor the properties of a player who lost are searched for, even with thousands of players. A turn does no string switches, casts or allocation,
+ * only array reads and writes, which makes it many times faster than {@code game.Game}.
+ * </p>
+ * <p>
+ * The rules are exactly those of {@code game.Game} and the player classes, including the
+ * movement on the map and the order of the checks, so the same configuration and
+ * the same dice rolls always give the same outcome in both engines. The engine sends the same
+ * events in the same order, but it is silent by default.
+ * </p>
+ */
+public class ArrayEngine implements GameEngine {
+    // ---- Field kinds ----
+    static final byte PROPERTY = GameConfig.PROPERTY;
+    static final byte SERVICE = GameConfig.SERVICE;
+    static final byte LUCK = GameConfig.LUCK;
+
+    // ---- Playstyles ----
+    static final byte GREEDY = 0;
+    static final byte CAREFUL = 1;
+    static final byte TACTICIAN = 2;
+    /** A strategy of rule files, decided by its {@link DecisionTable}. */
+    static final byte TABLE = 3;
+    /** Any other {@link Strategy} of a plugin. */
+    static final byte CUSTOM = 4;
+
+    // ---- Rents, the same as in map.fields.Property ----
+    static final int RENT = 500;
+    static final int HOUSE_RENT = 2000;
+    static final int STARTING_MONEY = 10000;
+
+    private static final int NO_OWNER = -1;
+    /** The end of a list of properties. */
+    private static final int NONE = -1;
+
+    // ---- Rules, see GameRules ----
+    private final int propertyPrice;
+    private final int housePrice;
+    private final int carefulDivisor;
+    private final int tacticianPeriod;
+
+    private final RandomDice randomDice = new RandomDice(null);
+    /** The predefined dice rolls of the configuration, null if the rolls are random. */
+    private final PredefinedDice preDefinedDice;
+
+    // ---- Board ----
+    private final byte[] fieldKind;
+    private final int[] fieldValue;
+    private final int[] owner;
+    private final long[] houses;
+    /** The properties of every player as a linked list, so the properties of a player who lost are freed at once. */
+    private final int[] firstProperty;
+    private final int[] nextProperty;
+
+    // ---- Players ----
+    private final byte[] playstyle;
+    private final int[] money;
+    private final Positions positions;
+    private final boolean[] lost;
+    private final PlayerRing active;
+    /** The strategies of the players who play neither of the built-in playstyles. */
+    private final DecisionTable[] tables;
+    private final Strategy[] strategies;
+    /** The number of opportunities to buy the players had, for the tacticians and the strategies of plugins. */
+    private final int[] opportunities;
+    /** The players in the order they lost the game. */
+    private final int[] lostOrder;
+    /** The number of turns played when every player lost, 0 while they are in the game. */
+    private final int[] lostTurn;
+    private int lostCount;
+
+    private int currentPlayerIndex;
+    private int currentRoundIndex;
+    private long turns;
+    private EndReason endReason;
+
+    // ---- Limits ----
+    private final boolean limited;
+    private final long maxTurns;
+    private final long maxLaps;
+    private final int stalemateWindow;
+    /** The money of every player and the number of players who lost at the last stalemate check. */
+    private final int[] moneyAtCheck;
+    private int lostAtCheck;
+    /** The score of every player, only computed to rank the players of a game that ended early. */
+    private final long[] score;
+
+    private GameEventListener listener = GameEventListener.SILENT;
+
+    /**
+     * Encodes the given configuration into arrays. The configuration is only read here,
+     * so many engines can be built from one parsed file.
+     *
+     * @param config the configuration of the game
+     */
+    public ArrayEngine(GameConfig config) {
+        GameRules rules = config.getRules();
+        propertyPrice = rules.getPropertyPrice();
+        housePrice = rules.getHousePrice();
+        carefulDivisor = rules.getCarefulDivisor();
+        tacticianPeriod = rules.getTacticianPeriod();
+        preDefinedDice = config.hasPreDefinedDiceRolls()
+                ? new PredefinedDice(config.getPreDefinedDiceRolls(), ExhaustionPolicy.RANDOM, randomDice)
+                : null;
+
+        int fields = config.getFieldCount();
+        fieldKind = new byte[fields];
+        fieldValue = new int[fields];
+        for (int i = 0; i < fields; i++) {
+            fieldKind[i] = config.getFieldKind(i);
+            fieldValue[i] = config.getFieldValue(i);
+        }
+        owner = new int[fields];
+        houses = new long[(fields + 63) >>> 6];
+        nextProperty = new int[fields];
+
+        int players = config.getPlayerCount();
+        playstyle = new byte[players];
+        tables = new DecisionTable[players];
+        strategies = new Strategy[players];
+        for (int i = 0; i < players; i++) {
+            playstyle[i] = playstyle(config.getPlaystyle(i));
+            if (playstyle[i] == CUSTOM) {
+                strategies[i] = Strategies.get(config.getPlaystyle(i));
+                if (strategies[i] instanceof DecisionTable) {
+                    tables[i] = (DecisionTable) strategies[i];
+                    playstyle[i] = TABLE;
+                }
+            }
+        }
+        opportunities = new int[players];
+        money = new int[players];
+        positions = new Positions(fields, players, config.getMovement());
+        lost = new boolean[players];
+        active = new PlayerRing(players);
+        firstProperty = new int[players];
+        lostOrder = new int[players];
+        lostTurn = new int[players];
+
+        GameLimits limits = config.getLimits();
+        limited = limits.isLimited();
+        maxTurns = limits.getMaxTurns();
+        maxLaps = limits.getMaxLaps();
+        stalemateWindow = limits.getStalemateWindow();
+        moneyAtCheck = new int[players];
+        score = new long[players];
+
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(owner, NO_OWNER);
+        Arrays.fill(houses, 0L);
+        Arrays.fill(firstProperty, NONE);
+        Arrays.fill(money, STARTING_MONEY);
+        positions.reset();
+        Arrays.fill(lost, false);
+        active.reset();
+        Arrays.fill(lostTurn, 0);
+        Arrays.fill(opportunities, 0);
+        lostCount = 0;
+        currentPlayerIndex = 0;
+        currentRoundIndex = 0;
+        endReason = null;
+        Arrays.fill(moneyAtCheck, STARTING_MONEY);
+        lostAtCheck = 0;
+        if (preDefinedDice != null) preDefinedDice.rewind();
+    }
+
+    @Override
+    public void setExhaustionPolicy(ExhaustionPolicy policy) {
+        if (preDefinedDice != null) preDefinedDice.setPolicy(policy);
+    }
+
+    @Override
+    public void setEventListener(GameEventListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void simulatePlay(RandomGenerator random) {
+        randomDice.setGenerator(random);
+        if (preDefinedDice != null) {
+            simulatePlay(preDefinedDice);
+            return;
+        }
+
+        // If there is no predefined sequence of rolls, it should be random
+        while (!isOver()) {
+            playTurn(random.nextInt(6) + 1);
+        }
+    }
+
+    @Override
+    public void playTurn(int diceRoll) {
+        int player = nextPlayer();
+
+        int field = positions.move(player, diceRoll);
+
+        notify(GameEvent.MOVED, player, field, diceRoll);
+        playField(player, field);
+        if (lost[player]) {
+            lostOrder[lostCount++] = player;
+            lostTurn[player] = currentRoundIndex + 1;
+            active.remove(player);
+        }
+
+        currentRoundIndex++;
+        turns++;
+
+        if (money.length - lostCount <= 1) endReason = EndReason.LAST_PLAYER_STANDING;
+        else if (limited) checkLimits(player);
+    }
+
+    @Override
+    public boolean isOver() {
+        return endReason != null;
+    }
+
+    @Override
+    public EndReason getEndReason() {
+        return endReason;
+    }
+
+    @Override
+    public void endGame(EndReason reason) {
+        endReason = reason;
+    }
+
+    /**
+     * Ends the game if it reached a limit of the configuration with the last turn of the given player.
+     */
+    private void checkLimits(int player) {
+        if (maxTurns > 0 && currentRoundIndex >= maxTurns) endGame(EndReason.TURN_LIMIT);
+        else if (maxLaps > 0 && positions.getLaps(player) >= maxLaps) endGame(EndReason.LAP_LIMIT);
+        else if (stalemateWindow > 0 && currentRoundIndex % stalemateWindow == 0 && isStalemate()) {
+            endGame(EndReason.STALEMATE);
+        }
+    }
+
+    /**
+     * Checks whether, since the last check, nobody lost, every property was owned
+     * and the money of no remaining player decreased, see {@link GameLimits}.
+     */
+    private boolean isStalemate() {
+        boolean stalled = lostCount == lostAtCheck;
+        for (int field = 0; stalled && field < owner.length; field++) {
+            stalled = fieldKind[field] != PROPERTY || owner[field] != NO_OWNER;
+        }
+        for (int player = 0; player < money.length; player++) {
+            if (!lost[player] && money[player] < moneyAtCheck[player]) stalled = false;
+            moneyAtCheck[player] = money[player];
+        }
+        lostAtCheck = lostCount;
+        return stalled;
+    }
+
+    /**
+     * Gives the next player who hasn't lost yet, in the same order as {@code Game.nextPlayer()}.
+     */
+    private int nextPlayer() {
+        int player = currentPlayerIndex;
+        currentPlayerIndex = active.next(player);
+        return player;
+    }
+
+    private void playField(int player, int field) {
+        if (fieldKind[field] == PROPERTY) {
+            playProperty(player, field);
+            return;
+        }
+
+        // A luck field always pays its value, like map.fields.Luck, even a negative one that takes money
+        int value = fieldValue[field];
+        if (fieldKind[field] == LUCK) {
+            money[player] += value;
+            notify(GameEvent.LUCK_RECEIVED, player, field, value);
+            return;
+        }
+
+        // If they can pay the service, they pay; if not, they lose the game
+        if (money[player] >= value) {
+            money[player] -= value;
+            notify(GameEvent.SERVICE_PAID, player, field, value);
+        }
+        else lose(player, field);
+    }
+
+    private void playProperty(int player, int field) {
+        int fieldOwner = owner[field];
+        int balance = money[player];
+
+        // ---- If the property has no owner ----
+        if (fieldOwner == NO_OWNER) {
+            if (buys(player, balance, propertyPrice, false)) {
+                owner[field] = player;
+                nextProperty[field] = firstProperty[player];
+                firstProperty[player] = field;
+                money[player] = balance - propertyPrice;
+                notify(GameEvent.PROPERTY_BOUGHT, player, field, propertyPrice);
+            }
+            return;
+        }
+
+        // ---- If they are the owner ----
+        if (fieldOwner == player) {
+            if (!hasHouse(field) && buys(player, balance, housePrice, true)) {
+                houses[field >>> 6] |= 1L << field;
+                money[player] = balance - housePrice;
+                notify(GameEvent.HOUSE_BOUGHT, player, field, housePrice);
+            }
+            return;
+        }
+
+        // ---- If they are not the owner ----
+        int rent = RENT + house(field) * (HOUSE_RENT - RENT);
+        if (balance >= rent) {
+            balance -= rent;
+            money[player] = balance;
+            money[fieldOwner] += rent;
+            notify(GameEvent.TAX_PAID, player, field, rent);
+            notify(GameEvent.TAX_RECEIVED, fieldOwner, field, rent);
+        }
+        // Like the player classes, they lose if the rent can't be paid again after paying
+        if (balance < rent) lose(player, field);
+    }
+
+    /**
+     * The decision of every playstyle whether to buy a property or a house for the given price.
+     * A tactician uses every other (every {@code tacticianPeriod}-th) opportunity, counting the times it could buy.
+     * The strategies of plugins are only asked when the player could buy.
+     */
+    private boolean buys(int player, int balance, int price, boolean house) {
+        boolean canAfford = balance >= price;
+        switch (playstyle[player]) {
+            case CAREFUL:
+                return canAfford & balance - price >= balance / carefulDivisor;
+            case TACTICIAN:
+                return canAfford && opportunities[player]++ % tacticianPeriod == 0;
+            case TABLE:
+                return canAfford && tables[player].buys(balance, price, house, currentRoundIndex, opportunities[player]++);
+            case CUSTOM:
+                return canAfford && strategies[player].buys(balance, price, house, currentRoundIndex, opportunities[player]++);
+            default:
+                return canAfford;
+        }
+    }
+
+    private boolean hasHouse(int field) {
+        return house(field) != 0;
+    }
+
+    /** @return 1 if the property has a house, 0 if not */
+    private int house(int field) {
+        return (int) (houses[field >>> 6] >>> field) & 1;
+    }
+
+    /**
+     * The player leaves the game, and all their properties (and houses) become unowned.
+     * Only the properties in the player's list are visited.
+     */
+    private void lose(int player, int field) {
+        lost[player] = true;
+        for (int property = firstProperty[player]; property != NONE; property = nextProperty[property]) {
+            owner[property] = NO_OWNER;
+            houses[property >>> 6] &= ~(1L << property);
+        }
+        firstProperty[player] = NONE;
+        notify(GameEvent.LOST, player, field, 0);
+    }
+
+    private void notify(GameEvent event, int player, int field, int amount) {
+        if (listener != GameEventListener.SILENT) listener.onEvent(event, player, field, amount, money[player]);
+    }
+
+    @Override
+    public void writeFinishingPositions(int[] positions) {
+        Arrays.fill(positions, 0, money.length, 1);
+        for (int i = 0; i < lostCount; i++) {
+            positions[lostOrder[i]] = money.length - i;
+        }
+        if (money.length - lostCount > 1) rankByScore(positions);
+    }
+
+    /**
+     * Ranks the players still in a game that ended early by their money plus the price of their properties and houses.
+     */
+    private void rankByScore(int[] positions) {
+        for (int player = 0; player < money.length; player++) {
+            score[player] = money[player];
+        }
+        for (int field = 0; field < owner.length; field++) {
+            if (owner[field] != NO_OWNER) score[owner[field]] += propertyPrice + house(field) * housePrice;
+        }
+        for (int player = 0; player < money.length; player++) {
+            if (lost[player]) continue;
+            int position = 1;
+            for (int other = 0; other < money.length; other++) {
+                if (!lost[other] && (score[other] > score[player] || score[other] == score[player] && other < player)) position++;
+            }
+            positions[player] = position;
+        }
+    }
+
+    @Override
+    public void writeSnapshot(GameSnapshot snapshot) {
+        checkSize(snapshot);
+        snapshot.clear();
+        for (int field = 0; field < owner.length; field++) {
+            if (owner[field] == NO_OWNER) continue;
+            snapshot.setOwner(field, owner[field]);
+            snapshot.setHouse(field, hasHouse(field));
+        }
+        for (int player = 0; player < money.length; player++) {
+            snapshot.setMoney(player, money[player]);
+            snapshot.setPosition(player, positions.getPosition(player), positions.getLaps(player));
+            snapshot.setOpportunities(player, opportunities[player]);
+            snapshot.setMoneyAtCheck(player, moneyAtCheck[player]);
+        }
+        for (int i = 0; i < lostCount; i++) snapshot.addLost(lostOrder[i], lostTurn[lostOrder[i]]);
+        snapshot.setSharedPosition(positions.getSharedPosition());
+        snapshot.setTurn(currentRoundIndex);
+        snapshot.setCurrentPlayer(currentPlayerIndex);
+        snapshot.setEndReason(endReason);
+        snapshot.setLostAtCheck(lostAtCheck);
+        snapshot.setRollPosition(preDefinedDice == null ? 0 : preDefinedDice.getPosition());
+    }
+
+    @Override
+    public void restore(GameSnapshot snapshot) {
+        checkSize(snapshot);
+        Arrays.fill(houses, 0L);
+        Arrays.fill(firstProperty, NONE);
+        for (int field = 0; field < owner.length; field++) {
+            owner[field] = snapshot.getOwner(field);
+            if (owner[field] != NO_OWNER) {
+                nextProperty[field] = firstProperty[owner[field]];
+                firstProperty[owner[field]] = field;
+            }
+            if (snapshot.hasHouse(field)) houses[field >>> 6] |= 1L << field;
+        }
+        for (int player = 0; player < money.length; player++) {
+            money[player] = snapshot.getMoney(player);
+            positions.set(player, snapshot.getPosition(player), snapshot.getLaps(player));
+            opportunities[player] = snapshot.getOpportunities(player);
+            moneyAtCheck[player] = snapshot.getMoneyAtCheck(player);
+            lost[player] = snapshot.hasLost(player);
+        }
+        active.reset(lost);
+        lostCount = snapshot.getLostCount();
+        Arrays.fill(lostTurn, 0);
+        for (int i = 0; i < lostCount; i++) {
+            lostOrder[i] = snapshot.getLost(i);
+            lostTurn[lostOrder[i]] = snapshot.getLostTurn(i);
+        }
+        positions.setSharedPosition(snapshot.getSharedPosition());
+        currentRoundIndex = snapshot.getTurn();
+        currentPlayerIndex = snapshot.getCurrentPlayer();
+        endReason = snapshot.getEndReason();
+        lostAtCheck = snapshot.getLostAtCheck();
+        if (preDefinedDice != null) preDefinedDice.seek(snapshot.getRollPosition());
+    }
+
+    private void checkSize(GameSnapshot snapshot) {
+        if (snapshot.getFieldCount() != owner.length || snapshot.getPlayerCount() != money.length) {
+            throw new IllegalArgumentException("The snapshot is of a game of another size!");
+        }
+    }
+
+    // ---- State ----
+    public int getPlayerCount() { return money.length; }
+    public int getMoney(int player) { return money[player]; }
+    public int getPosition(int player) { return positions.getPosition(player); }
+    public long getLaps(int player) { return positions.getLaps(player); }
+    @Override
+    public boolean hasLost(int player) { return lost[player]; }
+    @Override
+    public int getLostTurn(int player) { return lostTurn[player]; }
+    @Override
+    public int getTurn() { return currentRoundIndex; }
+    public int getOwner(int field) { return owner[field]; }
+    public boolean getHasHouse(int field) { return hasHouse(field); }
+    /** @return the number of turns played by this engine since it was created */
+    public long getTurns() { return turns; }
+
+    static byte playstyle(String playstyle) {
+        switch (playstyle) {
+            case "careful": return CAREFUL;
+            case "tactician": return TACTICIAN;
+            case "greedy": return GREEDY;
+            default: return CUSTOM;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package engine;
+
+/**
+ * How a game ended.
+ */
+public enum EndReason {
+    /** Every player but one has lost, the original end of the game. */
+    LAST_PLAYER_STANDING,
+    /** The game reached its limit of turns. */
+    TURN_LIMIT,
+    /** A player completed the limit of laps. */
+    LAP_LIMIT,
+    /** Nobody could lose any more: see {@link game.GameLimits#getStalemateWindow()}. */
+    STALEMATE,
+    /** The predefined dice rolls ran out with {@link dice.ExhaustionPolicy#STOP}. */
+    DICE_RAN_OUT
+}
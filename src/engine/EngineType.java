@@ -0,0 +1,33 @@
+package engine;
+
+import events.GameEventListener;
+import game.Game;
+import game.GameConfig;
+
+/**
+ * The available game engines. They play by the same rules, so they can be used interchangeably.
+ */
+public enum EngineType {
+    /** The original engine, built from {@code Field} and {@code Player} objects. */
+    OBJECT,
+    /** The engine that keeps the game state in primitive arrays, see {@link ArrayEngine}. */
+    ARRAY,
+    /**
+     * The engine that plays many games of a batch at once, see {@link LockstepEngine}.
+     * A single game is played by an {@link ArrayEngine}, which gives the same results.
+     */
+    LOCKSTEP;
+
+    /**
+     * Builds a silent engine of this type for the given configuration.
+     * The games of {@link #LOCKSTEP} are played one by one by an {@link ArrayEngine}.
+     *
+     * @param config the configuration of the game
+     * @return a new engine in its starting state, without an event listener
+     */
+    public GameEngine create(GameConfig config) {
+        GameEngine engine = this == OBJECT ? new Game(config) : new ArrayEngine(config);
+        engine.setEventListener(GameEventListener.SILENT);
+        return engine;
+    }
+}
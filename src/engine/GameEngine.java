@@ -0,0 +1,138 @@
+package engine;
+
+import dice.DiceSource;
+import dice.ExhaustionPolicy;
+import events.GameEventListener;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A resettable simulation of one game, as used by the batch runners.
+ * <p>
+ * Every implementation plays by the same rules, so for the same configuration
+ * and the same dice rolls they all give the same finishing positions.
+ * </p>
+ */
+public interface GameEngine {
+    /**
+     * The version of the rules the engines play by. Nothing derives it: it has to be increased by hand whenever a change
+     * makes a seeded game of any engine end differently, so results stored by an older version
+     * (see {@code simulation.ResultCache}) are not used any more.
+     * Version 2: luck fields with a negative value no longer eliminate a player in the array and lockstep engines.
+     */
+    int VERSION = 2;
+
+    /**
+     * Puts the game back to its starting state, so it can be played again.
+     */
+    void reset();
+
+    /**
+     * Sets the listener notified about the events of the game.
+     *
+     * @param listener the listener, {@link GameEventListener#SILENT} for no output at all
+     */
+    void setEventListener(GameEventListener listener);
+
+    /**
+     * Sets what happens when the predefined dice rolls of the configuration run out.
+     * The default is {@link ExhaustionPolicy#RANDOM}.
+     *
+     * @param policy the behaviour after the last predefined roll
+     */
+    void setExhaustionPolicy(ExhaustionPolicy policy);
+
+    /**
+     * Plays the game from its current state until only one player remains. The predefined
+     * dice rolls of the configuration are used if there are any.
+     *
+     * @param random the generator used when there is no predefined sequence of rolls,
+     *               or after it ran out with {@link ExhaustionPolicy#RANDOM}
+     */
+    void simulatePlay(RandomGenerator random);
+
+    /**
+     * Plays the game from its current state with the rolls of the given source, until the game is over.
+     * If the source {@link DiceSource#STOP stops}, the game ends with {@link EndReason#DICE_RAN_OUT}.
+     *
+     * @param dice the source of every roll, the predefined rolls of the configuration are not used
+     */
+    default void simulatePlay(DiceSource dice) {
+        while (!isOver()) {
+            int diceRoll = dice.nextRoll();
+            if (diceRoll == DiceSource.STOP) {
+                endGame(EndReason.DICE_RAN_OUT);
+                return;
+            }
+            playTurn(diceRoll);
+        }
+    }
+
+    /**
+     * Plays one turn: the next player who is still in the game moves with the given roll
+     * and acts on the field they land on.
+     *
+     * @param diceRoll the result of the dice roll
+     */
+    void playTurn(int diceRoll);
+
+    /**
+     * @return whether the game has ended: only one player remains, or a limit of the configuration ended it early
+     */
+    boolean isOver();
+
+    /**
+     * @return the number of turns played in the current game
+     */
+    int getTurn();
+
+    /**
+     * @param player the index of the player, in the order they were read
+     * @return whether the player went bankrupt in the current game
+     */
+    boolean hasLost(int player);
+
+    /**
+     * @param player the index of the player, in the order they were read
+     * @return the number of turns played when the player went bankrupt, counting their last turn; 0 if they haven't
+     */
+    int getLostTurn(int player);
+
+    /**
+     * @return how the game ended, null while it is still being played
+     */
+    EndReason getEndReason();
+
+    /**
+     * Ends the game before only one player remains. The players who are still in the game
+     * are ranked by their score: their money plus the price of their properties and houses.
+     *
+     * @param reason why the game ended
+     */
+    void endGame(EndReason reason);
+
+    /**
+     * Writes the finishing position of every player, 1 being the winner,
+     * into the given array without allocating. The players who lost are ranked in the reverse order
+     * they lost, the players still in a game that ended early by their score (the first player on a tie).
+     *
+     * @param positions the array to fill, indexed in the order the players were read
+     */
+    void writeFinishingPositions(int[] positions);
+
+    /**
+     * Writes the whole state of the game into the given snapshot without allocating,
+     * so it can be {@link #restore(GameSnapshot) restored} later, into this engine or another one of the same configuration.
+     *
+     * @param snapshot the snapshot to fill, of the size of the configuration
+     */
+    void writeSnapshot(GameSnapshot snapshot);
+
+    /**
+     * Puts the game into the state of the snapshot, so it continues from there. The snapshot is not changed,
+     * so it can be restored any number of times. The predefined rolls continue from where the snapshot was taken.
+     *
+     * @param snapshot a snapshot of a game of the same configuration
+     */
+    void restore(GameSnapshot snapshot);
+}
@@ -0,0 +1,294 @@
+package engine;
+
+import exceptions.InvalidDataException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The whole state of a game in progress, so it can be saved and played on from the same point any number of times.
+ * <p>
+ * {@link GameEngine#writeSnapshot(GameSnapshot)} fills a snapshot and {@link GameEngine#restore(GameSnapshot)} puts an
+ * engine back into it; the snapshot of one engine can be restored into the other. A snapshot holds only numbers:
+ * the owner of every field packed into as few bits as the number of players needs, a bitset of the houses, the money,
+ * position and laps of every player, the order and the turns the players lost in, the turn, the next player, the stalemate check
+ * and the number of predefined rolls read. It doesn't hold the configuration, which has to be the same when it is
+ * restored. One snapshot can be filled again and again, and restoring it doesn't change it, so forking many
+ * continuations of a position allocates nothing.
+ * </p>
+ * <p>
+ * {@link #write(ByteBuffer)} stores it in the same layout: a header, then the words of the owners and the houses,
+ * then the players, about {@code (bits per owner + 1) / 8} bytes per field and 24 bytes per player.
+ * The random generator of the dice is not part of the state, a restored game continues with the generator it is played with.
+ * </p>
+ */
+public final class GameSnapshot {
+    public static final int MAGIC = 0x43415053; // "CAPS"
+    public static final int VERSION = 2;
+    /** The owner of a field nobody owns. */
+    public static final int NO_OWNER = -1;
+    private static final int HEADER_SIZE = 45;
+    private static final int PLAYER_SIZE = 24;
+
+    private final int fields;
+    private final int players;
+
+    // ---- Board ----
+    private final int ownerBits;
+    private final int ownersPerWord;
+    /** The owner of every field plus one, {@link #ownerBits} bits each, so 0 is no owner. */
+    private final long[] owners;
+    private final long[] houses;
+
+    // ---- Players ----
+    private final int[] money;
+    private final int[] position;
+    private final long[] laps;
+    private int sharedPosition;
+    private final int[] opportunities;
+    private final int[] moneyAtCheck;
+    private final long[] lost;
+    private final int[] lostOrder;
+    private final int[] lostTurn;
+    private int lostCount;
+
+    // ---- Turn ----
+    private int turn;
+    private int currentPlayer;
+    private EndReason endReason;
+    private int lostAtCheck;
+    private long rollPosition;
+
+    /**
+     * Creates an empty snapshot of a game of the given size.
+     *
+     * @param fields the number of fields of the map
+     * @param players the number of players
+     */
+    public GameSnapshot(int fields, int players) {
+        if (fields < 1 || players < 1) throw new IllegalArgumentException("A game has at least 1 field and 1 player!");
+        this.fields = fields;
+        this.players = players;
+        ownerBits = 32 - Integer.numberOfLeadingZeros(players);
+        ownersPerWord = 64 / ownerBits;
+        owners = new long[(fields + ownersPerWord - 1) / ownersPerWord];
+        houses = new long[(fields + 63) >>> 6];
+        money = new int[players];
+        position = new int[players];
+        laps = new long[players];
+        opportunities = new int[players];
+        moneyAtCheck = new int[players];
+        lost = new long[(players + 63) >>> 6];
+        lostOrder = new int[players];
+        lostTurn = new int[players];
+    }
+
+    /**
+     * Empties the board and the list of players who lost, before an engine writes its state.
+     */
+    public void clear() {
+        Arrays.fill(owners, 0L);
+        Arrays.fill(houses, 0L);
+        Arrays.fill(lost, 0L);
+        lostCount = 0;
+    }
+
+    public int getFieldCount(){ return fields; }
+    public int getPlayerCount(){ return players; }
+
+    // ---- Board ----
+    /** @return the index of the owner of the field, {@link #NO_OWNER} if nobody owns it */
+    public int getOwner(int field) {
+        int shift = field % ownersPerWord * ownerBits;
+        return (int) (owners[field / ownersPerWord] >>> shift & (1L << ownerBits) - 1) - 1;
+    }
+
+    public void setOwner(int field, int player) {
+        int shift = field % ownersPerWord * ownerBits;
+        long mask = ((1L << ownerBits) - 1) << shift;
+        int word = field / ownersPerWord;
+        owners[word] = owners[word] & ~mask | (long) (player + 1) << shift;
+    }
+
+    public boolean hasHouse(int field){ return (houses[field >>> 6] >>> field & 1) != 0; }
+    public void setHouse(int field, boolean hasHouse) {
+        if (hasHouse) houses[field >>> 6] |= 1L << field;
+        else houses[field >>> 6] &= ~(1L << field);
+    }
+
+    // ---- Players ----
+    public int getMoney(int player){ return money[player]; }
+    public void setMoney(int player, int money){ this.money[player] = money; }
+    public int getPosition(int player){ return position[player]; }
+    public long getLaps(int player){ return laps[player]; }
+    public void setPosition(int player, int position, long laps){ this.position[player] = position; this.laps[player] = laps; }
+    public int getSharedPosition(){ return sharedPosition; }
+    public void setSharedPosition(int sharedPosition){ this.sharedPosition = sharedPosition; }
+    public int getOpportunities(int player){ return opportunities[player]; }
+    public void setOpportunities(int player, int opportunities){ this.opportunities[player] = opportunities; }
+    public int getMoneyAtCheck(int player){ return moneyAtCheck[player]; }
+    public void setMoneyAtCheck(int player, int money){ moneyAtCheck[player] = money; }
+
+    public boolean hasLost(int player){ return (lost[player >>> 6] >>> player & 1) != 0; }
+    /** @return the number of players who lost */
+    public int getLostCount(){ return lostCount; }
+    /** @return the player who lost the game as the given one, 0 being the first */
+    public int getLost(int index){ return lostOrder[index]; }
+    /** @return the number of turns played when the player who lost as the given one lost, see {@link GameEngine#getLostTurn(int)} */
+    public int getLostTurn(int index){ return lostTurn[index]; }
+
+    /**
+     * Adds the player to the players who lost, after the ones added before.
+     *
+     * @param player the index of the player
+     * @param turn the number of turns played when the player lost
+     */
+    public void addLost(int player, int turn) {
+        if (hasLost(player)) throw new IllegalArgumentException(player + " has already lost!");
+        lost[player >>> 6] |= 1L << player;
+        lostTurn[lostCount] = turn;
+        lostOrder[lostCount++] = player;
+    }
+
+    // ---- Turn ----
+    public int getTurn(){ return turn; }
+    public void setTurn(int turn){ this.turn = turn; }
+    /** @return the player who plays the next turn */
+    public int getCurrentPlayer(){ return currentPlayer; }
+    public void setCurrentPlayer(int currentPlayer){ this.currentPlayer = currentPlayer; }
+    /** @return how the game ended, null if it is still being played */
+    public EndReason getEndReason(){ return endReason; }
+    public void setEndReason(EndReason endReason){ this.endReason = endReason; }
+    public int getLostAtCheck(){ return lostAtCheck; }
+    public void setLostAtCheck(int lostAtCheck){ this.lostAtCheck = lostAtCheck; }
+    /** @return the number of predefined rolls read, 0 if the game has none */
+    public long getRollPosition(){ return rollPosition; }
+    public void setRollPosition(long rollPosition){ this.rollPosition = rollPosition; }
+
+    // ---- Binary form ----
+
+    /**
+     * @return the number of bytes {@link #write(ByteBuffer)} writes
+     */
+    public int getSize() {
+        return size(owners.length, houses.length, players, lostCount);
+    }
+
+    private static int size(int ownerWords, int houseWords, int players, int lostCount) {
+        return HEADER_SIZE + (ownerWords + houseWords) * Long.BYTES + players * PLAYER_SIZE + lostCount * 2 * Integer.BYTES;
+    }
+
+    /**
+     * Writes the snapshot at the position of the buffer, in the byte order of the buffer.
+     *
+     * @param buffer the buffer, with at least {@link #getSize()} bytes remaining
+     */
+    public void write(ByteBuffer buffer) {
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(fields)
+                .putInt(players)
+                .putInt(turn)
+                .putInt(currentPlayer)
+                .put((byte) (endReason == null ? -1 : endReason.ordinal()))
+                .putInt(lostAtCheck)
+                .putLong(rollPosition)
+                .putInt(sharedPosition)
+                .putInt(lostCount);
+        for (long word : owners) buffer.putLong(word);
+        for (long word : houses) buffer.putLong(word);
+        for (int player = 0; player < players; player++) {
+            buffer.putInt(money[player])
+                    .putInt(position[player])
+                    .putLong(laps[player])
+                    .putInt(opportunities[player])
+                    .putInt(moneyAtCheck[player]);
+        }
+        for (int i = 0; i < lostCount; i++) buffer.putInt(lostOrder[i]).putInt(lostTurn[i]);
+    }
+
+    /**
+     * @return the snapshot in its binary form
+     */
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(getSize());
+        write(buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write(ByteBuffer)}, from the position of the buffer.
+     *
+     * @param buffer the buffer, in the byte order it was written in
+     * @return the snapshot
+     * @throws InvalidDataException if the data is not a valid snapshot
+     */
+    public static GameSnapshot read(ByteBuffer buffer) throws InvalidDataException {
+        try {
+            if (buffer.getInt() != MAGIC) throw new InvalidDataException("The data is not a snapshot of a game!");
+            if (buffer.getInt() != VERSION) throw new InvalidDataException("The snapshot was written by another version of the game!");
+            int fields = buffer.getInt();
+            int players = buffer.getInt();
+            if (fields < 1 || players < 1) throw new InvalidDataException("The snapshot has no fields or no players!");
+            int turn = buffer.getInt();
+            int currentPlayer = buffer.getInt();
+            int endReason = buffer.get();
+            int lostAtCheck = buffer.getInt();
+            long rollPosition = buffer.getLong();
+            int sharedPosition = buffer.getInt();
+            int lostCount = buffer.getInt();
+            if (currentPlayer < 0 || currentPlayer >= players) throw new InvalidDataException(currentPlayer + " is not a player!");
+            if (endReason < -1 || endReason >= EndReason.values().length) {
+                throw new InvalidDataException(endReason + " is not a valid end of a game!");
+            }
+            if (lostCount < 0 || lostCount > players || lostAtCheck < 0 || lostAtCheck > lostCount) {
+                throw new InvalidDataException(lostCount + " is not a valid number of players who lost!");
+            }
+
+            // The sizes are checked before anything is allocated, so a damaged header can't allocate much
+            int ownersPerWord = 64 / (32 - Integer.numberOfLeadingZeros(players));
+            long ownerWords = ((long) fields + ownersPerWord - 1) / ownersPerWord;
+            long houseWords = ((long) fields + 63) >>> 6;
+            if (buffer.remaining() < (ownerWords + houseWords) * Long.BYTES
+                    + (long) players * PLAYER_SIZE + (long) lostCount * 2 * Integer.BYTES) {
+                throw new InvalidDataException("The snapshot ends early!");
+            }
+
+            GameSnapshot snapshot = new GameSnapshot(fields, players);
+            snapshot.turn = turn;
+            snapshot.currentPlayer = currentPlayer;
+            snapshot.endReason = endReason < 0 ? null : EndReason.values()[endReason];
+            snapshot.lostAtCheck = lostAtCheck;
+            snapshot.rollPosition = rollPosition;
+            snapshot.sharedPosition = sharedPosition;
+            for (int i = 0; i < snapshot.owners.length; i++) snapshot.owners[i] = buffer.getLong();
+            for (int i = 0; i < snapshot.houses.length; i++) snapshot.houses[i] = buffer.getLong();
+            for (int player = 0; player < players; player++) {
+                snapshot.money[player] = buffer.getInt();
+                snapshot.position[player] = buffer.getInt();
+                snapshot.laps[player] = buffer.getLong();
+                snapshot.opportunities[player] = buffer.getInt();
+                snapshot.moneyAtCheck[player] = buffer.getInt();
+                if (snapshot.position[player] < -1 || snapshot.position[player] >= fields) {
+                    throw new InvalidDataException(snapshot.position[player] + " is not a field of the map!");
+                }
+            }
+            for (int i = 0; i < lostCount; i++) {
+                int player = buffer.getInt();
+                int lostTurn = buffer.getInt();
+                if (player < 0 || player >= players || snapshot.hasLost(player)) {
+                    throw new InvalidDataException(player + " is not a player who can lose!");
+                }
+                if (lostTurn < 1 || lostTurn > turn) throw new InvalidDataException(lostTurn + " is not a turn of the game!");
+                snapshot.addLost(player, lostTurn);
+            }
+            for (int field = 0; field < fields; field++) {
+                if (snapshot.getOwner(field) >= players) throw new InvalidDataException(snapshot.getOwner(field) + " is not a player!");
+            }
+            return snapshot;
+        } catch (BufferUnderflowException e) {
+            throw new InvalidDataException("The snapshot ends early!");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package engine;
+
+/**
+ * The part of a turn of a {@link LockstepEngine} that is the same for every lane: moving the current player
+ * by their roll, the same way as {@code map.Positions}, and paying the service or luck field they land on.
+ * <p>
+ * The state of the moving players is copied into one entry per lane before, and back after, so every array
+ * is read and written in order. This is the scalar implementation, which works on maps of any size.
+ * {@link #create(int, int[], int[])} gives the vectorised one, {@code engine.VectorLaneSteps}, instead when it was
+ * built (it is in {@code src-vector}, compiled by {@code mvn -Pvector}), the runtime has the Vector API (started with
+ * {@code --add-modules jdk.incubator.vector}) and the map is longer than the largest roll, so a move wraps around
+ * the map at most once. {@code -Dcapitaly.vector=false} always uses the scalar one.
+ * </p>
+ */
+class LaneSteps {
+    static final int MAX_ROLL = 6;
+    /** The money needed on a property, which no player has, so the lanes on a property are always left to the engine. */
+    static final int PROPERTY_MINIMUM = Integer.MAX_VALUE;
+    /** The money needed on a luck field, which every player has: a luck field always pays, even a negative value. */
+    static final int LUCK_MINIMUM = Integer.MIN_VALUE;
+
+    final int fields;
+    /** The money every field takes from the player who lands on it, the negative value of a luck field. */
+    final int[] fee;
+    /** The least money the player needs to pay the fee of every field, the fee of a service. */
+    final int[] minimum;
+
+    LaneSteps(int fields, int[] fee, int[] minimum) {
+        this.fields = fields;
+        this.fee = fee;
+        this.minimum = minimum;
+    }
+
+    /**
+     * @param fields the number of fields of the map
+     * @param fee the money every field takes from the player who lands on it, the negative value of a luck field
+     * @param minimum the least money needed to pay every field: the fee of a service, {@link #LUCK_MINIMUM}
+     *                for a luck field and {@link #PROPERTY_MINIMUM} for a property
+     * @return the fastest implementation the runtime supports for the map
+     */
+    static LaneSteps create(int fields, int[] fee, int[] minimum) {
+        boolean vector = fields > MAX_ROLL
+                && !"false".equals(System.getProperty("capitaly.vector"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        if (vector) {
+            try {
+                // Only loaded here, so the engine also runs when the module or the class isn't there
+                return (LaneSteps) Class.forName("engine.VectorLaneSteps")
+                        .getDeclaredConstructor(int.class, int[].class, int[].class)
+                        .newInstance(fields, fee, minimum);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // The scalar steps give the same results
+            }
+        }
+        return new LaneSteps(fields, fee, minimum);
+    }
+
+    /** @return whether the steps use the Vector API */
+    boolean isVectorised() {
+        return false;
+    }
+
+    /**
+     * Moves the moving player of every lane and takes the fee of the field they land on, if it is a service
+     * they can pay or a luck field. The other lanes that moved are listed for the engine: the players on a
+     * property and the players who can't pay.
+     *
+     * @param from the field every moving player moves from, the field they land on after
+     * @param rolls the roll of every lane, 0 for a lane that doesn't move and has nothing to play
+     * @param balance the money of every moving player, updated when they pay
+     * @param wraps how many times every moving player passed the end of the map, written
+     * @param pending the lanes left to the engine, in increasing order, written
+     * @param lanes the number of lanes
+     * @return the number of lanes left to the engine
+     */
+    int step(int[] from, int[] rolls, int[] balance, int[] wraps, int[] pending, int lanes) {
+        return step(from, rolls, balance, wraps, pending, 0, 0, lanes);
+    }
+
+    /**
+     * Steps the lanes from {@code first} to {@code lanes}, adding the lanes left to the engine after
+     * the first {@code count}. The vectorised steps use it for the lanes after the last full vector.
+     */
+    final int step(int[] from, int[] rolls, int[] balance, int[] wraps, int[] pending, int count, int first, int lanes) {
+        for (int lane = first; lane < lanes; lane++) {
+            int steps = rolls[lane];
+            if (steps == 0) continue;
+
+            // ---- The move ----
+            int position = from[lane];
+            int to;
+            int wrapped = 0;
+            if (steps < fields - position) {
+                to = position + steps;
+            } else if (steps < 2 * (long) fields - position) {
+                to = position + steps - fields;
+                wrapped = 1;
+            } else {
+                long target = (long) position + steps;
+                to = (int) (target % fields);
+                wrapped = (int) (target / fields);
+            }
+            from[lane] = to;
+            wraps[lane] = wrapped;
+
+            // ---- The fee ----
+            if (balance[lane] >= minimum[to]) balance[lane] -= fee[to];
+            else pending[count++] = lane;
+        }
+        return count;
+    }
+}
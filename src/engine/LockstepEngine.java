@@ -0,0 +1,520 @@
+package engine;
+
+import dice.DiceSource;
+import dice.ExhaustionPolicy;
+import dice.PredefinedDice;
+import dice.RandomDice;
+import game.GameConfig;
+import game.GameLimits;
+import game.GameRules;
+import map.Movement;
+import map.Positions;
+import strategy.DecisionTable;
+import strategy.Strategies;
+import strategy.Strategy;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays many independent games of one configuration at the same time, advancing every game by one turn in every step.
+ * <p>
+ * Every game being played has a lane, and the state of every lane is stored in columns: the money of player
+ * {@code p} in lane {@code l} is {@code money[l * players + p]}, the owner of field {@code f} is {@code owner[l * fields + f]},
+ * and the turn state (next player, round, players who lost) is one entry per lane. The blocks of a lane are contiguous,
+ * so the fields are played, and a lane is started or moved, without striding over the other lanes. A step rolls the dice of every lane,
+ * moves all of them and takes the fees of the services and luck fields they landed on at once with {@link LaneSteps}
+ * (with the Vector API when the runtime has it), and then plays the properties, and the players who can't pay, lane by lane.
+ * A game that ends is reported and its lane gets the next game;
+ * when no games are left, the last lane still playing is moved into it, so the lanes being stepped are always the
+ * first ones and no step is wasted on finished games.
+ * </p>
+ * <p>
+ * The rules are exactly those of {@link ArrayEngine}, so every game ends the same way as with the other engines for the
+ * same generator, whichever lane plays it and whatever else is played beside it. The engine sends no events.
+ * </p>
+ */
+public class LockstepEngine {
+    /** The number of games played at once, unless the map is so large that the lanes would take too much memory. */
+    public static final int DEFAULT_LANES = 64;
+    /** The most entries of a column of the board or the players, over all the lanes. */
+    private static final int MAX_COLUMN_SIZE = 1 << 24;
+    private static final byte RUNNING = -1;
+    private static final EndReason[] END_REASONS = EndReason.values();
+    private static final int NO_OWNER = -1;
+
+    /**
+     * Receives the games that ended.
+     */
+    public interface GameListener {
+        /**
+         * Called when a game ended, before its lane gets another game. The state of the game can be read from
+         * the engine with the lane, as long as the call lasts.
+         *
+         * @param engine the engine
+         * @param lane the lane the game was played in
+         * @param game the index of the game, in the order the generators were given
+         */
+        void onGameOver(LockstepEngine engine, int lane, long game);
+    }
+
+    private final int lanes;
+    private final int players;
+    private final int fields;
+
+    // ---- Rules, see GameRules ----
+    private final int propertyPrice;
+    private final int housePrice;
+    private final int carefulDivisor;
+    private final int tacticianPeriod;
+
+    // ---- Board, the same for every lane ----
+    private final byte[] fieldKind;
+
+    // ---- Board, by field and lane ----
+    private final int[] owner;
+    private final boolean[] house;
+
+    // ---- Players, by player and lane ----
+    private final byte[] playstyle;
+    private final DecisionTable[] tables;
+    private final Strategy[] strategies;
+    private final int[] money;
+    private final int[] position;
+    private final long[] laps;
+    private final boolean[] lost;
+    private final int[] opportunities;
+    private final int[] moneyAtCheck;
+    /** The players of every lane in the order they lost, {@code lostOrder[l * players + i]}. */
+    private final int[] lostOrder;
+    /** The number of turns played when every player of every lane lost, 0 while they are in the game. */
+    private final int[] lostTurn;
+
+    // ---- Turn, by lane ----
+    private final long[] game;
+    private final int[] currentPlayer;
+    private final int[] round;
+    private final int[] lostCount;
+    private final int[] lostAtCheck;
+    private final byte[] endReason;
+    private final int[] sharedPosition;
+    private final RandomDice[] randomDice;
+    private final PredefinedDice[] preDefinedDice;
+
+    // ---- Limits ----
+    private final boolean limited;
+    private final long maxTurns;
+    private final long maxLaps;
+    private final int stalemateWindow;
+
+    // ---- The current step, by lane ----
+    private final boolean shared;
+    private final LaneSteps steps;
+    private final int[] player;
+    /** The index of the moving player in the columns of the players. */
+    private final int[] index;
+    private final int[] rolls;
+    /** The field the moving player moves from, and then the field they land on. */
+    private final int[] landed;
+    private final int[] wraps;
+    private final int[] balance;
+    /** The lanes whose field is played by the engine, see {@link LaneSteps#step}. */
+    private final int[] pending;
+    private final long[] score;
+    private int active;
+
+    /**
+     * Encodes the given configuration for the given number of lanes. The configuration is only read here.
+     *
+     * @param config the configuration of every game
+     * @param lanes the most games played at once, fewer on maps too large for that many
+     */
+    public LockstepEngine(GameConfig config, int lanes) {
+        if (lanes < 1) throw new IllegalArgumentException("The number of lanes must be at least 1!");
+        fields = config.getFieldCount();
+        players = config.getPlayerCount();
+        this.lanes = Math.max(1, Math.min(lanes, MAX_COLUMN_SIZE / Math.max(fields, players)));
+
+        GameRules rules = config.getRules();
+        propertyPrice = rules.getPropertyPrice();
+        housePrice = rules.getHousePrice();
+        carefulDivisor = rules.getCarefulDivisor();
+        tacticianPeriod = rules.getTacticianPeriod();
+
+        fieldKind = new byte[fields];
+        int[] fee = new int[fields];
+        int[] minimum = new int[fields];
+        for (int i = 0; i < fields; i++) {
+            fieldKind[i] = config.getFieldKind(i);
+            int value = config.getFieldValue(i);
+            if (fieldKind[i] == ArrayEngine.PROPERTY) {
+                minimum[i] = LaneSteps.PROPERTY_MINIMUM;
+            } else if (fieldKind[i] == ArrayEngine.LUCK) {
+                fee[i] = -value;
+                minimum[i] = LaneSteps.LUCK_MINIMUM;
+            } else {
+                fee[i] = value;
+                minimum[i] = value;
+            }
+        }
+        owner = new int[fields * this.lanes];
+        house = new boolean[fields * this.lanes];
+
+        playstyle = new byte[players];
+        tables = new DecisionTable[players];
+        strategies = new Strategy[players];
+        for (int i = 0; i < players; i++) {
+            playstyle[i] = ArrayEngine.playstyle(config.getPlaystyle(i));
+            if (playstyle[i] == ArrayEngine.CUSTOM) {
+                strategies[i] = Strategies.get(config.getPlaystyle(i));
+                if (strategies[i] instanceof DecisionTable) {
+                    tables[i] = (DecisionTable) strategies[i];
+                    playstyle[i] = ArrayEngine.TABLE;
+                }
+            }
+        }
+        int playerColumn = players * this.lanes;
+        money = new int[playerColumn];
+        position = new int[playerColumn];
+        laps = new long[playerColumn];
+        lost = new boolean[playerColumn];
+        opportunities = new int[playerColumn];
+        moneyAtCheck = new int[playerColumn];
+        lostOrder = new int[playerColumn];
+        lostTurn = new int[playerColumn];
+
+        game = new long[this.lanes];
+        currentPlayer = new int[this.lanes];
+        round = new int[this.lanes];
+        lostCount = new int[this.lanes];
+        lostAtCheck = new int[this.lanes];
+        endReason = new byte[this.lanes];
+        sharedPosition = new int[this.lanes];
+        randomDice = new RandomDice[this.lanes];
+        preDefinedDice = config.hasPreDefinedDiceRolls() ? new PredefinedDice[this.lanes] : null;
+        for (int lane = 0; lane < this.lanes; lane++) {
+            randomDice[lane] = new RandomDice(null);
+            if (preDefinedDice != null) {
+                preDefinedDice[lane] = new PredefinedDice(config.getPreDefinedDiceRolls(), ExhaustionPolicy.RANDOM, randomDice[lane]);
+            }
+        }
+
+        GameLimits limits = config.getLimits();
+        limited = limits.isLimited();
+        maxTurns = limits.getMaxTurns();
+        maxLaps = limits.getMaxLaps();
+        stalemateWindow = limits.getStalemateWindow();
+
+        shared = config.getMovement() == Movement.SHARED;
+        steps = LaneSteps.create(fields, fee, minimum);
+        player = new int[this.lanes];
+        index = new int[this.lanes];
+        rolls = new int[this.lanes];
+        landed = new int[this.lanes];
+        wraps = new int[this.lanes];
+        balance = new int[this.lanes];
+        pending = new int[this.lanes];
+        score = new long[players];
+    }
+
+    /**
+     * Sets what happens when the predefined dice rolls of the configuration run out, like
+     * {@link GameEngine#setExhaustionPolicy(ExhaustionPolicy)}.
+     *
+     * @param policy the behaviour after the last predefined roll
+     */
+    public void setExhaustionPolicy(ExhaustionPolicy policy) {
+        if (preDefinedDice == null) return;
+        for (PredefinedDice dice : preDefinedDice) dice.setPolicy(policy);
+    }
+
+    public int getLanes(){ return lanes; }
+    /** @return whether the lanes are stepped with the Vector API */
+    public boolean isVectorised(){ return steps.isVectorised(); }
+
+    /**
+     * Plays the given number of games. Every game gets the next generator of the supplier when it starts,
+     * in the order of the games, and plays exactly like {@link GameEngine#simulatePlay(RandomGenerator)}
+     * of a reset engine with that generator.
+     *
+     * @param games the number of games
+     * @param generators gives the generator of every game
+     * @param listener receives every game that ended
+     */
+    public void play(long games, Supplier<? extends RandomGenerator> generators, GameListener listener) {
+        long next = 0;
+        active = 0;
+        while (active < lanes && next < games) load(active++, next++, generators.get());
+
+        while (active > 0) {
+            step();
+
+            // From the last lane, so a lane moved down has already been checked
+            for (int lane = active - 1; lane >= 0; lane--) {
+                if (endReason[lane] == RUNNING) continue;
+                listener.onGameOver(this, lane, game[lane]);
+                if (next < games) load(lane, next++, generators.get());
+                else moveLane(--active, lane);
+            }
+        }
+    }
+
+    /**
+     * Puts a new game into the lane, in its starting state.
+     */
+    private void load(int lane, long gameIndex, RandomGenerator random) {
+        int board = lane * fields;
+        Arrays.fill(owner, board, board + fields, NO_OWNER);
+        Arrays.fill(house, board, board + fields, false);
+        int first = lane * players;
+        int end = first + players;
+        Arrays.fill(money, first, end, ArrayEngine.STARTING_MONEY);
+        Arrays.fill(position, first, end, Positions.START);
+        Arrays.fill(laps, first, end, 0L);
+        Arrays.fill(lost, first, end, false);
+        Arrays.fill(lostTurn, first, end, 0);
+        Arrays.fill(opportunities, first, end, 0);
+        Arrays.fill(moneyAtCheck, first, end, ArrayEngine.STARTING_MONEY);
+        game[lane] = gameIndex;
+        currentPlayer[lane] = 0;
+        round[lane] = 0;
+        lostCount[lane] = 0;
+        lostAtCheck[lane] = 0;
+        endReason[lane] = RUNNING;
+        sharedPosition[lane] = Positions.START;
+        randomDice[lane].setGenerator(random);
+        if (preDefinedDice != null) preDefinedDice[lane].rewind();
+    }
+
+    /**
+     * Moves the game of one lane into another one, whose game is over.
+     */
+    private void moveLane(int from, int to) {
+        if (from == to) return;
+        System.arraycopy(owner, from * fields, owner, to * fields, fields);
+        System.arraycopy(house, from * fields, house, to * fields, fields);
+        int i = from * players;
+        int j = to * players;
+        System.arraycopy(money, i, money, j, players);
+        System.arraycopy(position, i, position, j, players);
+        System.arraycopy(laps, i, laps, j, players);
+        System.arraycopy(lost, i, lost, j, players);
+        System.arraycopy(opportunities, i, opportunities, j, players);
+        System.arraycopy(moneyAtCheck, i, moneyAtCheck, j, players);
+        System.arraycopy(lostOrder, i, lostOrder, j, players);
+        System.arraycopy(lostTurn, i, lostTurn, j, players);
+        game[to] = game[from];
+        currentPlayer[to] = currentPlayer[from];
+        round[to] = round[from];
+        lostCount[to] = lostCount[from];
+        lostAtCheck[to] = lostAtCheck[from];
+        endReason[to] = endReason[from];
+        sharedPosition[to] = sharedPosition[from];
+
+        // The dice keep the reading position and the generator of the game, so they are swapped
+        RandomDice random = randomDice[to];
+        randomDice[to] = randomDice[from];
+        randomDice[from] = random;
+        if (preDefinedDice != null) {
+            PredefinedDice dice = preDefinedDice[to];
+            preDefinedDice[to] = preDefinedDice[from];
+            preDefinedDice[from] = dice;
+        }
+    }
+
+    /**
+     * Plays one turn of every lane.
+     */
+    private void step() {
+        // ---- Rolls and the players to move ----
+        for (int lane = 0; lane < active; lane++) {
+            int p = currentPlayer[lane];
+            int roll = preDefinedDice != null ? preDefinedDice[lane].nextRoll() : randomDice[lane].nextRoll();
+            int i = lane * players + p;
+            index[lane] = i;
+            landed[lane] = shared ? sharedPosition[lane] : position[i];
+            balance[lane] = money[i];
+            if (roll == DiceSource.STOP) {
+                // The lane still goes through the steps, but with no roll the game stays as it is
+                endReason[lane] = (byte) EndReason.DICE_RAN_OUT.ordinal();
+                rolls[lane] = 0;
+                continue;
+            }
+            rolls[lane] = roll;
+            player[lane] = p;
+
+            // The next player who hasn't lost yet, in the same order as ArrayEngine.nextPlayer()
+            do {
+                if (++p == players) p = 0;
+            } while (lost[lane * players + p]);
+            currentPlayer[lane] = p;
+        }
+
+        // ---- Every lane moves, and pays its service or luck field, at once ----
+        int count = steps.step(landed, rolls, balance, wraps, pending, active);
+
+        // ---- The properties and the players who can't pay, lane by lane ----
+        for (int i = 0; i < count; i++) {
+            int lane = pending[i];
+            if (fieldKind[landed[lane]] == ArrayEngine.PROPERTY) playProperty(lane, player[lane], landed[lane]);
+            else lose(lane, player[lane]);
+            balance[lane] = money[index[lane]];
+        }
+
+        // ---- The end of the turn ----
+        for (int lane = 0; lane < active; lane++) {
+            if (endReason[lane] != RUNNING) continue;
+            int p = player[lane];
+            int i = index[lane];
+            money[i] = balance[lane];
+            position[i] = landed[lane];
+            sharedPosition[lane] = landed[lane];
+            // The laps only end a game with a lap limit
+            if (maxLaps > 0) laps[i] += wraps[lane];
+
+            if (lost[i]) {
+                lostOrder[lane * players + lostCount[lane]++] = p;
+                lostTurn[i] = round[lane] + 1;
+            }
+            round[lane]++;
+
+            if (players - lostCount[lane] <= 1) endReason[lane] = (byte) EndReason.LAST_PLAYER_STANDING.ordinal();
+            else if (limited) checkLimits(lane, p);
+        }
+    }
+
+    private void checkLimits(int lane, int p) {
+        if (maxTurns > 0 && round[lane] >= maxTurns) endReason[lane] = (byte) EndReason.TURN_LIMIT.ordinal();
+        else if (maxLaps > 0 && laps[lane * players + p] >= maxLaps) endReason[lane] = (byte) EndReason.LAP_LIMIT.ordinal();
+        else if (stalemateWindow > 0 && round[lane] % stalemateWindow == 0 && isStalemate(lane)) {
+            endReason[lane] = (byte) EndReason.STALEMATE.ordinal();
+        }
+    }
+
+    /**
+     * The stalemate check of {@link ArrayEngine}, for one lane.
+     */
+    private boolean isStalemate(int lane) {
+        boolean stalled = lostCount[lane] == lostAtCheck[lane];
+        for (int field = 0; stalled && field < fields; field++) {
+            stalled = fieldKind[field] != ArrayEngine.PROPERTY || owner[lane * fields + field] != NO_OWNER;
+        }
+        for (int p = 0; p < players; p++) {
+            int i = lane * players + p;
+            if (!lost[i] && money[i] < moneyAtCheck[i]) stalled = false;
+            moneyAtCheck[i] = money[i];
+        }
+        lostAtCheck[lane] = lostCount[lane];
+        return stalled;
+    }
+
+    private void playProperty(int lane, int p, int field) {
+        int i = lane * players + p;
+        int f = lane * fields + field;
+        int fieldOwner = owner[f];
+        int balance = money[i];
+
+        // ---- If the property has no owner ----
+        if (fieldOwner == NO_OWNER) {
+            if (buys(lane, p, balance, propertyPrice, false)) {
+                owner[f] = p;
+                money[i] = balance - propertyPrice;
+            }
+            return;
+        }
+
+        // ---- If they are the owner ----
+        if (fieldOwner == p) {
+            if (!house[f] && buys(lane, p, balance, housePrice, true)) {
+                house[f] = true;
+                money[i] = balance - housePrice;
+            }
+            return;
+        }
+
+        // ---- If they are not the owner ----
+        int rent = house[f] ? ArrayEngine.HOUSE_RENT : ArrayEngine.RENT;
+        if (balance >= rent) {
+            balance -= rent;
+            money[i] = balance;
+            money[lane * players + fieldOwner] += rent;
+        }
+        if (balance < rent) lose(lane, p);
+    }
+
+    /**
+     * The decision of every playstyle whether to buy, the same as in {@link ArrayEngine}.
+     */
+    private boolean buys(int lane, int p, int balance, int price, boolean isHouse) {
+        boolean canAfford = balance >= price;
+        int i = lane * players + p;
+        switch (playstyle[p]) {
+            case ArrayEngine.CAREFUL:
+                return canAfford & balance - price >= balance / carefulDivisor;
+            case ArrayEngine.TACTICIAN:
+                return canAfford && opportunities[i]++ % tacticianPeriod == 0;
+            case ArrayEngine.TABLE:
+                return canAfford && tables[p].buys(balance, price, isHouse, round[lane], opportunities[i]++);
+            case ArrayEngine.CUSTOM:
+                return canAfford && strategies[p].buys(balance, price, isHouse, round[lane], opportunities[i]++);
+            default:
+                return canAfford;
+        }
+    }
+
+    private void lose(int lane, int p) {
+        lost[lane * players + p] = true;
+        for (int field = 0; field < fields; field++) {
+            int f = lane * fields + field;
+            if (owner[f] == p) {
+                owner[f] = NO_OWNER;
+                house[f] = false;
+            }
+        }
+    }
+
+    // ---- State of a lane, for the listener ----
+    public int getTurn(int lane){ return round[lane]; }
+    public boolean hasLost(int lane, int p){ return lost[lane * players + p]; }
+    public int getLostTurn(int lane, int p){ return lostTurn[lane * players + p]; }
+    public EndReason getEndReason(int lane){ return endReason[lane] == RUNNING ? null : END_REASONS[endReason[lane]]; }
+    public int getMoney(int lane, int p){ return money[lane * players + p]; }
+    /** @return the player who owns the field in the lane, -1 if nobody does */
+    public int getOwner(int lane, int field){ return owner[lane * fields + field]; }
+    public int getLostCount(int lane){ return lostCount[lane]; }
+    /** @return the player of the lane who lost the game as the given one, 0 being the first */
+    public int getLost(int lane, int index){ return lostOrder[lane * players + index]; }
+
+    /**
+     * Writes the finishing positions of the game of the lane, like {@link GameEngine#writeFinishingPositions(int[])}.
+     *
+     * @param lane the lane of the game
+     * @param positions the array to fill, indexed in the order the players were read
+     */
+    public void writeFinishingPositions(int lane, int[] positions) {
+        Arrays.fill(positions, 0, players, 1);
+        for (int i = 0; i < lostCount[lane]; i++) {
+            positions[lostOrder[lane * players + i]] = players - i;
+        }
+        if (players - lostCount[lane] > 1) rankByScore(lane, positions);
+    }
+
+    private void rankByScore(int lane, int[] positions) {
+        for (int p = 0; p < players; p++) {
+            score[p] = money[lane * players + p];
+        }
+        for (int field = 0; field < fields; field++) {
+            int fieldOwner = owner[lane * fields + field];
+            if (fieldOwner != NO_OWNER) score[fieldOwner] += propertyPrice + (house[lane * fields + field] ? housePrice : 0);
+        }
+        for (int p = 0; p < players; p++) {
+            if (lost[lane * players + p]) continue;
+            int rank = 1;
+            for (int other = 0; other < players; other++) {
+                if (!lost[lane * players + other] && (score[other] > score[p] || score[other] == score[p] && other < p)) rank++;
+            }
+            positions[p] = rank;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package engine;
+
+/**
+ * The players still in a game, in turn order, as a circular doubly linked list of their indexes.
+ * <p>
+ * Going from a player to the next one who hasn't lost and taking out a player who lost both take constant time,
+ * whatever the number of players and however many of them lost, while scanning the lost flags for the next player
+ * takes as many steps as there are lost players in between. The order is the order the players were read,
+ * so the turns go exactly as with the scan.
+ * </p>
+ */
+public final class PlayerRing {
+    private final int[] next;
+    private final int[] previous;
+    private int size;
+
+    /**
+     * @param players the number of players, all of them in the ring
+     */
+    public PlayerRing(int players) {
+        next = new int[players];
+        previous = new int[players];
+        reset();
+    }
+
+    /**
+     * Puts every player back into the ring.
+     */
+    public void reset() {
+        int players = next.length;
+        for (int player = 0; player < players; player++) {
+            next[player] = player + 1 == players ? 0 : player + 1;
+            previous[player] = player == 0 ? players - 1 : player - 1;
+        }
+        size = players;
+    }
+
+    /**
+     * Puts the players who haven't lost back into the ring, for example after restoring a snapshot.
+     *
+     * @param lost whether every player has lost
+     */
+    public void reset(boolean[] lost) {
+        reset();
+        for (int player = 0; player < lost.length; player++) {
+            if (lost[player]) remove(player);
+        }
+    }
+
+    /**
+     * Takes a player out of the ring. The players after them keep their order, and the player is still
+     * followed by the player who followed them, so a turn that was already passed on is not affected.
+     *
+     * @param player a player in the ring
+     */
+    public void remove(int player) {
+        int before = previous[player];
+        int after = next[player];
+        next[before] = after;
+        previous[after] = before;
+        size--;
+    }
+
+    /**
+     * @param player a player in the ring, or the player taken out last
+     * @return the player after them in the ring, themselves if they are the only one left
+     */
+    public int next(int player){ return next[player]; }
+
+    /** @return the number of players in the ring */
+    public int size(){ return size; }
+}
@@ -0,0 +1,90 @@
+package events;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records every event of a game into an append-only binary file, so the game can be
+ * reconstructed exactly later with {@link EventLogReplay}.
+ * <p>
+ * The file starts with a header ({@link #MAGIC}, {@link #VERSION}), followed by one fixed-width
+ * record per event: turn, player index, field index (ints), event kind (a byte, the ordinal of
+ * {@link GameEvent}), amount and the resulting balance (ints). The records are collected in a direct
+ * buffer and written to the file channel only when the buffer is full, so logging an event is only
+ * a few stores into memory. A log holds one game, and it has to be {@link #close() closed} at the end.
+ * </p>
+ */
+public class BinaryEventLog implements GameEventListener, Flushable, Closeable {
+    public static final int MAGIC = 0x4341504C; // "CAPL"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 21;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    /** The current turn, counted from the {@link GameEvent#MOVED} events. */
+    private int turn = -1;
+
+    /**
+     * Creates the log file (replacing an existing one) and writes its header.
+     *
+     * @param file the file to write the log to
+     * @throws IOException if the file cannot be created
+     */
+    public BinaryEventLog(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    @Override
+    public void onEvent(GameEvent event, int player, int field, int amount, int balance) {
+        if (event == GameEvent.MOVED) turn++;
+        if (buffer.remaining() < RECORD_SIZE) writeBuffer();
+
+        buffer.putInt(turn)
+                .putInt(player)
+                .putInt(field)
+                .put((byte) event.ordinal())
+                .putInt(amount)
+                .putInt(balance);
+    }
+
+    /**
+     * Writes every buffered record to the file.
+     */
+    @Override
+    public void flush() {
+        writeBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeBuffer() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("The event log could not be written!", e);
+        }
+        buffer.clear();
+    }
+}
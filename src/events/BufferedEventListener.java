@@ -0,0 +1,57 @@
+package events;
+
+import game.GameConfig;
+
+import java.io.Flushable;
+import java.io.PrintStream;
+
+/**
+ * Writes the same messages as {@link ConsoleEventListener}, but collects them in a buffer
+ * and writes them out in large batches, so a simulation with output doesn't stop at every event.
+ * <p>
+ * The buffer is written when it grows over its capacity and when {@link #flush()} is called,
+ * which has to be done once the game is over. It is not thread-safe, every game needs its own.
+ * </p>
+ */
+public class BufferedEventListener implements GameEventListener, Flushable {
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private final String[] playerNames;
+    private final PrintStream out;
+    private final int capacity;
+    private final StringBuilder buffer;
+
+    /**
+     * @param config the configuration of the game, for the names of the players
+     * @param out the stream the messages are written to
+     * @param capacity the number of characters collected before they are written
+     */
+    public BufferedEventListener(GameConfig config, PrintStream out, int capacity) {
+        this.playerNames = ConsoleEventListener.playerNames(config);
+        this.out = out;
+        this.capacity = capacity;
+        this.buffer = new StringBuilder(capacity + 256);
+    }
+
+    public BufferedEventListener(GameConfig config) {
+        this(config, System.out, DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public void onEvent(GameEvent event, int player, int field, int amount, int balance) {
+        if (ConsoleEventListener.appendEvent(buffer, playerNames[player], event, amount, balance)) {
+            buffer.append(System.lineSeparator());
+            if (buffer.length() >= capacity) flush();
+        }
+    }
+
+    /**
+     * Writes every collected message to the stream.
+     */
+    @Override
+    public void flush() {
+        out.print(buffer);
+        out.flush();
+        buffer.setLength(0);
+    }
+}
@@ -0,0 +1,78 @@
+package events;
+
+import ConsoleColors.ConsoleColors;
+import game.GameConfig;
+
+/**
+ * Writes every event to the console as soon as it happens, in color.
+ * This is how the game has always reported what the players do.
+ */
+public class ConsoleEventListener implements GameEventListener {
+    private final String[] playerNames;
+
+    /**
+     * @param config the configuration of the game, for the names of the players
+     */
+    public ConsoleEventListener(GameConfig config) {
+        this.playerNames = playerNames(config);
+    }
+
+    @Override
+    public void onEvent(GameEvent event, int player, int field, int amount, int balance) {
+        StringBuilder line = new StringBuilder();
+        if (appendEvent(line, playerNames[player], event, amount, balance)) {
+            System.out.println(line);
+        }
+    }
+
+    static String[] playerNames(GameConfig config) {
+        String[] names = new String[config.getPlayerCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = config.getPlayerName(i);
+        }
+        return names;
+    }
+
+    /**
+     * Appends the console message of an event to the given builder.
+     * The message varies based on the kind of the event.
+     *
+     * @param line the builder to append to
+     * @param name the name of the player
+     * @param event the kind of the event
+     * @param amount the money involved in the event
+     * @param balance the balance of the player after the event
+     * @return whether the event has a message (the owner receiving the tax has none)
+     */
+    static boolean appendEvent(StringBuilder line, String name, GameEvent event, int amount, int balance) {
+        switch (event) {
+            case PROPERTY_BOUGHT:
+                line.append(ConsoleColors.CYAN).append(name).append(" bought a property!").append(ConsoleColors.RESET)
+                        .append(" Balance: ")
+                        .append(ConsoleColors.RED).append(balance).append(ConsoleColors.RESET);
+                return true;
+            case HOUSE_BOUGHT:
+                line.append(ConsoleColors.CYAN).append(name).append(" bought a house!").append(ConsoleColors.RESET)
+                        .append(" Balance: ")
+                        .append(ConsoleColors.RED).append(balance).append(ConsoleColors.RESET);
+                return true;
+            case TAX_PAID:
+                line.append(name).append(" payed the property tax to the owner!")
+                        .append(" Balance: ").append(ConsoleColors.RED).append(balance).append(ConsoleColors.RESET);
+                return true;
+            case SERVICE_PAID:
+                line.append(name).append(" payed for a service (").append(amount).append(")! Balance: ")
+                        .append(ConsoleColors.RED).append(balance).append(ConsoleColors.RESET);
+                return true;
+            case LUCK_RECEIVED:
+                line.append(name).append(" received a lucky payment (").append(amount).append(")! Balance: ")
+                        .append(ConsoleColors.GREEN).append(balance).append(ConsoleColors.RESET);
+                return true;
+            case LOST:
+                line.append(ConsoleColors.RED).append(name).append(" lost the game!").append(ConsoleColors.RESET);
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package events;
+
+import ConsoleColors.ConsoleColors;
+import exceptions.InvalidDataException;
+import game.Game;
+import game.GameConfig;
+import map.Map;
+import map.fields.Property;
+import players.Player;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Rebuilds the state of a game at any turn from its {@link BinaryEventLog} and the original configuration.
+ * <p>
+ * The dice rolls are taken from the {@link GameEvent#MOVED} records and played again on a new {@link Game}.
+ * Every event the game sends while replaying is compared with the next record of the log,
+ * so a log that doesn't belong to the configuration (or was changed) is detected at the first difference.
+ * </p>
+ */
+public final class EventLogReplay {
+    private EventLogReplay() {}
+
+    /**
+     * Replays the logged game up to and including the given turn.
+     *
+     * @param config the configuration the game was played with
+     * @param log the event log of the game
+     * @param lastTurn the last turn to replay (turns start at 0), or -1 to replay the whole game
+     * @return the game in the state it had at the end of the turn, without an event listener
+     * @throws IOException if the log cannot be read
+     * @throws InvalidDataException if the log is not a valid event log of the configuration
+     */
+    public static Game replay(GameConfig config, Path log, int lastTurn) throws IOException, InvalidDataException {
+        return replay(config, log, lastTurn, GameEventListener.SILENT);
+    }
+
+    /**
+     * Replays the logged game like {@link #replay(GameConfig, Path, int)}, also notifying the given listener
+     * about every replayed event.
+     *
+     * @param config the configuration the game was played with
+     * @param log the event log of the game
+     * @param lastTurn the last turn to replay (turns start at 0), or -1 to replay the whole game
+     * @param listener the listener notified after every event was verified
+     * @return the game in the state it had at the end of the turn, without an event listener
+     * @throws IOException if the log cannot be read
+     * @throws InvalidDataException if the log is not a valid event log of the configuration
+     */
+    public static Game replay(GameConfig config, Path log, int lastTurn, GameEventListener listener)
+            throws IOException, InvalidDataException {
+        ByteBuffer records;
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (records.remaining() < BinaryEventLog.HEADER_SIZE || records.getInt() != BinaryEventLog.MAGIC) {
+            throw new InvalidDataException(log + " is not an event log!");
+        }
+        if (records.getInt() != BinaryEventLog.VERSION) {
+            throw new InvalidDataException(log + " was written by another version of the game!");
+        }
+
+        Game game = new Game(config);
+        Verifier verifier = new Verifier(records);
+        game.setEventListener(listener == GameEventListener.SILENT ? verifier : GameEventListener.both(verifier, listener));
+
+        try {
+            while (records.remaining() >= BinaryEventLog.RECORD_SIZE) {
+                int position = records.position();
+                int turn = records.getInt(position);
+                GameEvent event = verifier.eventAt(position);
+                if (event != GameEvent.MOVED) {
+                    throw new InvalidDataException("Turn " + turn + " of the log doesn't start with a dice roll!");
+                }
+                if (lastTurn >= 0 && turn > lastTurn) break;
+
+                verifier.turn = turn;
+                game.playTurn(records.getInt(position + 13));
+            }
+        } catch (IllegalStateException e) {
+            throw new InvalidDataException(e.getMessage());
+        }
+
+        game.setEventListener(GameEventListener.SILENT);
+        return game;
+    }
+
+    /**
+     * Writes the balance, status and properties of every player to the console.
+     *
+     * @param game the game to describe
+     */
+    public static void writeStateToConsole(Game game) {
+        Map map = game.getMap();
+        for (Player player : game.getPlayers()) {
+            StringBuilder line = new StringBuilder()
+                    .append(player.hasLost() ? ConsoleColors.RED : ConsoleColors.CYAN)
+                    .append(player.getName()).append(ConsoleColors.RESET)
+                    .append(" Balance: ").append(player.getMoney())
+                    .append(player.hasLost() ? " (lost)" : "")
+                    .append(" Properties:");
+            for (int i = 0; i < map.size(); i++) {
+                if (map.getField(i) instanceof Property) {
+                    Property property = (Property) map.getField(i);
+                    if (property.getOwner() == player) line.append(' ').append(i).append(property.getHasHouse() ? "h" : "");
+                }
+            }
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * Compares every event of the replayed game with the next record of the log.
+     */
+    private static final class Verifier implements GameEventListener {
+        private static final GameEvent[] EVENTS = GameEvent.values();
+
+        private final ByteBuffer records;
+        private int turn;
+
+        Verifier(ByteBuffer records) {
+            this.records = records;
+        }
+
+        GameEvent eventAt(int position) throws InvalidDataException {
+            int kind = records.get(position + 12);
+            if (kind < 0 || kind >= EVENTS.length) throw new InvalidDataException(kind + " is not a valid event!");
+            return EVENTS[kind];
+        }
+
+        @Override
+        public void onEvent(GameEvent event, int player, int field, int amount, int balance) {
+            if (records.remaining() < BinaryEventLog.RECORD_SIZE) {
+                throw new IllegalStateException("The log ends in the middle of turn " + turn + "!");
+            }
+            boolean matches = records.getInt() == turn
+                    & records.getInt() == player
+                    & records.getInt() == field
+                    & records.get() == event.ordinal()
+                    & records.getInt() == amount
+                    & records.getInt() == balance;
+            if (!matches) {
+                throw new IllegalStateException("The log doesn't match the configuration at turn " + turn + "!");
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package events;
+
+/**
+ * The kinds of events that happen during a game.
+ * Every event changes the balance of exactly one player, except {@link #MOVED} and {@link #LOST}.
+ * <p>
+ * The binary event log stores the ordinal of the events, so new kinds must be added at the end.
+ * </p>
+ */
+public enum GameEvent {
+    /** A new turn: the player rolled the dice (the amount is the roll) and landed on the field. */
+    MOVED,
+    /** The player bought the property they are standing on. */
+    PROPERTY_BOUGHT,
+    /** The player bought a house on their own property. */
+    HOUSE_BOUGHT,
+    /** The player paid the property tax to the owner of the property. */
+    TAX_PAID,
+    /** The owner of the property received the tax, sent right after {@link #TAX_PAID}. */
+    TAX_RECEIVED,
+    /** The player paid for a service. */
+    SERVICE_PAID,
+    /** The player received a lucky payment. */
+    LUCK_RECEIVED,
+    /** The player could not pay and lost the game, all their properties became unowned. */
+    LOST
+}
@@ -0,0 +1,39 @@
+package events;
+
+/**
+ * Receives the events of a game, such as purchases, taxes, services, lucky payments and losing.
+ * <p>
+ * The events are passed as primitives, so notifying a listener never allocates,
+ * and the {@link #SILENT} listener costs nothing. Listeners are called from the thread
+ * playing the game, so a listener used by only one game doesn't have to be thread-safe.
+ * </p>
+ */
+public interface GameEventListener {
+    /** A listener that ignores every event, for simulations that run without any output. */
+    GameEventListener SILENT = (event, player, field, amount, balance) -> {};
+
+    /**
+     * Called whenever something happens to a player.
+     *
+     * @param event the kind of the event
+     * @param player the index of the player, in the order the players were read
+     * @param field the index of the field the event happened on
+     * @param amount the money involved in the event (price, tax, fee or payment), 0 when losing
+     * @param balance the balance of the player after the event
+     */
+    void onEvent(GameEvent event, int player, int field, int amount, int balance);
+
+    /**
+     * Combines two listeners into one, which notifies the first one and then the second one.
+     *
+     * @param first the listener notified first
+     * @param second the listener notified second
+     * @return a listener notifying both
+     */
+    static GameEventListener both(GameEventListener first, GameEventListener second) {
+        return (event, player, field, amount, balance) -> {
+            first.onEvent(event, player, field, amount, balance);
+            second.onEvent(event, player, field, amount, balance);
+        };
+    }
+}
@@ -0,0 +1,313 @@
+package game;
+
+import exceptions.InvalidDataException;
+import strategy.Strategies;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.InputMismatchException;
+
+/**
+ * Parses a configuration file directly from its bytes.
+ * <p>
+ * The file is memory-mapped and read line by line like {@link GameConfig#read(java.util.Scanner)} does,
+ * with the same validation and the same error messages, but the tokens of a line are only located,
+ * never copied: keywords are compared byte by byte and numbers are parsed in place. Only the names of
+ * the players and the text of invalid tokens (for the error messages) become strings.
+ * </p>
+ */
+final class ConfigParser {
+    private static final byte[] PROPERTY = bytes("property");
+    private static final byte[] SERVICE = bytes("service");
+    private static final byte[] LUCK = bytes("luck");
+    private static final byte[] GREEDY = bytes("greedy");
+    private static final byte[] CAREFUL = bytes("careful");
+    private static final byte[] TACTICIAN = bytes("tactician");
+
+    private final ByteBuffer text;
+    private final int limit;
+    private int position;
+
+    // ---- The tokens of the current line, as split(" ") would give them ----
+    private int lineEnd;
+    private int tokenCount;
+    private final int[] tokenStart = new int[2];
+    private final int[] tokenEnd = new int[2];
+
+    private ConfigParser(ByteBuffer text) {
+        this.text = text;
+        this.limit = text.limit();
+    }
+
+    /**
+     * Maps the given file into memory and parses it.
+     *
+     * @param fileName the name of the file to read from
+     * @return the parsed configuration, reading the predefined dice rolls lazily from the mapped file
+     * @throws FileNotFoundException if the file cannot be found or read
+     * @throws InvalidDataException if the file contains invalid data
+     * @throws NumberFormatException if the file contains invalid number formats
+     */
+    static GameConfig parseFile(String fileName) throws FileNotFoundException, InvalidDataException {
+        ByteBuffer text;
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new InvalidDataException("The file must be smaller than 2 GB!");
+            text = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException | InvalidPathException e) {
+            throw new FileNotFoundException(fileName + " (" + e.getMessage() + ")");
+        }
+        return parse(text);
+    }
+
+    /**
+     * Parses a configuration from the given bytes.
+     *
+     * @param text the configuration, from its position to its limit
+     * @return the parsed configuration, reading the predefined dice rolls lazily from the buffer
+     * @throws InvalidDataException if the configuration contains invalid data
+     * @throws NumberFormatException if the configuration contains invalid number formats
+     */
+    static GameConfig parse(ByteBuffer text) throws InvalidDataException {
+        ConfigParser parser = new ConfigParser(text);
+        parser.position = text.position();
+        return parser.parse();
+    }
+
+    private GameConfig parse() throws InvalidDataException {
+        // ---- READING MAP ----
+        skipWhitespace();
+        if (position == limit) throw new InvalidDataException("The file must not be empty!");
+
+        int fields = nextInt();
+        skipLine();
+
+        // Testing input data
+        if (fields < 1) throw new InvalidDataException("The number of fields must be at least 1!");
+        byte[] fieldKinds = new byte[fields];
+        int[] fieldValues = new int[fields];
+        for (int i = 0; i < fields; i++) {
+            if (!nextLine()) throw new InvalidDataException("The file ended after " + i + " of " + fields + " fields!");
+
+            boolean property = tokenEquals(0, PROPERTY);
+            boolean service = tokenEquals(0, SERVICE);
+            boolean luck = tokenEquals(0, LUCK);
+            if (tokenCount != 2 && (service || luck)) {
+                throw new InvalidDataException(token(0) + " must have a value!");
+            }
+            if (tokenCount == 2 && property) {
+                throw new InvalidDataException("Property must not have a value!");
+            }
+
+            if (property) {
+                fieldKinds[i] = GameConfig.PROPERTY;
+            } else if (service || luck) {
+                fieldKinds[i] = service ? GameConfig.SERVICE : GameConfig.LUCK;
+                fieldValues[i] = parseInt(tokenStart[1], tokenEnd[1]);
+            } else {
+                throw new InvalidDataException(token(0) + " is not a valid field! (property/service/value)");
+            }
+            position = skipLineTerminator(lineEnd);
+        }
+
+        // ---- READING PLAYERS ----
+        skipWhitespace();
+        if (position == limit) throw new InvalidDataException("The number of players is missing!");
+        int playersNum = nextInt();
+        skipLine();
+
+        // Testing input data
+        if (playersNum < 3) throw new InvalidDataException("The number of players must be at least 3!");
+        String[] playerNames = new String[playersNum];
+        String[] playstyles = new String[playersNum];
+        for (int i = 0; i < playersNum; i++) {
+            if (!nextLine()) throw new InvalidDataException("The file ended after " + i + " of " + playersNum + " players!");
+            if (tokenCount != 2) throw new InvalidDataException("The player must have a name and a playstyle: " +
+                    "Name (greedy/careful/tactician)");
+
+            if (tokenEquals(1, GREEDY)) playstyles[i] = "greedy";
+            else if (tokenEquals(1, CAREFUL)) playstyles[i] = "careful";
+            else if (tokenEquals(1, TACTICIAN)) playstyles[i] = "tactician";
+            else if (Strategies.get(token(1)) != null) playstyles[i] = token(1);
+            else throw new InvalidDataException(token(1) + " is not a valid playstyle! (" + String.join(", ", Strategies.getNames()) + ")");
+            playerNames[i] = token(0);
+
+            position = skipLineTerminator(lineEnd);
+        }
+
+        // If the results of the dice rolls are predefined
+        if (position < limit) {
+            int rollsStart = position;
+            int rollsEnd = findLineEnd(position);
+            int rolls = validateRolls(rollsStart, rollsEnd);
+            return new GameConfig(fieldKinds, fieldValues, playerNames, playstyles,
+                    RollStream.sequence(text.slice(rollsStart, rollsEnd - rollsStart), rolls));
+        }
+        return new GameConfig(fieldKinds, fieldValues, playerNames, playstyles, null);
+    }
+
+    /**
+     * Checks every predefined dice roll without keeping them, like reading them into an array would.
+     *
+     * @return the number of dice rolls
+     */
+    private int validateRolls(int start, int end) throws InvalidDataException {
+        // Like split(" "), trailing empty tokens are dropped, but an empty line is one empty token
+        int last = end;
+        while (last > start && text.get(last - 1) == ' ') last--;
+        if (last == start && end > start) return 0;
+
+        int rolls = 0;
+        int tokenBegin = start;
+        for (int i = start; i <= last; i++) {
+            if (i == last || text.get(i) == ' ') {
+                int roll = parseInt(tokenBegin, i);
+                if (roll < 1 || roll > 6) throw new InvalidDataException(string(tokenBegin, i) + " is not a valid dice roll!");
+                rolls++;
+                tokenBegin = i + 1;
+            }
+        }
+        return rolls;
+    }
+
+    // ---- Lines ----
+
+    /**
+     * Locates the next line and its first two tokens, as {@code nextLine().split(" ")} would split it.
+     *
+     * @return false if there are no more lines
+     */
+    private boolean nextLine() {
+        if (position >= limit) return false;
+        lineEnd = findLineEnd(position);
+
+        int segment = 0;
+        int lastNonEmpty = -1;
+        int segmentBegin = position;
+        for (int i = position; i <= lineEnd; i++) {
+            if (i == lineEnd || text.get(i) == ' ') {
+                if (segment < 2) {
+                    tokenStart[segment] = segmentBegin;
+                    tokenEnd[segment] = i;
+                }
+                if (i > segmentBegin) lastNonEmpty = segment;
+                segment++;
+                segmentBegin = i + 1;
+            }
+        }
+        tokenCount = lineEnd == position ? 1 : lastNonEmpty + 1;
+        if (tokenCount == 0) tokenEnd[0] = tokenStart[0];
+        return true;
+    }
+
+    private int findLineEnd(int from) {
+        int i = from;
+        while (i < limit) {
+            byte b = text.get(i);
+            if (b == '\n' || b == '\r') break;
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return the start of the next line, after the "\n", "\r\n" or "\r" ending the line at the given index
+     */
+    private int skipLineTerminator(int end) {
+        if (end < limit && text.get(end) == '\r') end++;
+        else if (end < limit && text.get(end) == '\n') return end + 1;
+        if (end < limit && text.get(end) == '\n') end++;
+        return end;
+    }
+
+    private void skipLine() {
+        position = skipLineTerminator(findLineEnd(position));
+    }
+
+    private void skipWhitespace() {
+        while (position < limit && isWhitespace(text.get(position))) position++;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+
+    // ---- Tokens ----
+
+    /**
+     * Reads the next whitespace separated token as a number, like {@code Scanner.nextInt()}.
+     */
+    private int nextInt() {
+        int start = position;
+        while (position < limit && !isWhitespace(text.get(position))) position++;
+        try {
+            return parseInt(start, position);
+        } catch (NumberFormatException e) {
+            throw new InputMismatchException(e.getMessage());
+        }
+    }
+
+    private boolean tokenEquals(int token, byte[] word) {
+        if (token >= tokenCount) return false;
+        int start = tokenStart[token];
+        if (tokenEnd[token] - start != word.length) return false;
+        for (int i = 0; i < word.length; i++) {
+            if (text.get(start + i) != word[i]) return false;
+        }
+        return true;
+    }
+
+    private String token(int token) {
+        return string(tokenStart[token], tokenEnd[token]);
+    }
+
+    private String string(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        text.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a decimal number in place, accepting exactly what {@link Integer#parseInt(String)} accepts.
+     */
+    private int parseInt(int start, int end) {
+        return parseInt(text, start, end);
+    }
+
+    static int parseInt(ByteBuffer text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.get(i) == '-' || text.get(i) == '+')) {
+            negative = text.get(i) == '-';
+            i++;
+        }
+        if (i == end) throw numberFormat(text, start, end);
+
+        // Accumulating negatively, like Integer.parseInt, so Integer.MIN_VALUE fits
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = text.get(i) - '0';
+            if (digit < 0 || digit > 9 || result < limit / 10) throw numberFormat(text, start, end);
+            result *= 10;
+            if (result < limit + digit) throw numberFormat(text, start, end);
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static NumberFormatException numberFormat(ByteBuffer text, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        text.get(start, bytes);
+        return new NumberFormatException("For input string: \"" + new String(bytes, StandardCharsets.UTF_8) + "\"");
+    }
+
+    private static byte[] bytes(String word) {
+        return word.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,449 @@
+package game;
+
+import ConsoleColors.ConsoleColors;
+import dice.ExhaustionPolicy;
+import dice.PredefinedDice;
+import dice.RandomDice;
+import engine.EndReason;
+import engine.GameEngine;
+import engine.GameSnapshot;
+import engine.PlayerRing;
+import events.ConsoleEventListener;
+import events.GameEvent;
+import events.GameEventListener;
+import exceptions.InvalidDataException;
+import map.Map;
+import map.Positions;
+import map.fields.Field;
+import map.fields.Luck;
+import map.fields.Property;
+import map.fields.Service;
+import players.*;
+import strategy.Strategies;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class represents the core of the Capitaly game simulation.
+ * <p>
+ * It handles the reading of the game configuration from a file, simulating the game,
+ * and determining which player finishes second to last.
+ * </p>
+ *
+ * @author Horánszki Patrik Donát - CJJ14N
+ */
+public class Game implements GameEngine {
+    private final GameConfig config;
+    private Map map;
+    private Positions positions;
+    private ArrayList<Player> players;
+    private ArrayList<Player> playersLost;
+    /** The indexes of the players still in the game, in turn order. */
+    private PlayerRing activePlayers;
+    /** The number of turns played when every player lost, 0 while they are in the game. */
+    private int[] lostTurn;
+    private int currentPlayerIndex = 0;
+    private int currentRoundIndex = 0;
+    private final RandomDice randomDice = new RandomDice(null);
+    /** The predefined dice rolls of the configuration, null if the rolls are random. */
+    private PredefinedDice preDefinedDice;
+    private GameEventListener eventListener;
+    private EndReason endReason;
+    /** The money of every player and the number of players who lost at the last stalemate check. */
+    private int[] moneyAtCheck;
+    private int lostAtCheck;
+
+    /**
+     * Constructs a new Game object and initializes it based on the input file.
+     *
+     * @param fileName the name of the file containing the game configuration
+     */
+    public Game(String fileName){
+        this(loadConfig(fileName));
+    }
+
+    /**
+     * Constructs a new Game object from an already parsed configuration.
+     * The configuration is not copied, so many games can share one parsed file.
+     *
+     * @param config the configuration of the game
+     */
+    public Game(GameConfig config){
+        this.config = config;
+
+        ArrayList<Field> fieldsList = new ArrayList<>();
+        for (int i = 0; i < config.getFieldCount(); i++) {
+            switch (config.getFieldType(i)){
+                case "property":
+                    fieldsList.add(new Property(config.getRules().getPropertyPrice(), config.getRules().getHousePrice()));
+                    break;
+                case "service":
+                    fieldsList.add(new Service(config.getFieldValue(i)));
+                    break;
+                case "luck":
+                    fieldsList.add(new Luck(config.getFieldValue(i)));
+                    break;
+            }
+        }
+        map = new Map(fieldsList);
+        positions = new Positions(map.size(), config.getPlayerCount(), config.getMovement());
+
+        ArrayList<Player> playersList = new ArrayList<>();
+        for (int i = 0; i < config.getPlayerCount(); i++) {
+            switch (config.getPlaystyle(i)){
+                case "greedy":
+                    playersList.add(new Greedy(config.getPlayerName(i)));
+                    break;
+                case "careful":
+                    playersList.add(new Careful(config.getPlayerName(i), config.getRules().getCarefulDivisor()));
+                    break;
+                case "tactician":
+                    playersList.add(new Tactician(config.getPlayerName(i), config.getRules().getTacticianPeriod()));
+                    break;
+                default:
+                    playersList.add(new StrategyPlayer(config.getPlayerName(i), config.getPlaystyle(i),
+                            Strategies.get(config.getPlaystyle(i)), () -> currentRoundIndex));
+            }
+        }
+        players = playersList;
+        playersLost = new ArrayList<>();
+        if (config.hasPreDefinedDiceRolls()) {
+            preDefinedDice = new PredefinedDice(config.getPreDefinedDiceRolls(), ExhaustionPolicy.RANDOM, randomDice);
+        }
+
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).setIndex(i);
+        }
+        activePlayers = new PlayerRing(players.size());
+        moneyAtCheck = new int[players.size()];
+        lostTurn = new int[players.size()];
+        Arrays.fill(moneyAtCheck, Player.STARTING_MONEY);
+        setEventListener(new ConsoleEventListener(config));
+    }
+
+    /**
+     * Reads the game configuration from the given file. If the file is missing or invalid,
+     * the error is written to the console and the program exits.
+     *
+     * @param fileName the name of the file containing the game configuration
+     * @return the parsed configuration
+     */
+    public static GameConfig loadConfig(String fileName){
+        try{
+            return GameConfig.readFromFile(fileName);
+        } catch (FileNotFoundException e){
+            System.err.println("File not found: " + fileName);
+        } catch (InvalidDataException e) {
+            System.err.println("Invalid data in " + fileName + ": " + e.getMessage());
+        } catch (InputMismatchException e){
+            System.err.println("The first line must be the number of fields in the map!");
+        } catch (NumberFormatException e){
+            System.err.println(e.getMessage() + " is not a valid number!");
+        }
+        System.exit(-1);
+        return null;
+    }
+
+    /**
+     * Sets the listener notified about the actions of the players. A new game writes
+     * every action to the console, simulations use {@link GameEventListener#SILENT} instead.
+     *
+     * @param listener the listener of every player of the game
+     */
+    @Override
+    public void setEventListener(GameEventListener listener){
+        this.eventListener = listener;
+        for (Player player : players) {
+            player.setEventListener(listener);
+        }
+    }
+
+    /**
+     * Puts the game back to its starting state: every property is unowned again,
+     * every player has their starting money, and nobody has lost yet.
+     * The fields and players are reused, so this is much cheaper than building a new game.
+     */
+    @Override
+    public void reset(){
+        map.reset();
+        positions.reset();
+        for (Player player : players) {
+            player.reset();
+        }
+        playersLost.clear();
+        activePlayers.reset();
+        Arrays.fill(lostTurn, 0);
+        currentPlayerIndex = 0;
+        currentRoundIndex = 0;
+        endReason = null;
+        Arrays.fill(moneyAtCheck, Player.STARTING_MONEY);
+        lostAtCheck = 0;
+        if (preDefinedDice != null) preDefinedDice.rewind();
+    }
+
+    @Override
+    public void setExhaustionPolicy(ExhaustionPolicy policy){
+        if (preDefinedDice != null) preDefinedDice.setPolicy(policy);
+    }
+
+    /**
+     * Simulates the game by allowing players to take turns rolling dice and moving
+     * on the map. The game continues until only one player remains, or until the predefined
+     * rolls run out with {@link ExhaustionPolicy#STOP}.
+     */
+    public void simulatePlay() {
+        simulatePlay(new Random());
+    }
+
+    /**
+     * Simulates the game like {@link #simulatePlay()}, but draws the random dice rolls
+     * from the given generator. Batch simulations pass a seeded generator here,
+     * so every game can be reproduced from its seed.
+     * A game that has already been played has to be {@link #reset()} before it is played again.
+     *
+     * @param random the generator used when there is no predefined sequence of rolls
+     */
+    @Override
+    public void simulatePlay(RandomGenerator random) {
+        randomDice.setGenerator(random);
+        if (preDefinedDice != null) {
+            simulatePlay(preDefinedDice);
+            return;
+        }
+
+        // If there is no predefined sequence of rolls, it should be random
+        while (!isOver()) {
+            playTurn(random.nextInt(6) + 1);
+        }
+    }
+
+    /**
+     * Plays one turn: the next player who is still in the game moves with the given roll
+     * and acts on the field they land on.
+     *
+     * @param diceRoll the result of the dice roll
+     */
+    @Override
+    public void playTurn(int diceRoll){
+        Player currentPlayer = nextPlayer();
+        Field field = map.getField(positions.move(currentPlayer.getIndex(), diceRoll));
+
+        eventListener.onEvent(GameEvent.MOVED, currentPlayer.getIndex(), field.getIndex(), diceRoll, currentPlayer.getMoney());
+        currentPlayer.playField(field);
+        if (currentPlayer.hasLost()){
+            playersLost.add(currentPlayer);
+            lostTurn[currentPlayer.getIndex()] = currentRoundIndex + 1;
+            activePlayers.remove(currentPlayer.getIndex());
+        }
+
+        currentRoundIndex++;
+
+        if (players.size() - playersLost.size() <= 1){
+            endReason = EndReason.LAST_PLAYER_STANDING;
+        } else if (config.getLimits().isLimited()){
+            checkLimits(currentPlayer);
+        }
+    }
+
+    @Override
+    public boolean isOver(){
+        return endReason != null;
+    }
+
+    @Override
+    public int getTurn(){ return currentRoundIndex; }
+
+    @Override
+    public boolean hasLost(int player){ return players.get(player).hasLost(); }
+
+    @Override
+    public int getLostTurn(int player){ return lostTurn[player]; }
+
+    @Override
+    public EndReason getEndReason(){ return endReason; }
+
+    @Override
+    public void endGame(EndReason reason){ this.endReason = reason; }
+
+    /**
+     * Ends the game if it reached a limit of the configuration with the last turn of the given player.
+     *
+     * @param player the player who played the last turn
+     */
+    private void checkLimits(Player player){
+        GameLimits limits = config.getLimits();
+        if (limits.getMaxTurns() > 0 && currentRoundIndex >= limits.getMaxTurns()){
+            endGame(EndReason.TURN_LIMIT);
+        } else if (limits.getMaxLaps() > 0 && positions.getLaps(player.getIndex()) >= limits.getMaxLaps()){
+            endGame(EndReason.LAP_LIMIT);
+        } else if (limits.getStalemateWindow() > 0 && currentRoundIndex % limits.getStalemateWindow() == 0 && isStalemate()){
+            endGame(EndReason.STALEMATE);
+        }
+    }
+
+    /**
+     * Checks whether, since the last check, nobody lost, every property was owned
+     * and the money of no remaining player decreased, see {@link GameLimits}.
+     *
+     * @return whether the game is in a stalemate
+     */
+    private boolean isStalemate(){
+        boolean stalled = playersLost.size() == lostAtCheck;
+        for (int i = 0; stalled && i < map.size(); i++) {
+            if (map.getField(i) instanceof Property && ((Property) map.getField(i)).getOwner() == null) stalled = false;
+        }
+        for (Player player : players) {
+            if (!player.hasLost() && player.getMoney() < moneyAtCheck[player.getIndex()]) stalled = false;
+            moneyAtCheck[player.getIndex()] = player.getMoney();
+        }
+        lostAtCheck = playersLost.size();
+        return stalled;
+    }
+
+    /**
+     * Gives the player whose turn it is, and passes the turn on to the next player who hasn't lost yet.
+     *
+     * @return the player whose turn it is
+     */
+    private Player nextPlayer(){
+        Player returnValue = players.get(currentPlayerIndex);
+        currentPlayerIndex = activePlayers.next(currentPlayerIndex);
+        return returnValue;
+    }
+
+    /**
+     * Gives the finishing position of every player after {@link #simulatePlay()}.
+     * Position 1 is the winner, the first player who lost gets the last position.
+     * If the game ended early, the players still in the game are ranked by their {@link Player#getScore() score}.
+     *
+     * @return the finishing positions, indexed in the order the players were read
+     */
+    public int[] getFinishingPositions(){
+        int[] positions = new int[players.size()];
+        writeFinishingPositions(positions);
+        return positions;
+    }
+
+    @Override
+    public void writeFinishingPositions(int[] positions){
+        for (int i = 0; i < players.size(); i++) {
+            positions[i] = 1;
+        }
+        for (int i = 0; i < playersLost.size(); i++) {
+            positions[playersLost.get(i).getIndex()] = players.size() - i;
+        }
+
+        // If the game ended early, the players still in the game are ranked by their score, the first player on a tie
+        if (players.size() - playersLost.size() > 1){
+            for (Player player : players) {
+                if (player.hasLost()) continue;
+                for (Player other : players) {
+                    if (!other.hasLost() && (other.getScore() > player.getScore()
+                            || other.getScore() == player.getScore() && other.getIndex() < player.getIndex())){
+                        positions[player.getIndex()]++;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void writeSnapshot(GameSnapshot snapshot){
+        checkSize(snapshot);
+        snapshot.clear();
+        for (int i = 0; i < map.size(); i++) {
+            if (!(map.getField(i) instanceof Property)) continue;
+            Property property = (Property) map.getField(i);
+            if (property.getOwner() == null) continue;
+            snapshot.setOwner(i, property.getOwner().getIndex());
+            snapshot.setHouse(i, property.getHasHouse());
+        }
+        for (Player player : players) {
+            int index = player.getIndex();
+            snapshot.setMoney(index, player.getMoney());
+            snapshot.setPosition(index, positions.getPosition(index), positions.getLaps(index));
+            snapshot.setOpportunities(index, player.getOpportunities());
+            snapshot.setMoneyAtCheck(index, moneyAtCheck[index]);
+        }
+        for (Player player : playersLost) {
+            snapshot.addLost(player.getIndex(), lostTurn[player.getIndex()]);
+        }
+        snapshot.setSharedPosition(positions.getSharedPosition());
+        snapshot.setTurn(currentRoundIndex);
+        snapshot.setCurrentPlayer(currentPlayerIndex);
+        snapshot.setEndReason(endReason);
+        snapshot.setLostAtCheck(lostAtCheck);
+        snapshot.setRollPosition(preDefinedDice == null ? 0 : preDefinedDice.getPosition());
+    }
+
+    /**
+     * Puts the game into the state of the snapshot. The fields and the players are reused: every property
+     * gets its owner and house back, and every player their money, properties and opportunities.
+     *
+     * @param snapshot a snapshot of a game of the same configuration
+     */
+    @Override
+    public void restore(GameSnapshot snapshot){
+        checkSize(snapshot);
+        map.reset();
+        for (Player player : players) {
+            int index = player.getIndex();
+            player.restore(snapshot.getMoney(index), snapshot.hasLost(index), snapshot.getOpportunities(index));
+            positions.set(index, snapshot.getPosition(index), snapshot.getLaps(index));
+            moneyAtCheck[index] = snapshot.getMoneyAtCheck(index);
+        }
+        for (int i = 0; i < map.size(); i++) {
+            int owner = snapshot.getOwner(i);
+            if (owner != GameSnapshot.NO_OWNER && map.getField(i) instanceof Property) {
+                players.get(owner).restoreProperty((Property) map.getField(i), snapshot.hasHouse(i));
+            }
+        }
+        playersLost.clear();
+        activePlayers.reset();
+        Arrays.fill(lostTurn, 0);
+        for (int i = 0; i < snapshot.getLostCount(); i++) {
+            playersLost.add(players.get(snapshot.getLost(i)));
+            lostTurn[snapshot.getLost(i)] = snapshot.getLostTurn(i);
+            activePlayers.remove(snapshot.getLost(i));
+        }
+        positions.setSharedPosition(snapshot.getSharedPosition());
+        currentRoundIndex = snapshot.getTurn();
+        currentPlayerIndex = snapshot.getCurrentPlayer();
+        endReason = snapshot.getEndReason();
+        lostAtCheck = snapshot.getLostAtCheck();
+        if (preDefinedDice != null) preDefinedDice.seek(snapshot.getRollPosition());
+    }
+
+    private void checkSize(GameSnapshot snapshot){
+        if (snapshot.getFieldCount() != map.size() || snapshot.getPlayerCount() != players.size()){
+            throw new IllegalArgumentException("The snapshot is of a game of another size!");
+        }
+    }
+
+    public ArrayList<Player> getPlayers(){ return players; }
+    public Map getMap(){ return map; }
+    public Positions getPositions(){ return positions; }
+    public GameConfig getConfig(){ return config; }
+
+    /**
+     * Writes the name of the player who finished second to last in the game.
+     */
+    public void writeSecondToLastPlayer(){
+        int[] positions = getFinishingPositions();
+        Player secondToLast = players.get(0);
+        for (Player player : players) {
+            if (positions[player.getIndex()] == players.size() - 1) secondToLast = player;
+        }
+
+        System.out.println();
+        System.out.println(ConsoleColors.YELLOW
+                + secondToLast.getName()
+                + " finished second to last!"
+                + ConsoleColors.RESET);
+    }
+}
@@ -0,0 +1,253 @@
+package game;
+
+import dice.RollSequence;
+import exceptions.InvalidDataException;
+import map.Movement;
+import strategy.Strategies;
+
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+import java.util.Scanner;
+
+/**
+ * The parsed, immutable configuration of a game: the field layout of the map,
+ * the player roster and the optional predefined dice rolls.
+ * <p>
+ * A configuration holds no game state, so one parsed file can be shared by any number of
+ * {@link Game} objects, even across threads. The games build their own fields and players from it.
+ * </p>
+ * <p>
+ * The predefined dice rolls are a {@link RollSequence}: when the configuration was read from a file,
+ * they are left in the file and only parsed while a game reads them, and they can also be replaced
+ * by the rolls of a {@link dice.DiceFile}, so a sequence of any length takes no extra memory.
+ * </p>
+ */
+public final class GameConfig {
+    // ---- Field kinds ----
+    public static final byte PROPERTY = 0;
+    public static final byte SERVICE = 1;
+    public static final byte LUCK = 2;
+    private static final String[] FIELD_TYPES = {"property", "service", "luck"};
+
+    private final byte[] fieldKinds;
+    private final int[] fieldValues;
+    private final String[] playerNames;
+    private final String[] playstyles;
+    private final RollSequence preDefinedDiceRolls;
+    private final Movement movement;
+    private final GameLimits limits;
+    private final GameRules rules;
+
+    GameConfig(byte[] fieldKinds, int[] fieldValues, String[] playerNames, String[] playstyles,
+               RollSequence preDefinedDiceRolls) {
+        this(fieldKinds, fieldValues, playerNames, playstyles, preDefinedDiceRolls, Movement.SHARED, GameLimits.NONE,
+                GameRules.DEFAULT);
+    }
+
+    private GameConfig(byte[] fieldKinds, int[] fieldValues, String[] playerNames, String[] playstyles,
+                       RollSequence preDefinedDiceRolls, Movement movement, GameLimits limits, GameRules rules) {
+        this.fieldKinds = fieldKinds;
+        this.fieldValues = fieldValues;
+        this.playerNames = playerNames;
+        this.playstyles = playstyles;
+        this.preDefinedDiceRolls = preDefinedDiceRolls;
+        this.movement = movement;
+        this.limits = limits;
+        this.rules = rules;
+    }
+
+    // ---- Map ----
+    public int getFieldCount(){ return fieldKinds.length; }
+    /** @return the kind of the field ({@link #PROPERTY}, {@link #SERVICE} or {@link #LUCK}) */
+    public byte getFieldKind(int field){ return fieldKinds[field]; }
+    /** @return the type of the field (property/service/luck) */
+    public String getFieldType(int field){ return FIELD_TYPES[fieldKinds[field]]; }
+    /** @return the value of a service or luck field, 0 for properties */
+    public int getFieldValue(int field){ return fieldValues[field]; }
+
+    // ---- Players ----
+    public int getPlayerCount(){ return playerNames.length; }
+    public String getPlayerName(int player){ return playerNames[player]; }
+    /** @return the playstyle of the player (greedy/careful/tactician) */
+    public String getPlaystyle(int player){ return playstyles[player]; }
+    /** @return how the players move, {@link Movement#SHARED} unless it was changed */
+    public Movement getMovement(){ return movement; }
+
+    /**
+     * Gives the same configuration with another rule of movement. The map and the players are shared, not copied.
+     *
+     * @param movement whether the players share one position or have their own
+     * @return the configuration playing with the given movement
+     */
+    public GameConfig withMovement(Movement movement){
+        return new GameConfig(fieldKinds, fieldValues, playerNames, playstyles, preDefinedDiceRolls, movement, limits, rules);
+    }
+
+    /** @return the prices and playstyle thresholds, {@link GameRules#DEFAULT} unless they were changed */
+    public GameRules getRules(){ return rules; }
+
+    /**
+     * Gives the same configuration with other prices and playstyle thresholds. The map and the players are shared, not copied.
+     *
+     * @param rules the prices and playstyle thresholds
+     * @return the configuration playing with the given rules
+     */
+    public GameConfig withRules(GameRules rules){
+        return new GameConfig(fieldKinds, fieldValues, playerNames, playstyles, preDefinedDiceRolls, movement, limits, rules);
+    }
+
+    /** @return the limits that end a game early, {@link GameLimits#NONE} unless they were changed */
+    public GameLimits getLimits(){ return limits; }
+
+    /**
+     * Gives the same configuration with other limits. The map and the players are shared, not copied.
+     *
+     * @param limits the limits that end a game early
+     * @return the configuration playing with the given limits
+     */
+    public GameConfig withLimits(GameLimits limits){
+        return new GameConfig(fieldKinds, fieldValues, playerNames, playstyles, preDefinedDiceRolls, movement, limits, rules);
+    }
+
+    // ---- Dice rolls ----
+    public boolean hasPreDefinedDiceRolls(){ return preDefinedDiceRolls != null; }
+    public long getPreDefinedDiceRollCount(){ return preDefinedDiceRolls == null ? 0 : preDefinedDiceRolls.length(); }
+    /**
+     * Every game reads the sequence with its own iterator, so games sharing the configuration don't disturb each other.
+     *
+     * @return the predefined dice rolls, null if the rolls are random
+     */
+    public RollSequence getPreDefinedDiceRolls(){ return preDefinedDiceRolls; }
+
+    /**
+     * Gives the same configuration with other predefined dice rolls. The map and the players are shared, not copied.
+     *
+     * @param rolls the new predefined dice rolls, null for random rolls
+     * @return the configuration playing with the given rolls
+     */
+    public GameConfig withPreDefinedDiceRolls(RollSequence rolls){
+        return new GameConfig(fieldKinds, fieldValues, playerNames, playstyles, rolls, movement, limits, rules);
+    }
+
+    /**
+     * Reads the game configuration from the given file, including the map,
+     * players, and optionally predefined dice rolls.
+     * <p>
+     * The file is memory-mapped and parsed byte by byte, without creating a string for every token,
+     * so files with millions of fields are read quickly. The predefined dice rolls are only
+     * validated, they are parsed again lazily while the games read them.
+     * </p>
+     *
+     * @param fileName the name of the file to read from
+     * @return the parsed configuration
+     * @throws FileNotFoundException if the file cannot be found
+     * @throws InvalidDataException if the file contains invalid data
+     * @throws NumberFormatException if the file contains invalid number formats
+     */
+    public static GameConfig readFromFile(String fileName) throws FileNotFoundException, InvalidDataException, NumberFormatException {
+        return ConfigParser.parseFile(fileName);
+    }
+
+    /**
+     * Parses the game configuration from the given bytes, in the same format and the same way as {@link #readFromFile(String)}.
+     *
+     * @param text the configuration, from its position to its limit
+     * @return the parsed configuration, reading the predefined dice rolls lazily from the buffer
+     * @throws InvalidDataException if the configuration contains invalid data
+     * @throws NumberFormatException if the configuration contains invalid number formats
+     */
+    public static GameConfig parse(ByteBuffer text) throws InvalidDataException, NumberFormatException {
+        return ConfigParser.parse(text);
+    }
+
+    /**
+     * Reads the game configuration from the given scanner, in the same format as the configuration files.
+     *
+     * @param scanner the scanner positioned at the start of the configuration
+     * @return the parsed configuration
+     * @throws InvalidDataException if the configuration contains invalid data
+     * @throws NumberFormatException if the configuration contains invalid number formats
+     */
+    public static GameConfig read(Scanner scanner) throws InvalidDataException, NumberFormatException {
+        // ---- READING MAP ----
+        if(!scanner.hasNext()) throw new InvalidDataException("The file must not be empty!");
+
+        int fields = scanner.nextInt();
+        scanner.nextLine();
+
+        // Testing input data
+        if (fields < 1) throw new InvalidDataException("The number of fields must be at least 1!");
+        byte[] fieldKinds = new byte[fields];
+        int[] fieldValues = new int[fields];
+        for (int i = 0; i < fields; i++) {
+            String[] line = scanner.nextLine().split(" ");
+
+            if (line.length != 2 && (line[0].equals("service") || line[0].equals("luck"))) {
+                throw new InvalidDataException(line[0] + " must have a value!");
+            }
+            if (line.length == 2 && line[0].equals("property")) {
+                throw new InvalidDataException("Property must not have a value!");
+            }
+
+            switch (line[0]){
+                case "property":
+                    fieldKinds[i] = PROPERTY;
+                    break;
+                case "service":
+                    fieldKinds[i] = SERVICE;
+                    fieldValues[i] = Integer.parseInt(line[1]);
+                    break;
+                case "luck":
+                    fieldKinds[i] = LUCK;
+                    fieldValues[i] = Integer.parseInt(line[1]);
+                    break;
+                default:
+                    throw new InvalidDataException(line[0] + " is not a valid field! (property/service/value)");
+            }
+        }
+
+        // ---- READING PLAYERS ----
+        int playersNum = scanner.nextInt();
+        scanner.nextLine();
+
+        // Testing input data
+        if (playersNum < 3) throw new InvalidDataException("The number of players must be at least 3!");
+        String[] playerNames = new String[playersNum];
+        String[] playstyles = new String[playersNum];
+        for (int i = 0; i < playersNum; i++) {
+            String[] line = scanner.nextLine().split(" ");
+            if (line.length != 2) throw new InvalidDataException("The player must have a name and a playstyle: " +
+                    "Name (greedy/careful/tactician)");
+
+            switch (line[1]){
+                case "greedy":
+                case "careful":
+                case "tactician":
+                    playerNames[i] = line[0];
+                    playstyles[i] = line[1];
+                    break;
+                default:
+                    if (Strategies.get(line[1]) == null) {
+                        throw new InvalidDataException(line[1] + " is not a valid playstyle! (" + String.join(", ", Strategies.getNames()) + ")");
+                    }
+                    playerNames[i] = line[0];
+                    playstyles[i] = line[1];
+            }
+        }
+
+        // If the results of the dice rolls are predefined
+        int[] preDefinedDiceRolls = null;
+        if (scanner.hasNextLine()){
+            String[] rollsLine = scanner.nextLine().split(" ");
+            preDefinedDiceRolls = new int[rollsLine.length];
+            for (int i = 0; i < rollsLine.length; i++) {
+                int roll = Integer.parseInt(rollsLine[i]);
+                if (roll < 1 || roll > 6) throw  new InvalidDataException(rollsLine[i] + " is not a valid dice roll!");
+                preDefinedDiceRolls[i] = roll;
+            }
+        }
+
+        return new GameConfig(fieldKinds, fieldValues, playerNames, playstyles,
+                preDefinedDiceRolls == null ? null : RollSequence.of(preDefinedDiceRolls));
+    }
+}
@@ -0,0 +1,44 @@
+package game;
+
+/**
+ * The limits that end a game before only one player remains, so no game can run forever.
+ * <p>
+ * A game can be limited by the number of turns, by the number of laps a player completes, and by
+ * a stalemate check: every {@link #getStalemateWindow() window} of turns the game looks at whether anybody
+ * lost, whether any property is still unowned, and whether the money of any remaining player decreased.
+ * If none of these happened during a whole window, nobody is expected to lose any more and the game ends.
+ * A game ended by a limit ranks its remaining players by their score, see {@code Player.getScore()}.
+ * </p>
+ * <p>
+ * The limits are immutable, 0 means no limit. {@link #NONE} plays every game until its end, like the original game.
+ * </p>
+ */
+public final class GameLimits {
+    public static final GameLimits NONE = new GameLimits(0, 0, 0);
+
+    private final long maxTurns;
+    private final long maxLaps;
+    private final int stalemateWindow;
+
+    private GameLimits(long maxTurns, long maxLaps, int stalemateWindow) {
+        if (maxTurns < 0 || maxLaps < 0 || stalemateWindow < 0) {
+            throw new IllegalArgumentException("The limits of a game must not be negative!");
+        }
+        this.maxTurns = maxTurns;
+        this.maxLaps = maxLaps;
+        this.stalemateWindow = stalemateWindow;
+    }
+
+    /** @return the number of turns after which the game ends, 0 for no limit */
+    public long getMaxTurns(){ return maxTurns; }
+    /** @return the number of laps completed by a player after which the game ends, 0 for no limit */
+    public long getMaxLaps(){ return maxLaps; }
+    /** @return the number of turns between two stalemate checks, 0 for no check */
+    public int getStalemateWindow(){ return stalemateWindow; }
+    /** @return whether any of the limits is set */
+    public boolean isLimited(){ return maxTurns > 0 || maxLaps > 0 || stalemateWindow > 0; }
+
+    public GameLimits withMaxTurns(long maxTurns){ return new GameLimits(maxTurns, maxLaps, stalemateWindow); }
+    public GameLimits withMaxLaps(long maxLaps){ return new GameLimits(maxTurns, maxLaps, stalemateWindow); }
+    public GameLimits withStalemateWindow(int stalemateWindow){ return new GameLimits(maxTurns, maxLaps, stalemateWindow); }
+}
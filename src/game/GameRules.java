@@ -0,0 +1,59 @@
+package game;
+
+/**
+ * The tunable numbers of the rules: the prices of the properties and houses,
+ * and the thresholds of the careful and tactician playstyles.
+ * <p>
+ * The rules are immutable. {@link #DEFAULT} holds the numbers of the original game.
+ * </p>
+ */
+public final class GameRules {
+    public static final GameRules DEFAULT = new GameRules(1000, 4000, 2, 2);
+
+    private final int propertyPrice;
+    private final int housePrice;
+    private final int carefulDivisor;
+    private final int tacticianPeriod;
+
+    /**
+     * @param propertyPrice the price of a property
+     * @param housePrice the price of a house
+     * @param carefulDivisor a careful player only buys if the money left is at least this part of their money
+     *                       (2: at least half of it)
+     * @param tacticianPeriod a tactician buys at every this many opportunities (2: every other one)
+     */
+    public GameRules(int propertyPrice, int housePrice, int carefulDivisor, int tacticianPeriod) {
+        if (propertyPrice < 0 || housePrice < 0) throw new IllegalArgumentException("The prices must not be negative!");
+        if (carefulDivisor < 1 || tacticianPeriod < 1) {
+            throw new IllegalArgumentException("The thresholds of the playstyles must be at least 1!");
+        }
+        this.propertyPrice = propertyPrice;
+        this.housePrice = housePrice;
+        this.carefulDivisor = carefulDivisor;
+        this.tacticianPeriod = tacticianPeriod;
+    }
+
+    public int getPropertyPrice(){ return propertyPrice; }
+    public int getHousePrice(){ return housePrice; }
+    public int getCarefulDivisor(){ return carefulDivisor; }
+    public int getTacticianPeriod(){ return tacticianPeriod; }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof GameRules)) return false;
+        GameRules rules = (GameRules) other;
+        return propertyPrice == rules.propertyPrice && housePrice == rules.housePrice
+                && carefulDivisor == rules.carefulDivisor && tacticianPeriod == rules.tacticianPeriod;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((propertyPrice * 31 + housePrice) * 31 + carefulDivisor) * 31 + tacticianPeriod;
+    }
+
+    @Override
+    public String toString() {
+        return "property price " + propertyPrice + ", house price " + housePrice
+                + ", careful 1/" + carefulDivisor + ", tactician every " + tacticianPeriod;
+    }
+}
@@ -0,0 +1,55 @@
+package game;
+
+import dice.RollSequence;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Reads the predefined dice rolls one by one from the text of the rolls line,
+ * so the sequence never has to be held in memory as numbers.
+ * The text has already been validated by {@link ConfigParser}.
+ */
+final class RollStream implements PrimitiveIterator.OfInt {
+    private final ByteBuffer text;
+    private int position;
+
+    /**
+     * @param text the rolls line, from its position to its limit
+     */
+    RollStream(ByteBuffer text) {
+        this.text = text;
+        this.position = text.position();
+    }
+
+    /**
+     * @param text the validated rolls line
+     * @param count the number of rolls in the line
+     * @return the sequence of the rolls, which are parsed again every time it is read
+     */
+    static RollSequence sequence(ByteBuffer text, int count) {
+        return new RollSequence() {
+            @Override
+            public long length() { return count; }
+
+            @Override
+            public PrimitiveIterator.OfInt open() { return new RollStream(text.duplicate()); }
+        };
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (position < text.limit() && text.get(position) == ' ') position++;
+        return position < text.limit();
+    }
+
+    @Override
+    public int nextInt() {
+        if (!hasNext()) throw new NoSuchElementException("The predefined dice rolls ran out!");
+
+        int start = position;
+        while (position < text.limit() && text.get(position) != ' ') position++;
+        return ConfigParser.parseInt(text, start, position);
+    }
+}
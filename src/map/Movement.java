@@ -0,0 +1,14 @@
+package map;
+
+/**
+ * How the players move on the map.
+ */
+public enum Movement {
+    /**
+     * The players share one position, every roll moves on from the field the previous player landed on.
+     * This is the original rule of the game.
+     */
+    SHARED,
+    /** Every player has their own position and moves on from their own field. */
+    PER_PLAYER
+}
@@ -0,0 +1,97 @@
+package map;
+
+import java.util.Arrays;
+
+/**
+ * Tracks where the players are on a map and how many laps they have completed.
+ * <p>
+ * The positions are kept in primitive arrays indexed by the player, so a move is a few
+ * array reads and writes whatever the size of the map. A move within one lap wraps with
+ * a subtraction, only a move longer than the whole map needs a division, and a lap is counted
+ * every time a player passes the end of the map.
+ * </p>
+ */
+public final class Positions {
+    /** The position before the first field: if someone rolls a 1 to start, they will begin at 0. */
+    public static final int START = -1;
+
+    private final int fields;
+    private final Movement movement;
+    private final boolean shared;
+    private final int[] position;
+    private final long[] laps;
+    /** The position of every player with {@link Movement#SHARED}. */
+    private int sharedPosition;
+
+    /**
+     * @param fields the number of fields of the map, at least 1
+     * @param players the number of players
+     * @param movement whether the players share one position or have their own
+     */
+    public Positions(int fields, int players, Movement movement) {
+        this.fields = fields;
+        this.movement = movement;
+        this.shared = movement == Movement.SHARED;
+        this.position = new int[players];
+        this.laps = new long[players];
+        reset();
+    }
+
+    /**
+     * Moves every player back before the first field.
+     */
+    public void reset() {
+        Arrays.fill(position, START);
+        Arrays.fill(laps, 0L);
+        sharedPosition = START;
+    }
+
+    /**
+     * Moves the player forward by the given number of fields, going around the map as many times as needed.
+     *
+     * @param player the index of the player
+     * @param steps the number of fields to move, at least 0
+     * @return the index of the field the player lands on
+     */
+    public int move(int player, int steps) {
+        int from = shared ? sharedPosition : position[player];
+
+        int field;
+        if (steps < fields - from) {
+            field = from + steps;
+        } else if (steps < 2 * (long) fields - from) {
+            field = from + steps - fields;
+            laps[player]++;
+        } else {
+            // A move longer than the whole map, in long so it can't overflow
+            long target = (long) from + steps;
+            field = (int) (target % fields);
+            laps[player] += target / fields;
+        }
+
+        position[player] = field;
+        sharedPosition = field;
+        return field;
+    }
+
+    /**
+     * Puts the player on the given field, as when a game is restored from a snapshot.
+     *
+     * @param player the index of the player
+     * @param position the field the player is on, {@link #START} before their first move
+     * @param laps the number of times the player has passed the end of the map
+     */
+    public void set(int player, int position, long laps) {
+        this.position[player] = position;
+        this.laps[player] = laps;
+    }
+
+    public Movement getMovement(){ return movement; }
+    /** @return the field every player moves from with {@link Movement#SHARED}: the field of the last move */
+    public int getSharedPosition(){ return sharedPosition; }
+    public void setSharedPosition(int sharedPosition){ this.sharedPosition = sharedPosition; }
+    /** @return the field the player is on, {@link #START} before their first move */
+    public int getPosition(int player){ return position[player]; }
+    /** @return the number of times the player has passed the end of the map */
+    public long getLaps(int player){ return laps[player]; }
+}
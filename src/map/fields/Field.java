@@ -9,6 +9,18 @@ package map.fields;
  * @author Horánszki Patrik Donát - CJJ14N
  */
 public abstract class Field {
+    /** The position of the field on the map. */
+    private int index;
+
+    public int getIndex(){ return index; }
+    public void setIndex(int index){ this.index = index; }
+
     public abstract String getType();
     public abstract int getValue();
+
+    /**
+     * Puts the field back to the state it had at the start of the game.
+     * Fields without game state have nothing to reset.
+     */
+    public void reset(){}
 }
@@ -11,14 +11,24 @@ import players.Player;
  * @author Horánszki Patrik Donát - CJJ14N
  */
 public class Property extends Field {
-    public final int PROPERTY_PRICE = 1000;
-    public final int HOUSE_PRICE = 4000;
+    public final int PROPERTY_PRICE;
+    public final int HOUSE_PRICE;
 
     private boolean hasHouse;
     private boolean hasOwner;
     private Player owner;
 
     public Property(){
+        this(1000, 4000);
+    }
+
+    /**
+     * @param propertyPrice the price of the property
+     * @param housePrice the price of a house on the property
+     */
+    public Property(int propertyPrice, int housePrice){
+        this.PROPERTY_PRICE = propertyPrice;
+        this.HOUSE_PRICE = housePrice;
         this.hasHouse = false;
         this.hasOwner = false;
     }
@@ -31,6 +41,9 @@ public class Property extends Field {
 
     public void resetProperty(){hasHouse = false; hasOwner = false; owner = null;}
 
+    @Override
+    public void reset(){ resetProperty(); }
+
     @Override
     public String getType(){
         return "property";
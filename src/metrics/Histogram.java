@@ -0,0 +1,111 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative long values with log-linear buckets, like an HDR histogram.
+ * <p>
+ * The values below {@link #SUB_BUCKETS} have a bucket each. Above that, every power of two is split into
+ * {@link #SUB_BUCKETS}{@code / 2} buckets, so any value is known to about 3% from its bucket, and the
+ * whole range of a long fits into a couple of thousand counts. Recording a value is a few shifts and
+ * an increment, without allocation.
+ * </p>
+ * <p>
+ * A histogram has a single writer: every worker thread records into its own one, and the readers
+ * {@link #add(Histogram) sum} them. The counts are written with {@code lazySet}, which is enough
+ * for one writer and much cheaper than an atomic increment.
+ * </p>
+ */
+public final class Histogram {
+    static final int SUB_BUCKET_BITS = 6;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - SUB_BUCKET_BITS) * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Records one value, negative values are recorded as 0.
+     * Only the thread owning the histogram may call this.
+     *
+     * @param value the value to record
+     */
+    public void record(long value) {
+        int bucket = bucket(Math.max(0, value));
+        counts.lazySet(bucket, counts.get(bucket) + 1);
+    }
+
+    /**
+     * Adds the counts of another histogram to this one.
+     *
+     * @param other the histogram to add, which may still be written by its owner
+     */
+    public void add(Histogram other) {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            long count = other.counts.get(bucket);
+            if (count != 0) counts.lazySet(bucket, counts.get(bucket) + count);
+        }
+    }
+
+    /** @return the number of recorded values */
+    public long getCount() {
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) count += counts.get(bucket);
+        return count;
+    }
+
+    /**
+     * @param percentile the percentile, from 0 to 100
+     * @return the highest value of the bucket holding the given percentile of the values, 0 if there are none
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) return highestValue(bucket);
+        }
+        return highestValue(BUCKETS - 1);
+    }
+
+    /** @return the highest value of the bucket of the largest recorded value, 0 if there are none */
+    public long getMax() {
+        for (int bucket = BUCKETS - 1; bucket >= 0; bucket--) {
+            if (counts.get(bucket) != 0) return highestValue(bucket);
+        }
+        return 0;
+    }
+
+    /** @return the mean of the recorded values, each taken as the middle of its bucket */
+    public double getMean() {
+        long count = 0;
+        double sum = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            long bucketCount = counts.get(bucket);
+            if (bucketCount == 0) continue;
+            count += bucketCount;
+            sum += bucketCount * ((lowestValue(bucket) + (double) highestValue(bucket)) / 2);
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    static long lowestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = (bucket - SUB_BUCKETS) / HALF + 1;
+        return (long) ((bucket - SUB_BUCKETS) % HALF + HALF) << shift;
+    }
+
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = (bucket - SUB_BUCKETS) / HALF + 1;
+        return lowestValue(bucket) + (1L << shift) - 1;
+    }
+}
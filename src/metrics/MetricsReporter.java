@@ -0,0 +1,83 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes {@link SimulationMetrics} while a simulation runs: registers them as an MXBean named
+ * {@link #OBJECT_NAME} (visible in JConsole or VisualVM), and writes their text snapshot to a file periodically.
+ * <p>
+ * The snapshot is written to a temporary file and moved over the previous one, so a reader never sees a half-written
+ * snapshot. Closing the reporter writes a last snapshot and unregisters the MXBean.
+ * </p>
+ */
+public final class MetricsReporter implements AutoCloseable {
+    public static final String OBJECT_NAME = "capitaly:type=SimulationMetrics";
+
+    private final SimulationMetrics metrics;
+    private final Path file;
+    private final ObjectName name;
+    private final ScheduledExecutorService timer;
+
+    /**
+     * Starts publishing the given metrics.
+     *
+     * @param metrics the metrics to publish
+     * @param file the file the snapshots are written to, null for JMX only
+     * @param intervalMillis the time between two snapshots
+     */
+    public MetricsReporter(SimulationMetrics metrics, Path file, long intervalMillis) {
+        this.metrics = metrics;
+        this.file = file;
+        try {
+            name = new ObjectName(OBJECT_NAME);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(metrics, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("The metrics could not be registered!", e);
+        }
+
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (file != null) timer.scheduleAtFixedRate(this::writeSnapshot, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void writeSnapshot() {
+        try {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temporary, metrics.toText());
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("The metrics could not be written to " + file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        timer.shutdown();
+        try {
+            timer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (file != null) writeSnapshot();
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException ignored) {
+            // Already unregistered
+        }
+    }
+}
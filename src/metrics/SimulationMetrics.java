@@ -0,0 +1,251 @@
+package metrics;
+
+import engine.GameEngine;
+import game.GameConfig;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what the workers of a simulation do: the games and turns played, the turns of every game,
+ * the bankruptcies of every playstyle, and the wall time of every game.
+ * <p>
+ * Every worker records through its own {@link Recorder}: a game costs one {@link System#nanoTime()} call
+ * (the end of a game is the start of the next one), two histogram increments and a few plain increments.
+ * The recorder adds its counts to the shared counters, {@link LongAdder}s striped per thread, at the end of every
+ * chunk of games, so the workers never contend and the counters lag behind by a chunk at most.
+ * Reading the metrics sums the stripes and the recorders, which is only done by the readers
+ * (JMX and {@link MetricsReporter}). A worker {@link Recorder#close() closes} its recorder when it is done:
+ * the histograms of the recorder are added to those of the closed recorders and it is dropped, so the recorders
+ * being read are only those of the workers running, however many runs the metrics are given to.
+ * </p>
+ * <p>
+ * The metrics are off unless a simulation is given an instance: without one, the workers don't record anything.
+ * </p>
+ */
+public final class SimulationMetrics implements SimulationMetricsMXBean {
+    private final long startNanos = System.nanoTime();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder turns = new LongAdder();
+
+    // ---- Bankruptcies, per playstyle ----
+    private final String[] playstyles;
+    /** playstyleOf[player] = the index of the player's playstyle in playstyles */
+    private final int[] playstyleOf;
+    private final LongAdder[] bankruptcies;
+
+    /** The recorders of the workers running, and the histograms of the closed ones; guarded by this. */
+    private final List<Recorder> recorders = new ArrayList<>();
+    private final Histogram closedTurnsPerGame = new Histogram();
+    private final Histogram closedGameNanos = new Histogram();
+
+    /**
+     * @param config the configuration of the simulated games
+     */
+    public SimulationMetrics(GameConfig config) {
+        List<String> styles = new ArrayList<>();
+        playstyleOf = new int[config.getPlayerCount()];
+        for (int player = 0; player < playstyleOf.length; player++) {
+            String playstyle = config.getPlaystyle(player);
+            if (!styles.contains(playstyle)) styles.add(playstyle);
+            playstyleOf[player] = styles.indexOf(playstyle);
+        }
+        playstyles = styles.toArray(new String[0]);
+        bankruptcies = new LongAdder[playstyles.length];
+        for (int i = 0; i < bankruptcies.length; i++) bankruptcies[i] = new LongAdder();
+    }
+
+    /**
+     * Gives a new recorder for one worker thread, which has to be {@link Recorder#close() closed} when the worker is done.
+     *
+     * @return the recorder, to be used by the calling thread only
+     */
+    public synchronized Recorder newRecorder() {
+        Recorder recorder = new Recorder();
+        recorders.add(recorder);
+        return recorder;
+    }
+
+    private synchronized void close(Recorder recorder) {
+        if (!recorders.remove(recorder)) return;
+        closedTurnsPerGame.add(recorder.turnsPerGame);
+        closedGameNanos.add(recorder.gameNanos);
+    }
+
+    /**
+     * Records the games of one worker thread.
+     */
+    public final class Recorder implements AutoCloseable {
+        private final Histogram turnsPerGame = new Histogram();
+        private final Histogram gameNanos = new Histogram();
+
+        // ---- Counts not yet added to the shared counters ----
+        private long chunkGames;
+        private long chunkTurns;
+        private final long[] chunkBankruptcies = new long[playstyles.length];
+        private long lastNanos;
+
+        private Recorder() {
+        }
+
+        /**
+         * Starts the clock of the first game of a chunk.
+         */
+        public void startChunk() {
+            lastNanos = System.nanoTime();
+        }
+
+        /**
+         * Records a finished game, its wall time is the time since the previous game of the chunk ended.
+         *
+         * @param game the engine that played the game
+         */
+        public void recordGame(GameEngine game) {
+            recordGame(game.getTurn());
+            for (int player = 0; player < playstyleOf.length; player++) {
+                if (game.hasLost(player)) recordBankruptcy(player);
+            }
+        }
+
+        /**
+         * Records a finished game of an engine that plays many games at once, see {@link #recordGame(GameEngine)}.
+         * The players who lost it are recorded with {@link #recordBankruptcy(int)}.
+         *
+         * @param gameTurns the number of turns of the game
+         */
+        public void recordGame(int gameTurns) {
+            long now = System.nanoTime();
+            gameNanos.record(now - lastNanos);
+            lastNanos = now;
+
+            turnsPerGame.record(gameTurns);
+            chunkGames++;
+            chunkTurns += gameTurns;
+        }
+
+        /**
+         * @param player the index of a player who lost the last recorded game
+         */
+        public void recordBankruptcy(int player) {
+            chunkBankruptcies[playstyleOf[player]]++;
+        }
+
+        /**
+         * Adds the counts of the chunk to the shared counters.
+         */
+        public void endChunk() {
+            games.add(chunkGames);
+            turns.add(chunkTurns);
+            for (int i = 0; i < chunkBankruptcies.length; i++) {
+                bankruptcies[i].add(chunkBankruptcies[i]);
+                chunkBankruptcies[i] = 0;
+            }
+            chunkGames = 0;
+            chunkTurns = 0;
+        }
+
+        /**
+         * Adds the counts not yet added to the shared counters and the histograms to those of the metrics,
+         * and stops the recorder from being read. Closing it again does nothing.
+         */
+        @Override
+        public void close() {
+            endChunk();
+            SimulationMetrics.this.close(this);
+        }
+    }
+
+    // ---- Reading ----
+
+    /** @return the turns of every game so far, summed over the workers */
+    public synchronized Histogram getTurnsPerGame() {
+        Histogram sum = new Histogram();
+        sum.add(closedTurnsPerGame);
+        for (Recorder recorder : recorders) sum.add(recorder.turnsPerGame);
+        return sum;
+    }
+
+    /** @return the wall time of every game so far in nanoseconds, summed over the workers */
+    public synchronized Histogram getGameNanos() {
+        Histogram sum = new Histogram();
+        sum.add(closedGameNanos);
+        for (Recorder recorder : recorders) sum.add(recorder.gameNanos);
+        return sum;
+    }
+
+    @Override
+    public long getGames(){ return games.sum(); }
+    @Override
+    public long getTurns(){ return turns.sum(); }
+    @Override
+    public double getElapsedSeconds(){ return (System.nanoTime() - startNanos) / 1e9; }
+    @Override
+    public double getGamesPerSecond(){ return getGames() / getElapsedSeconds(); }
+    @Override
+    public double getTurnsPerSecond(){ return getTurns() / getElapsedSeconds(); }
+
+    @Override
+    public double getMeanTurnsPerGame() {
+        long played = getGames();
+        return played == 0 ? 0 : (double) getTurns() / played;
+    }
+
+    @Override
+    public long getTurnsPerGameMedian(){ return getTurnsPerGame().getValueAtPercentile(50); }
+    @Override
+    public long getTurnsPerGame99thPercentile(){ return getTurnsPerGame().getValueAtPercentile(99); }
+    @Override
+    public long getTurnsPerGameMax(){ return getTurnsPerGame().getMax(); }
+
+    @Override
+    public long getGameTimeMedianNanos(){ return getGameNanos().getValueAtPercentile(50); }
+    @Override
+    public long getGameTime99thPercentileNanos(){ return getGameNanos().getValueAtPercentile(99); }
+    @Override
+    public long getGameTimeMaxNanos(){ return getGameNanos().getMax(); }
+
+    @Override
+    public Map<String, Long> getBankruptcies() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < playstyles.length; i++) counts.put(playstyles[i], bankruptcies[i].sum());
+        return counts;
+    }
+
+    /**
+     * Writes every metric as a {@code name value} line, reading the histograms only once.
+     *
+     * @return the text snapshot of the metrics
+     */
+    public String toText() {
+        Histogram turnsPerGame = getTurnsPerGame();
+        Histogram gameNanos = getGameNanos();
+        double elapsed = getElapsedSeconds();
+        long played = getGames();
+        long playedTurns = getTurns();
+
+        StringBuilder text = new StringBuilder();
+        line(text, "elapsed_seconds", String.format("%.3f", elapsed));
+        line(text, "games", played);
+        line(text, "turns", playedTurns);
+        line(text, "games_per_second", String.format("%.1f", played / elapsed));
+        line(text, "turns_per_second", String.format("%.1f", playedTurns / elapsed));
+        line(text, "turns_per_game_mean", String.format("%.2f", turnsPerGame.getMean()));
+        line(text, "turns_per_game_p50", turnsPerGame.getValueAtPercentile(50));
+        line(text, "turns_per_game_p99", turnsPerGame.getValueAtPercentile(99));
+        line(text, "turns_per_game_max", turnsPerGame.getMax());
+        line(text, "game_time_nanos_p50", gameNanos.getValueAtPercentile(50));
+        line(text, "game_time_nanos_p99", gameNanos.getValueAtPercentile(99));
+        line(text, "game_time_nanos_max", gameNanos.getMax());
+        for (int i = 0; i < playstyles.length; i++) {
+            line(text, "bankruptcies{playstyle=\"" + playstyles[i] + "\"}", bankruptcies[i].sum());
+        }
+        return text.toString();
+    }
+
+    private static void line(StringBuilder text, String name, Object value) {
+        text.append(name).append(' ').append(value).append(System.lineSeparator());
+    }
+}
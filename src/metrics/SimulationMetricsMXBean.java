@@ -0,0 +1,27 @@
+package metrics;
+
+import java.util.Map;
+
+/**
+ * The live numbers of a running simulation, as seen through JMX.
+ * The rates are averages since the metrics were created.
+ */
+public interface SimulationMetricsMXBean {
+    long getGames();
+    long getTurns();
+    double getElapsedSeconds();
+    double getGamesPerSecond();
+    double getTurnsPerSecond();
+
+    double getMeanTurnsPerGame();
+    long getTurnsPerGameMedian();
+    long getTurnsPerGame99thPercentile();
+    long getTurnsPerGameMax();
+
+    long getGameTimeMedianNanos();
+    long getGameTime99thPercentileNanos();
+    long getGameTimeMaxNanos();
+
+    /** @return the number of players of every playstyle who went bankrupt */
+    Map<String, Long> getBankruptcies();
+}
@@ -1,5 +1,6 @@
 package players;
 
+import events.GameEvent;
 import map.fields.Field;
 import map.fields.Luck;
 import map.fields.Property;
@@ -13,17 +14,34 @@ import java.util.ArrayList;
  @author Horánszki Patrik Donát - CJJ14N
  */
 public class Careful extends Player {
+    /** The player keeps at least this part of their money when buying: 2 is half of it. */
+    private final int divisor;
+
     public Careful(String name) {
+        this(name, 2);
+    }
+
+    /**
+     * @param name the name of the player
+     * @param divisor the player only buys if the money left is at least 1/divisor of their money
+     */
+    public Careful(String name, int divisor) {
         this.setName(name);
-        this.setMoney(10000);
+        this.setMoney(STARTING_MONEY);
         this.setProperties(new ArrayList<Property>());
         this.setHasLost(false);
+        this.divisor = divisor;
+    }
+
+    @Override
+    public String getPlaystyle(){
+        return "careful";
     }
 
     /**
      * Implements the player's actions when landing on a field as a "Careful" player.
      * The player decides to buy properties or houses only if they can afford them
-     * without dropping below half of their total money. If unable to pay property taxes
+     * without dropping below half (or the configured part) of their total money. If unable to pay property taxes
      * or service fees, the player loses the game.
      *
      * @param field the field that the player has landed on, which can be of type property, service, or luck
@@ -42,12 +60,12 @@ public class Careful extends Player {
                     // If they have enough money and won't go below half of their balance,
                     // they will buy it
                     if (canAfford(fieldP.PROPERTY_PRICE)
-                            && getMoney()-fieldP.PROPERTY_PRICE >= getMoney()/2){
+                            && getMoney()-fieldP.PROPERTY_PRICE >= getMoney()/divisor){
                         fieldP.buyProperty(this);
                         addProperty(fieldP);
                         payMoney(fieldP.PROPERTY_PRICE);
 
-                        writeActionToConsole(this, "property/buy");
+                        notifyEvent(GameEvent.PROPERTY_BOUGHT, fieldP, fieldP.PROPERTY_PRICE);
                         break;
                     }
                 }
@@ -60,11 +78,11 @@ public class Careful extends Player {
                     if(fieldOwner.equals(this)
                             && !fieldP.getHasHouse()
                             && canAfford(fieldP.HOUSE_PRICE)
-                            && getMoney()-fieldP.HOUSE_PRICE >= getMoney()/2){
+                            && getMoney()-fieldP.HOUSE_PRICE >= getMoney()/divisor){
                         fieldP.buyHouse(this);
                         payMoney(fieldP.HOUSE_PRICE);
 
-                        writeActionToConsole(this, "property/buyHouse");
+                        notifyEvent(GameEvent.HOUSE_BOUGHT, fieldP, fieldP.HOUSE_PRICE);
                         break;
                     }
 
@@ -76,11 +94,12 @@ public class Careful extends Player {
                             payMoney(fieldValue);
                             fieldOwner.receivePayment(fieldValue);
 
-                            writeActionToConsole(this, "property/payTax");
+                            notifyEvent(GameEvent.TAX_PAID, fieldP, fieldValue);
+                            fieldOwner.notifyEvent(GameEvent.TAX_RECEIVED, fieldP, fieldValue);
                         }
 
                         // If they cannot pay, they lose the game
-                        if(!canAfford(fieldValue)) lose();
+                        if(!canAfford(fieldValue)) lose(fieldP);
                     }
                 }
 
@@ -91,9 +110,9 @@ public class Careful extends Player {
                 // If they can pay, they pay; if not, they lose the game
                 if (canAfford(fieldS.getValue())){
                     payMoney(fieldS.getValue());
-                    writeActionToConsole(this, "service/pay", fieldS.getValue());
+                    notifyEvent(GameEvent.SERVICE_PAID, fieldS, fieldS.getValue());
                 }
-                else lose();
+                else lose(fieldS);
 
                 break;
 
@@ -101,7 +120,7 @@ public class Careful extends Player {
                 Luck fieldL = (Luck) field;
                 receivePayment(fieldL.getValue());
 
-                writeActionToConsole(this, "luck/receivePayment", fieldL.getValue());
+                notifyEvent(GameEvent.LUCK_RECEIVED, fieldL, fieldL.getValue());
                 break;
         }
     }
@@ -1,5 +1,6 @@
 package players;
 
+import events.GameEvent;
 import map.fields.Field;
 import map.fields.Luck;
 import map.fields.Property;
@@ -15,11 +16,16 @@ import java.util.ArrayList;
 public class Greedy extends Player{
     public Greedy(String name) {
         this.setName(name);
-        this.setMoney(10000);
+        this.setMoney(STARTING_MONEY);
         this.setProperties(new ArrayList<Property>());
         this.setHasLost(false);
     }
 
+    @Override
+    public String getPlaystyle(){
+        return "greedy";
+    }
+
     /**
      * Implements the player's actions when landing on a field as a "Greedy" player.
      * The player will buy properties if they can afford them without any restrictions.
@@ -45,7 +51,7 @@ public class Greedy extends Player{
                         addProperty(fieldP);
                         payMoney(fieldP.PROPERTY_PRICE);
 
-                        writeActionToConsole(this, "property/buy");
+                        notifyEvent(GameEvent.PROPERTY_BOUGHT, fieldP, fieldP.PROPERTY_PRICE);
                         break;
                     }
                 }
@@ -60,7 +66,7 @@ public class Greedy extends Player{
                         fieldP.buyHouse(this);
                         payMoney(fieldP.HOUSE_PRICE);
 
-                        writeActionToConsole(this, "property/buyHouse");
+                        notifyEvent(GameEvent.HOUSE_BOUGHT, fieldP, fieldP.HOUSE_PRICE);
                         break;
                     }
 
@@ -71,11 +77,12 @@ public class Greedy extends Player{
                         if(canAfford(fieldValue)){
                             payMoney(fieldValue);
                             fieldOwner.receivePayment(fieldValue);
-                            writeActionToConsole(this, "property/payTax");
+                            notifyEvent(GameEvent.TAX_PAID, fieldP, fieldValue);
+                            fieldOwner.notifyEvent(GameEvent.TAX_RECEIVED, fieldP, fieldValue);
                         }
 
                         // If they cannot pay, they lose the game
-                        if(!canAfford(fieldValue)) lose();
+                        if(!canAfford(fieldValue)) lose(fieldP);
                     }
                 }
 
@@ -87,9 +94,9 @@ public class Greedy extends Player{
                 // If they can pay, they pay; if not, they lose the game
                 if (canAfford(fieldS.getValue())){
                     payMoney(fieldS.getValue());
-                    writeActionToConsole(this, "service/pay", fieldS.getValue());
+                    notifyEvent(GameEvent.SERVICE_PAID, fieldS, fieldS.getValue());
                 }
-                else lose();
+                else lose(fieldS);
 
                 break;
 
@@ -97,7 +104,7 @@ public class Greedy extends Player{
                 Luck fieldL = (Luck) field;
                 receivePayment(fieldL.getValue());
 
-                writeActionToConsole(this, "luck/receivePayment", fieldL.getValue());
+                notifyEvent(GameEvent.LUCK_RECEIVED, fieldL, fieldL.getValue());
                 break;
         }
     }
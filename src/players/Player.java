@@ -1,6 +1,7 @@
 package players;
 
-import ConsoleColors.ConsoleColors;
+import events.GameEvent;
+import events.GameEventListener;
 import map.fields.Field;
 import map.fields.Property;
 
@@ -15,6 +16,9 @@ import java.util.ArrayList;
  * @author Horánszki Patrik Donát - CJJ14N
  */
 public abstract class Player {
+    /** The money every player starts the game with. */
+    public static final int STARTING_MONEY = 10000;
+
     /** The player's name. */
     private String name;
     /** The player's current money balance. */
@@ -23,11 +27,19 @@ public abstract class Player {
     private ArrayList<Property> properties;
     /** Whether the player has lost the game. */
     private boolean hasLost;
+    /** The position of the player in the order the players were read. */
+    private int index;
+    /** The listener notified about every action of the player. */
+    private GameEventListener eventListener = GameEventListener.SILENT;
 
     // ---- Name ----
     public String getName(){return name;}
     void setName(String name){this.name=name;}
 
+    // ---- Index ----
+    public int getIndex(){return index;}
+    public void setIndex(int index){this.index=index;}
+
     // ---- Money ----
     public int getMoney() { return money;}
     void setMoney(int money){this.money=money;}
@@ -37,6 +49,19 @@ public abstract class Player {
         this.money += amount;
     }
 
+    /**
+     * Gives the worth of the player, used to rank the players of a game that ended early.
+     *
+     * @return the money of the player plus the price of their properties and houses
+     */
+    public long getScore(){
+        long score = money;
+        for (Property property : properties) {
+            score += property.PROPERTY_PRICE + (property.getHasHouse() ? property.HOUSE_PRICE : 0);
+        }
+        return score;
+    }
+
     // ---- Property ----
     void setProperties(ArrayList<Property> properties){this.properties=properties;}
     void addProperty(Property property){this.properties.add(property);}
@@ -48,15 +73,64 @@ public abstract class Player {
     }
     public void setHasLost(boolean hasLost){this.hasLost=hasLost;}
 
-    void lose(){
+    /**
+     * Puts the player back to the state they had at the start of the game,
+     * so the same player object can take part in a new game.
+     */
+    public void reset(){
+        this.money = STARTING_MONEY;
+        this.hasLost = false;
+        this.properties.clear();
+    }
+
+    void lose(Field field){
         this.hasLost=true;
         for(Property property : properties){
             property.resetProperty();
         }
-        System.out.println(ConsoleColors.RED + name + " lost the game!" + ConsoleColors.RESET);
+        notifyEvent(GameEvent.LOST, field, 0);
+    }
+
+    // ---- Snapshots ----
+    /** @return the number of opportunities to buy the player had, for the playstyles that count them */
+    public int getOpportunities(){ return 0; }
+    void setOpportunities(int opportunities){}
+
+    /**
+     * Puts the player into the state they had in a snapshot of a game, without any properties:
+     * those are given back by {@link #restoreProperty(Property, boolean)}.
+     *
+     * @param money the money of the player
+     * @param hasLost whether the player has lost the game
+     * @param opportunities the number of opportunities to buy the player had
+     */
+    public void restore(int money, boolean hasLost, int opportunities){
+        reset();
+        this.money = money;
+        this.hasLost = hasLost;
+        setOpportunities(opportunities);
+    }
+
+    /**
+     * Gives the player a property they owned in a snapshot of a game, without paying for it.
+     *
+     * @param property the property
+     * @param hasHouse whether the property has a house
+     */
+    public void restoreProperty(Property property, boolean hasHouse){
+        property.buyProperty(this);
+        if (hasHouse) property.buyHouse(this);
+        properties.add(property);
     }
 
     // ---- Playstyle ----
+    /**
+     * Gives the name of the playstyle, the same way it is written in the configuration file.
+     *
+     * @return the playstyle of the player (greedy, careful, tactician)
+     */
+    public abstract String getPlaystyle();
+
     /**
      * Abstract method for player actions when landing on a specific field.
      * The method defines how the player interacts with different types of fields
@@ -68,52 +142,17 @@ public abstract class Player {
      */
     public abstract void playField(Field field);
 
-    // ---- Writing to console ----
-    /**
-     * Writes a message to the console indicating an action performed by a player.
-     * The message varies based on the action related to property transactions.
-     *
-     * @param player the player who performed the action
-     * @param action a string representing the type of action
-     */
-    void writeActionToConsole(Player player, String action){
-        switch (action){
-            case "property/buy":
-                System.out.println(
-                        ConsoleColors.CYAN + player.getName() + " bought a property!" + ConsoleColors.RESET
-                        + " Balance: "
-                        + ConsoleColors.RED + player.getMoney() + ConsoleColors.RESET);
-                break;
-            case "property/buyHouse":
-                System.out.println(
-                         ConsoleColors.CYAN + player.getName() + " bought a house!" + ConsoleColors.RESET
-                        + " Balance: "
-                        + ConsoleColors.RED + player.getMoney() + ConsoleColors.RESET);
-                break;
-            case "property/payTax":
-                System.out.println(player.getName() + " payed the property tax to the owner!"
-                        + " Balance: " + ConsoleColors.RED + player.getMoney() + ConsoleColors.RESET);
-                break;
-        }
-    }
+    // ---- Events ----
+    public void setEventListener(GameEventListener eventListener){this.eventListener=eventListener;}
+
     /**
-     * Writes a message to the console indicating an action performed by a player.
-     * The message varies based on the action related to service or luck fields.
+     * Notifies the event listener about an action performed by the player on the given field.
      *
-     * @param player the player who performed the action
-     * @param action a string representing the type of action
-     * @param value the amount involved in the action, such as the cost of a service or the value of a lucky payment
+     * @param event the kind of the action
+     * @param field the field the action happened on
+     * @param amount the money involved in the action, such as the price of a property or the cost of a service
      */
-    void writeActionToConsole(Player player, String action, int value){
-        switch (action){
-            case "service/pay":
-                System.out.println(player.getName() + " payed for a service (" + value + ")! Balance: "
-                        + ConsoleColors.RED + player.getMoney() + ConsoleColors.RESET);
-                break;
-            case "luck/receivePayment":
-                System.out.println(player.getName() + " received a lucky payment (" + value + ")! Balance: "
-                        + ConsoleColors.GREEN + player.getMoney() + ConsoleColors.RESET);
-                break;
-        }
+    void notifyEvent(GameEvent event, Field field, int amount){
+        eventListener.onEvent(event, index, field.getIndex(), amount, money);
     }
 }
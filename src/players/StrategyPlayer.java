@@ -0,0 +1,140 @@
+package players;
+
+import events.GameEvent;
+import map.fields.Field;
+import map.fields.Luck;
+import map.fields.Property;
+import map.fields.Service;
+import strategy.Strategy;
+
+import java.util.ArrayList;
+import java.util.function.IntSupplier;
+
+/**
+ * Represents a player whose playstyle is a {@link Strategy} of a plugin.
+ * The strategy decides whether to buy the properties and houses the player can afford,
+ * everything else is played by the same rules as the built-in playstyles.
+ */
+public class StrategyPlayer extends Player {
+    private final String playstyle;
+    private final Strategy strategy;
+    private final IntSupplier turn;
+    /** The number of opportunities to buy the player had in this game. */
+    private int opportunities;
+
+    /**
+     * @param name the name of the player
+     * @param playstyle the name of the strategy, as written in the configuration file
+     * @param strategy the strategy deciding the purchases
+     * @param turn gives the current turn of the game
+     */
+    public StrategyPlayer(String name, String playstyle, Strategy strategy, IntSupplier turn) {
+        this.setName(name);
+        this.setMoney(STARTING_MONEY);
+        this.setProperties(new ArrayList<Property>());
+        this.setHasLost(false);
+        this.playstyle = playstyle;
+        this.strategy = strategy;
+        this.turn = turn;
+    }
+
+    @Override
+    public void reset(){
+        super.reset();
+        opportunities = 0;
+    }
+
+    @Override
+    public int getOpportunities(){ return opportunities; }
+    @Override
+    void setOpportunities(int opportunities){ this.opportunities = opportunities; }
+
+    @Override
+    public String getPlaystyle(){
+        return playstyle;
+    }
+
+    /**
+     * Asks the strategy whether to buy, if the player can afford the price at all.
+     *
+     * @param price the price of the property or the house
+     * @param house whether the offer is a house
+     * @return whether the player buys
+     */
+    private boolean buys(int price, boolean house){
+        return canAfford(price) && strategy.buys(getMoney(), price, house, turn.getAsInt(), opportunities++);
+    }
+
+    /**
+     * Implements the player's actions when landing on a field. The strategy decides whether
+     * to buy properties or houses. If unable to pay property taxes or service fees, the player loses the game.
+     *
+     * @param field the field that the player has landed on, which can be of type property, service, or luck
+     */
+    @Override
+    public void playField(Field field){
+        switch (field.getType()){
+            case "property":
+                Property fieldP = (Property) field;
+                Player fieldOwner = fieldP.getOwner();
+                int fieldValue = fieldP.getValue();
+
+                // ---- If the property has no owner ----
+                if (fieldOwner == null){
+
+                    // If the strategy says so, they will buy it
+                    if(buys(fieldP.PROPERTY_PRICE, false)){
+                        fieldP.buyProperty(this);
+                        addProperty(fieldP);
+                        payMoney(fieldP.PROPERTY_PRICE);
+
+                        notifyEvent(GameEvent.PROPERTY_BOUGHT, fieldP, fieldP.PROPERTY_PRICE);
+                    }
+                    break;
+                }
+
+                // ---- If they are the owner and there is no house on it, the strategy decides ----
+                if (fieldOwner.equals(this)){
+                    if (!fieldP.getHasHouse() && buys(fieldP.HOUSE_PRICE, true)){
+                        fieldP.buyHouse(this);
+                        payMoney(fieldP.HOUSE_PRICE);
+
+                        notifyEvent(GameEvent.HOUSE_BOUGHT, fieldP, fieldP.HOUSE_PRICE);
+                    }
+                    break;
+                }
+
+                // ---- If they are not the owner ----
+                // If they can pay the owner of the field, they will pay
+                if(canAfford(fieldValue)){
+                    payMoney(fieldValue);
+                    fieldOwner.receivePayment(fieldValue);
+                    notifyEvent(GameEvent.TAX_PAID, fieldP, fieldValue);
+                    fieldOwner.notifyEvent(GameEvent.TAX_RECEIVED, fieldP, fieldValue);
+                }
+
+                // If they cannot pay, they lose the game
+                if(!canAfford(fieldValue)) lose(fieldP);
+                break;
+
+            case "service":
+                Service fieldS = (Service) field;
+
+                // If they can pay, they pay; if not, they lose the game
+                if (canAfford(fieldS.getValue())){
+                    payMoney(fieldS.getValue());
+                    notifyEvent(GameEvent.SERVICE_PAID, fieldS, fieldS.getValue());
+                }
+                else lose(fieldS);
+
+                break;
+
+            case "luck":
+                Luck fieldL = (Luck) field;
+                receivePayment(fieldL.getValue());
+
+                notifyEvent(GameEvent.LUCK_RECEIVED, fieldL, fieldL.getValue());
+                break;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package players;
 
+import events.GameEvent;
 import map.fields.Field;
 import map.fields.Luck;
 import map.fields.Property;
@@ -14,18 +15,49 @@ import java.util.ArrayList;
  */
 public class Tactician extends Player{
     private boolean willBuy;
+    /** The player buys at every this many opportunities: 2 is every other one. */
+    private final int period;
+    /** The number of opportunities the player had in this game. */
+    private int opportunities;
+
     public Tactician(String name) {
+        this(name, 2);
+    }
+
+    /**
+     * @param name the name of the player
+     * @param period the player uses every period-th opportunity to buy, starting with the first one
+     */
+    public Tactician(String name, int period) {
         this.setName(name);
-        this.setMoney(10000);
+        this.setMoney(STARTING_MONEY);
         this.setProperties(new ArrayList<Property>());
         this.setHasLost(false);
         willBuy = false;
+        this.period = period;
+    }
+
+    @Override
+    public void reset(){
+        super.reset();
+        willBuy = false;
+        opportunities = 0;
+    }
+
+    @Override
+    public int getOpportunities(){ return opportunities; }
+    @Override
+    void setOpportunities(int opportunities){ this.opportunities = opportunities; }
+
+    @Override
+    public String getPlaystyle(){
+        return "tactician";
     }
 
     /**
      * Implements the player's actions when landing on a field as a "Tactician" player.
      * The player uses a toggle mechanism to determine whether to buy properties or houses.
-     * The player will use every other opportunity to buy properties or houses.
+     * The player will use every other (or every configured period-th) opportunity to buy properties or houses.
      * If the player cannot afford to pay property taxes or service fees, they lose the game.
      *
      * @param field the field that the player has landed on, which can be of type property, service, or luck
@@ -43,9 +75,9 @@ public class Tactician extends Player{
 
                 // Lehetőség jelentheti azt, hogy:
                 //// a) nincs tulajdonosa, meg tudja venni az ingatlant
-                if(fieldOwner == null && canAfford(fieldP.PROPERTY_PRICE)) willBuy = !willBuy;
+                if(fieldOwner == null && canAfford(fieldP.PROPERTY_PRICE)) willBuy = opportunities++ % period == 0;
                 //// b) ő a tulajdonosa, nincs még rajta ház, meg tudja venni a házat
-                if(fieldOwner == this && !fieldP.getHasHouse() && canAfford(fieldP.HOUSE_PRICE)) willBuy = !willBuy;
+                if(fieldOwner == this && !fieldP.getHasHouse() && canAfford(fieldP.HOUSE_PRICE)) willBuy = opportunities++ % period == 0;
 
 
                 // ---- If the property has no owner ----
@@ -58,7 +90,7 @@ public class Tactician extends Player{
                         addProperty(fieldP);
                         payMoney(fieldP.PROPERTY_PRICE);
 
-                        writeActionToConsole(this, "property/buy");
+                        notifyEvent(GameEvent.PROPERTY_BOUGHT, fieldP, fieldP.PROPERTY_PRICE);
                         break;
                     }
                 }
@@ -75,7 +107,7 @@ public class Tactician extends Player{
                         fieldP.buyHouse(this);
                         payMoney(fieldP.HOUSE_PRICE);
 
-                        writeActionToConsole(this, "property/buyHouse");
+                        notifyEvent(GameEvent.HOUSE_BOUGHT, fieldP, fieldP.HOUSE_PRICE);
                         break;
                     }
 
@@ -86,11 +118,12 @@ public class Tactician extends Player{
                         if(canAfford(fieldValue)){
                             payMoney(fieldValue);
                             fieldOwner.receivePayment(fieldValue);
-                            writeActionToConsole(this, "property/payTax");
+                            notifyEvent(GameEvent.TAX_PAID, fieldP, fieldValue);
+                            fieldOwner.notifyEvent(GameEvent.TAX_RECEIVED, fieldP, fieldValue);
                         }
 
                         // If they cannot pay, they lose the game
-                        if(!canAfford(fieldValue)) lose();
+                        if(!canAfford(fieldValue)) lose(fieldP);
                     }
                 }
 
@@ -102,9 +135,9 @@ public class Tactician extends Player{
                 // If they can pay, they pay; if not, they lose the game
                 if (canAfford(fieldS.getValue())){
                     payMoney(fieldS.getValue());
-                    writeActionToConsole(this, "service/pay", fieldS.getValue());
+                    notifyEvent(GameEvent.SERVICE_PAID, fieldS, fieldS.getValue());
                 }
-                else lose();
+                else lose(fieldS);
 
                 break;
 
@@ -112,7 +145,7 @@ public class Tactician extends Player{
                 Luck fieldL = (Luck) field;
                 receivePayment(fieldL.getValue());
 
-                writeActionToConsole(this, "luck/receivePayment", fieldL.getValue());
+                notifyEvent(GameEvent.LUCK_RECEIVED, fieldL, fieldL.getValue());
                 break;
         }
     }
@@ -0,0 +1,77 @@
+package service;
+
+import engine.EndReason;
+import simulation.TournamentResult;
+
+/**
+ * Writes the responses of the {@link SimulationService} as JSON, without a library.
+ */
+final class Json {
+    private Json() {
+    }
+
+    /**
+     * Writes the counts of a result, for example
+     * {@code {"games":2,"done":true,"players":[{"name":"James","playstyle":"greedy","positions":[1,1]},...],
+     * "endings":{"last_player_standing":2}}}
+     *
+     * @param result the result so far
+     * @param done whether the run is over
+     * @return the result as one line of JSON
+     */
+    static String result(TournamentResult result, boolean done) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"games\":").append(result.getGames()).append(",\"done\":").append(done).append(",\"players\":[");
+        for (int player = 0; player < result.getPlayerCount(); player++) {
+            if (player > 0) json.append(',');
+            json.append("{\"name\":");
+            string(json, result.getPlayerName(player));
+            json.append(",\"playstyle\":");
+            string(json, result.getPlaystyle(player));
+            json.append(",\"positions\":[");
+            for (int position = 1; position <= result.getPlayerCount(); position++) {
+                if (position > 1) json.append(',');
+                json.append(result.getPositionCount(player, position));
+            }
+            json.append("]}");
+        }
+        json.append("],\"endings\":{");
+        boolean first = true;
+        for (EndReason reason : EndReason.values()) {
+            if (result.getEndReasonCount(reason) == 0) continue;
+            if (!first) json.append(',');
+            first = false;
+            string(json, reason.name().toLowerCase());
+            json.append(':').append(result.getEndReasonCount(reason));
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * @param message the message of the error
+     * @return {@code {"error":"..."}}
+     */
+    static String error(String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        string(json, message);
+        return json.append('}').toString();
+    }
+
+    static void string(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                    else json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,100 @@
+package service;
+
+import engine.EngineType;
+import game.GameConfig;
+import game.GameLimits;
+import map.Movement;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * What a request of the {@link SimulationService} asks to run, read from the query of its URL:
+ * {@code games} (required), {@code seed}, {@code parallelism}, {@code engine} ({@code object|array|lockstep}),
+ * {@code movement} ({@code shared|per-player}), {@code max-turns}, {@code max-laps}, {@code stalemate}
+ * and {@code format} ({@code ndjson|json}).
+ */
+final class RunSpec {
+    final long games;
+    final long seed;
+    final int parallelism;
+    final EngineType engine;
+    final Movement movement;
+    final GameLimits limits;
+    /** Whether the progress is streamed as NDJSON lines, or only the result is sent as JSON. */
+    final boolean stream;
+
+    private RunSpec(long games, long seed, int parallelism, EngineType engine, Movement movement, GameLimits limits, boolean stream) {
+        this.games = games;
+        this.seed = seed;
+        this.parallelism = parallelism;
+        this.engine = engine;
+        this.movement = movement;
+        this.limits = limits;
+        this.stream = stream;
+    }
+
+    /**
+     * Reads the parameters of a run from the query of a URL.
+     *
+     * @param query the raw query, null if there is none
+     * @param cores the number of threads of the service, the parallelism is at most this many
+     * @return the parameters of the run
+     * @throws IllegalArgumentException if a parameter is missing or not valid
+     */
+    static RunSpec parse(String query, int cores) {
+        Long games = null;
+        long seed = System.nanoTime();
+        int parallelism = cores;
+        EngineType engine = EngineType.ARRAY;
+        Movement movement = Movement.SHARED;
+        GameLimits limits = GameLimits.NONE;
+        boolean stream = true;
+
+        if (query != null && !query.isEmpty()) {
+            for (String parameter : query.split("&")) {
+                int separator = parameter.indexOf('=');
+                if (separator < 0) throw new IllegalArgumentException(parameter + " must have a value!");
+                String name = URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8);
+                String value = URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8);
+                switch (name) {
+                    case "games": games = Long.parseLong(value); break;
+                    case "seed": seed = Long.parseLong(value); break;
+                    case "parallelism": parallelism = Integer.parseInt(value); break;
+                    case "engine": engine = valueOf(EngineType.class, value, "object/array/lockstep"); break;
+                    case "movement": movement = valueOf(Movement.class, value, "shared/per-player"); break;
+                    case "max-turns": limits = limits.withMaxTurns(Long.parseLong(value)); break;
+                    case "max-laps": limits = limits.withMaxLaps(Long.parseLong(value)); break;
+                    case "stalemate": limits = limits.withStalemateWindow(Integer.parseInt(value)); break;
+                    case "format":
+                        if (!value.equals("ndjson") && !value.equals("json")) {
+                            throw new IllegalArgumentException(value + " is not a valid format! (ndjson/json)");
+                        }
+                        stream = value.equals("ndjson");
+                        break;
+                    default: throw new IllegalArgumentException(name + " is not a valid parameter!");
+                }
+            }
+        }
+        if (games == null) throw new IllegalArgumentException("The number of games must be given!");
+        if (games < 0) throw new IllegalArgumentException("The number of games must not be negative!");
+        if (parallelism < 1) throw new IllegalArgumentException("The parallelism must be at least 1!");
+        return new RunSpec(games, seed, Math.min(parallelism, cores), engine, movement, limits, stream);
+    }
+
+    private static <E extends Enum<E>> E valueOf(Class<E> type, String value, String valid) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(value + " is not valid! (" + valid + ")");
+        }
+    }
+
+    /**
+     * @param config the configuration sent with the request
+     * @return the configuration playing with the movement and limits of the run
+     */
+    GameConfig apply(GameConfig config) {
+        return config.withMovement(movement).withLimits(limits);
+    }
+}
@@ -0,0 +1,296 @@
+package service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import exceptions.InvalidDataException;
+import game.GameConfig;
+import simulation.ResultCache;
+import simulation.Tournament;
+import simulation.TournamentResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An embedded HTTP service running batch simulations for many clients on one host, with the JDK's {@link HttpServer}.
+ * <p>
+ * {@code POST /simulate?games=N[&seed=S][&parallelism=P]...} with a configuration (in the format of the configuration
+ * files) as its body runs a {@link Tournament} of it, see {@link RunSpec} for every parameter. With the default
+ * {@code format=ndjson} the response streams one line of JSON with the result so far after every
+ * {@link #PROGRESS_STEPS}-th of the games, the last one with {@code "done":true}; with {@code format=json} only the
+ * result is sent. A seed always gives the same result as {@code Main <file> <games> <seed>}.
+ * With a {@link #setCache(ResultCache) cache}, a run that was done before is answered from it at once.
+ * {@code GET /status} tells how busy the service is.
+ * </p>
+ * <p>
+ * Every request is handled on its own thread, a virtual thread when the runtime has them (Java 21 and later),
+ * which only waits for the games. The games of every request are played on one shared pool with a thread per core,
+ * so requests running at the same time share the cores instead of overloading them. At most {@code maxRequests}
+ * requests run at a time. Up to {@code maxQueued} more wait for one of them to finish, in the order they came, for
+ * at most {@link #QUEUE_TIMEOUT_MILLIS}; a request finding the queue full, or waiting longer, is refused with
+ * 429 (Too Many Requests) and a {@code Retry-After} header, so a busy service pushes back instead of queueing
+ * without bound. The queue of the shared pool is bounded too: every request running submits at most a worker
+ * per thread to it.
+ * </p>
+ */
+public final class SimulationService implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_MAX_REQUESTS = 16;
+    public static final int DEFAULT_MAX_QUEUED = 64;
+    /** How long a queued request waits to be run before it is refused. */
+    public static final long QUEUE_TIMEOUT_MILLIS = 30_000;
+    /** The number of lines of progress a streamed run reports. */
+    public static final int PROGRESS_STEPS = 20;
+    /** The largest configuration a request may send. */
+    public static final int MAX_BODY_SIZE = 64 * 1024 * 1024;
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor cores;
+    private final ExecutorService requestThreads;
+    private final int maxRequests;
+    private final int maxQueued;
+    /** A permit for every request that may run, handed out in the order the requests wait. */
+    private final Semaphore running;
+    private final AtomicInteger queued = new AtomicInteger();
+    private ResultCache cache;
+
+    /**
+     * Creates the service, {@link #start()} starts accepting requests.
+     *
+     * @param address the address to listen on
+     * @param threads the number of threads playing the games, usually the number of cores
+     * @param maxRequests the number of requests run at the same time
+     * @throws IOException if the address cannot be bound
+     */
+    public SimulationService(InetSocketAddress address, int threads, int maxRequests) throws IOException {
+        this(address, threads, maxRequests, DEFAULT_MAX_QUEUED);
+    }
+
+    /**
+     * Creates the service, {@link #start()} starts accepting requests.
+     *
+     * @param address the address to listen on
+     * @param threads the number of threads playing the games, usually the number of cores
+     * @param maxRequests the number of requests run at the same time
+     * @param maxQueued the number of requests waiting to be run at the same time, 0 to refuse every request over
+     *                  {@code maxRequests} at once
+     * @throws IOException if the address cannot be bound
+     */
+    public SimulationService(InetSocketAddress address, int threads, int maxRequests, int maxQueued) throws IOException {
+        if (threads < 1) throw new IllegalArgumentException("The number of threads must be at least 1!");
+        if (maxRequests < 1) throw new IllegalArgumentException("The number of requests must be at least 1!");
+        if (maxQueued < 0) throw new IllegalArgumentException("The number of queued requests must not be negative!");
+        this.maxRequests = maxRequests;
+        this.maxQueued = maxQueued;
+        this.running = new Semaphore(maxRequests, true);
+        // A request runs on at most one worker per thread, so the queue never holds more than this
+        this.cores = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.multiplyExact(maxRequests, threads)), daemonThreads("simulation"));
+        this.requestThreads = newRequestExecutor();
+
+        server = HttpServer.create(address, maxRequests + maxQueued);
+        server.createContext("/simulate", this::simulate);
+        server.createContext("/status", this::status);
+        server.setExecutor(requestThreads);
+    }
+
+    /**
+     * Sets the cache the results are looked up in before they are played, and stored in after.
+     * Call it before {@link #start()}.
+     *
+     * @param cache the cache, null to play every request
+     */
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public InetSocketAddress getAddress(){ return server.getAddress(); }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        requestThreads.shutdownNow();
+        cores.shutdownNow();
+    }
+
+    /**
+     * Gives an executor starting a virtual thread for every request if the runtime supports them,
+     * a cached pool of platform threads otherwise. Looked up reflectively, so the service runs on Java 17.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(daemonThreads("request"));
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // ---- Handlers ----
+
+    private void simulate(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                send(exchange, 405, Json.error("Send the configuration with POST!"));
+                return;
+            }
+            if (!admit()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 429, Json.error("The service is busy, try again later!"));
+                return;
+            }
+            try {
+                run(exchange);
+            } finally {
+                running.release();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Waits for the request to be allowed to run, if there is room in the queue.
+     *
+     * @return whether the request got a permit to run, which has to be released after
+     */
+    private boolean admit() {
+        try {
+            // Without a timeout, tryAcquire would get ahead of the requests already waiting
+            if (running.tryAcquire(0, TimeUnit.MILLISECONDS)) return true;
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                return false;
+            }
+            try {
+                return running.tryAcquire(QUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } finally {
+                queued.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void run(HttpExchange exchange) throws IOException {
+        RunSpec spec;
+        GameConfig config;
+        try {
+            spec = RunSpec.parse(exchange.getRequestURI().getRawQuery(), cores.getMaximumPoolSize());
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                send(exchange, 413, Json.error("The configuration must be smaller than " + MAX_BODY_SIZE + " bytes!"));
+                return;
+            }
+            config = spec.apply(GameConfig.parse(ByteBuffer.wrap(body)));
+        } catch (NumberFormatException e) {
+            send(exchange, 400, Json.error(e.getMessage() + " is not a valid number!"));
+            return;
+        } catch (InputMismatchException e) {
+            send(exchange, 400, Json.error("The first line must be the number of fields in the map!"));
+            return;
+        } catch (InvalidDataException | IllegalArgumentException e) {
+            send(exchange, 400, Json.error(e.getMessage()));
+            return;
+        }
+
+        String key = cache == null ? null : ResultCache.key(config, spec.games, spec.seed);
+        TournamentResult cached = key == null ? null : cache.get(key);
+        if (cached != null) {
+            if (spec.stream) exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+            send(exchange, 200, Json.result(cached, true));
+            return;
+        }
+
+        Tournament tournament = new Tournament(config, spec.parallelism, spec.engine);
+        tournament.setExecutor(cores);
+        if (!spec.stream) {
+            TournamentResult result = tournament.run(spec.games, spec.seed);
+            if (key != null) cache.put(key, result);
+            send(exchange, 200, Json.result(result, true));
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        long chunks = Tournament.getChunkCount(spec.games);
+        long step = Math.max(1, (chunks + PROGRESS_STEPS - 1) / PROGRESS_STEPS);
+        TournamentResult total = null;
+        long first = 0;
+        try {
+            // The ranges of chunks add up to the same result as one run; a client that goes away stops the run
+            do {
+                long end = Math.min(chunks, first + step);
+                TournamentResult part = tournament.run(spec.games, spec.seed, first, end);
+                if (total == null) total = part;
+                else total.merge(part);
+                first = end;
+                writeLine(out, Json.result(total, first == chunks));
+            } while (first < chunks);
+            if (key != null) cache.put(key, total);
+        } catch (IllegalStateException e) {
+            writeLine(out, Json.error(e.getMessage()));
+        }
+    }
+
+    private void status(HttpExchange exchange) throws IOException {
+        try {
+            send(exchange, 200, "{\"requests\":" + (maxRequests - running.availablePermits()) + ",\"maxRequests\":" + maxRequests
+                    + ",\"queuedRequests\":" + queued.get() + ",\"maxQueued\":" + maxQueued
+                    + ",\"threads\":" + cores.getMaximumPoolSize() + ",\"activeThreads\":" + cores.getActiveCount()
+                    + ",\"queuedWorkers\":" + cores.getQueue().size() + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // ---- Input and output ----
+
+    /**
+     * @return the body, null if it is larger than {@link #MAX_BODY_SIZE}
+     */
+    private static byte[] readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_BODY_SIZE + 1);
+        return body.length > MAX_BODY_SIZE ? null : body;
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().putIfAbsent("Content-Type", List.of("application/json"));
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void writeLine(OutputStream out, String json) throws IOException {
+        out.write((json + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
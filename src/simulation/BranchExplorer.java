@@ -0,0 +1,228 @@
+package simulation;
+
+import dice.DiceSource;
+import dice.ExhaustionPolicy;
+import dice.PredefinedDice;
+import dice.RandomDice;
+import engine.EngineType;
+import engine.GameEngine;
+import engine.GameSnapshot;
+import events.GameEventListener;
+import game.GameConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+/**
+ * Answers "what happens from here": plays many continuations of one position of a game and tells
+ * how likely every player is to finish in every position.
+ * <p>
+ * The position is a {@link GameSnapshot}, shared by every worker and never changed. A worker builds one engine
+ * and {@link GameEngine#restore(GameSnapshot) restores} the snapshot before every continuation, which only copies
+ * a few arrays, so forking a continuation costs about as much as resetting a game. The continuations roll random dice,
+ * seeded chunk by chunk like the games of a {@link Tournament}, so a seed always gives the same result regardless
+ * of the thread count; the predefined rolls of the configuration are not used after the position.
+ * </p>
+ * <p>
+ * {@link #exact(int)} instead goes through every combination of the next few rolls, each with its probability,
+ * and ranks the players of the games that didn't end by then by their score, as if the game had ended there.
+ * It has no sampling error, but it only looks that many rolls ahead.
+ * </p>
+ */
+public class BranchExplorer {
+    /** The most rolls {@link #exact(int)} looks ahead: 6^10 is about 60 million positions. */
+    public static final int MAX_EXACT_ROLLS = 10;
+
+    private final GameConfig config;
+    private final GameSnapshot start;
+    private final int threads;
+    private final EngineType engineType;
+
+    /**
+     * @param config the configuration the game is played with
+     * @param start the position the continuations start from
+     * @param threads the number of worker threads, at least 1
+     * @param engineType the engine the continuations are played with
+     */
+    public BranchExplorer(GameConfig config, GameSnapshot start, int threads, EngineType engineType) {
+        if (threads < 1) throw new IllegalArgumentException("The number of threads must be at least 1!");
+        if (start.getFieldCount() != config.getFieldCount() || start.getPlayerCount() != config.getPlayerCount()) {
+            throw new IllegalArgumentException("The snapshot is of a game of another size!");
+        }
+        this.config = config;
+        this.start = start;
+        this.threads = threads;
+        this.engineType = engineType;
+    }
+
+    /**
+     * Plays the given number of turns of the configuration, with its predefined rolls while there are any
+     * and with the given generator after them, and takes a snapshot of the game.
+     *
+     * @param config the configuration of the game
+     * @param turns the number of turns to play, fewer if the game ends before
+     * @param random the generator of the rolls after the predefined ones
+     * @return the snapshot of the game after the turns
+     */
+    public static GameSnapshot playTo(GameConfig config, int turns, RandomGenerator random) {
+        GameEngine game = EngineType.ARRAY.create(config);
+        DiceSource dice = new RandomDice(random);
+        PredefinedDice preDefinedDice = null;
+        if (config.hasPreDefinedDiceRolls()) {
+            preDefinedDice = new PredefinedDice(config.getPreDefinedDiceRolls(), ExhaustionPolicy.RANDOM, dice);
+            dice = preDefinedDice;
+        }
+        for (int turn = 0; turn < turns && !game.isOver(); turn++) {
+            game.playTurn(dice.nextRoll());
+        }
+
+        GameSnapshot snapshot = new GameSnapshot(config.getFieldCount(), config.getPlayerCount());
+        game.writeSnapshot(snapshot);
+        if (preDefinedDice != null) snapshot.setRollPosition(preDefinedDice.getPosition());
+        return snapshot;
+    }
+
+    /**
+     * Plays the given number of random continuations of the position.
+     *
+     * @param continuations the number of continuations
+     * @param masterSeed the seed every continuation's dice rolls are derived from
+     * @return the finishing positions of the continuations
+     */
+    public BranchResult run(long continuations, long masterSeed) {
+        AtomicLong nextChunk = new AtomicLong();
+        long chunks = Tournament.getChunkCount(continuations);
+        List<Callable<TournamentResult>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(() -> {
+                GameEngine game = newEngine();
+                RandomDice dice = new RandomDice(null);
+                int[] positions = new int[config.getPlayerCount()];
+                TournamentResult partial = Tournament.emptyResult(config);
+                long chunk;
+                while ((chunk = nextChunk.getAndIncrement()) < chunks && !Thread.currentThread().isInterrupted()) {
+                    SplittableRandom chunkRandom = new SplittableRandom(Tournament.chunkSeed(masterSeed, chunk));
+                    long games = Math.min(Tournament.GAMES_PER_CHUNK, continuations - chunk * Tournament.GAMES_PER_CHUNK);
+                    for (long j = 0; j < games; j++) {
+                        game.restore(start);
+                        dice.setGenerator(chunkRandom.split());
+                        game.simulatePlay(dice);
+                        game.writeFinishingPositions(positions);
+                        partial.addGame(positions, game.getEndReason());
+                    }
+                }
+                return partial;
+            });
+        }
+
+        TournamentResult result = Tournament.emptyResult(config);
+        for (TournamentResult partial : invokeAll(workers)) {
+            result.merge(partial);
+        }
+        return new BranchResult(start.getTurn(), result);
+    }
+
+    /**
+     * Goes through every combination of the next rolls. A game that ends within them counts with its
+     * finishing positions, the players of a game that doesn't are ranked by their score after the last roll.
+     *
+     * @param rolls the number of rolls to look ahead, from 1 to {@link #MAX_EXACT_ROLLS}
+     * @return the probability of every finishing position, {@code [player][position - 1]}
+     */
+    public double[][] exact(int rolls) {
+        if (rolls < 1 || rolls > MAX_EXACT_ROLLS) {
+            throw new IllegalArgumentException("The number of rolls must be from 1 to " + MAX_EXACT_ROLLS + "!");
+        }
+
+        // Every first roll is a task of its own, their sums are added in the order of the rolls
+        List<Callable<double[][]>> tasks = new ArrayList<>();
+        for (int roll = 1; roll <= 6; roll++) {
+            int firstRoll = roll;
+            tasks.add(() -> {
+                GameEngine game = newEngine();
+                GameSnapshot[] stack = new GameSnapshot[rolls + 1];
+                for (int depth = 0; depth < stack.length; depth++) {
+                    stack[depth] = new GameSnapshot(config.getFieldCount(), config.getPlayerCount());
+                }
+                double[][] probabilities = new double[config.getPlayerCount()][config.getPlayerCount()];
+                int[] positions = new int[config.getPlayerCount()];
+
+                game.restore(start);
+                if (game.isOver()) {
+                    addLeaf(game, positions, probabilities, 1.0 / 6);
+                    return probabilities;
+                }
+                game.playTurn(firstRoll);
+                expand(game, stack, 1, rolls, 1.0 / 6, positions, probabilities);
+                return probabilities;
+            });
+        }
+
+        double[][] probabilities = new double[config.getPlayerCount()][config.getPlayerCount()];
+        for (double[][] part : invokeAll(tasks)) {
+            for (int player = 0; player < probabilities.length; player++) {
+                for (int position = 0; position < probabilities.length; position++) {
+                    probabilities[player][position] += part[player][position];
+                }
+            }
+        }
+        return probabilities;
+    }
+
+    /**
+     * Adds every continuation of the game's current position, rolled to the given depth, with its probability.
+     */
+    private static void expand(GameEngine game, GameSnapshot[] stack, int depth, int rolls, double probability,
+                               int[] positions, double[][] probabilities) {
+        if (depth == rolls || game.isOver()) {
+            addLeaf(game, positions, probabilities, probability);
+            return;
+        }
+
+        game.writeSnapshot(stack[depth]);
+        for (int roll = 1; roll <= 6; roll++) {
+            if (roll > 1) game.restore(stack[depth]);
+            game.playTurn(roll);
+            expand(game, stack, depth + 1, rolls, probability / 6, positions, probabilities);
+        }
+    }
+
+    private static void addLeaf(GameEngine game, int[] positions, double[][] probabilities, double probability) {
+        game.writeFinishingPositions(positions);
+        for (int player = 0; player < positions.length; player++) {
+            probabilities[player][positions[player] - 1] += probability;
+        }
+    }
+
+    private GameEngine newEngine() {
+        GameEngine game = engineType.create(config);
+        game.setEventListener(GameEventListener.SILENT);
+        return game;
+    }
+
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, tasks.size()));
+        try {
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The exploration was interrupted!", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game failed during the exploration!", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
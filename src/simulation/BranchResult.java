@@ -0,0 +1,107 @@
+package simulation;
+
+import ConsoleColors.ConsoleColors;
+
+/**
+ * The finishing positions of the continuations of one position of a game, see {@link BranchExplorer}.
+ * <p>
+ * Every probability comes with its 95% Wilson score interval, which stays within 0 and 1
+ * and is accurate even for probabilities near 0 or 1 and few continuations.
+ * </p>
+ */
+public class BranchResult {
+    /** The standard normal quantile of the 95% intervals. */
+    public static final double Z = 1.96;
+
+    private final int turn;
+    private final TournamentResult continuations;
+    private int exactRolls;
+    private double[][] exact;
+
+    /**
+     * @param turn the turn of the position the continuations start from
+     * @param continuations the finishing positions of the continuations
+     */
+    public BranchResult(int turn, TournamentResult continuations) {
+        this.turn = turn;
+        this.continuations = continuations;
+    }
+
+    /**
+     * Adds the probabilities of {@link BranchExplorer#exact(int)}, written next to the sampled ones.
+     *
+     * @param rolls the number of rolls looked ahead
+     * @param probabilities the probability of every finishing position, {@code [player][position - 1]}
+     */
+    public void setExact(int rolls, double[][] probabilities) {
+        this.exactRolls = rolls;
+        this.exact = probabilities;
+    }
+
+    public int getTurn(){ return turn; }
+    public TournamentResult getContinuations(){ return continuations; }
+
+    /**
+     * @param player the index of the player
+     * @param position the finishing position, 1 being the winner
+     * @return the share of the continuations the player finished in the position
+     */
+    public double getProbability(int player, int position) {
+        long games = continuations.getGames();
+        return games == 0 ? 0 : (double) continuations.getPositionCount(player, position) / games;
+    }
+
+    /**
+     * @param player the index of the player
+     * @param position the finishing position, 1 being the winner
+     * @return the lower and upper bound of the 95% interval of the probability
+     */
+    public double[] getInterval(int player, int position) {
+        return wilson(continuations.getPositionCount(player, position), continuations.getGames(), Z);
+    }
+
+    /**
+     * The Wilson score interval of a probability estimated from independent trials.
+     *
+     * @param successes the number of trials with the outcome
+     * @param trials the number of trials
+     * @param z the standard normal quantile of the confidence level
+     * @return the lower and upper bound, 0 and 1 without any trials
+     */
+    public static double[] wilson(long successes, long trials, double z) {
+        if (trials == 0) return new double[]{0, 1};
+        double p = (double) successes / trials;
+        double z2 = z * z;
+        double center = (p + z2 / (2 * trials)) / (1 + z2 / trials);
+        double halfWidth = z / (1 + z2 / trials) * Math.sqrt(p * (1 - p) / trials + z2 / (4.0 * trials * trials));
+        return new double[]{Math.max(0, center - halfWidth), Math.min(1, center + halfWidth)};
+    }
+
+    /**
+     * Writes the win and second to last probabilities of every player to the console.
+     */
+    public void writeToConsole() {
+        int players = continuations.getPlayerCount();
+        int secondToLast = Math.max(1, players - 1);
+
+        System.out.println();
+        System.out.println(ConsoleColors.YELLOW + continuations.getGames() + " continuations from turn " + turn + ConsoleColors.RESET);
+        System.out.println(ConsoleColors.CYAN + "Players" + ConsoleColors.RESET);
+        for (int player = 0; player < players; player++) {
+            double[] win = getInterval(player, 1);
+            double[] second = getInterval(player, secondToLast);
+            System.out.printf("%s (%s): win: %.4f [%.4f, %.4f] second to last: %.4f [%.4f, %.4f]%n",
+                    continuations.getPlayerName(player), continuations.getPlaystyle(player),
+                    getProbability(player, 1), win[0], win[1],
+                    getProbability(player, secondToLast), second[0], second[1]);
+        }
+
+        if (exact == null) return;
+        System.out.println(ConsoleColors.CYAN + "Exact, ranked by score after " + exactRolls + " rolls" + ConsoleColors.RESET);
+        for (int player = 0; player < players; player++) {
+            System.out.printf("%s (%s): win: %.4f second to last: %.4f%n",
+                    continuations.getPlayerName(player), continuations.getPlaystyle(player),
+                    exact[player][0], exact[player][secondToLast - 1]);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package simulation;
+
+import engine.GameEngine;
+import exceptions.InvalidDataException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Runs a long {@link Tournament} so that it can be stopped at any time and resumed later with the same result.
+ * <p>
+ * Every game's dice rolls only depend on the master seed and the index of its chunk, so the state of a run is just
+ * the number of chunks completed and the result aggregated from them: the games of the remaining chunks play exactly
+ * as they would have. The chunks are played in steps of {@link #CHUNKS_PER_THREAD} chunks per thread, and after a step,
+ * if the interval has passed since the last one, the state is written to the checkpoint file. The file is written to
+ * a temporary file, synced to the disk and renamed over the previous checkpoint, so a crash at any moment leaves either
+ * the previous or the new checkpoint, never a broken one.
+ * </p>
+ * <p>
+ * If the checkpoint file exists when the run starts, the run continues from it. A checkpoint of another configuration,
+ * seed or number of games, or of another version of the engines, is refused. The last checkpoint, written when every
+ * chunk is done, holds the final result, so running again only reads it.
+ * </p>
+ */
+public final class CheckpointedRun {
+    public static final int MAGIC = 0x4341504B; // "CAPK"
+    public static final int VERSION = 1;
+    /** The number of chunks per worker thread between two possible checkpoints. */
+    public static final int CHUNKS_PER_THREAD = 64;
+
+    private final Tournament tournament;
+    private final Path file;
+    private final long intervalMillis;
+
+    /**
+     * @param tournament the tournament to run
+     * @param file the checkpoint file, read if it exists and replaced by every new checkpoint
+     * @param intervalMillis the least time between two checkpoints
+     */
+    public CheckpointedRun(Tournament tournament, Path file, long intervalMillis) {
+        this.tournament = tournament;
+        this.file = file;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Simulates the given number of games, continuing from the checkpoint file if there is one.
+     *
+     * @param games the number of games to simulate
+     * @param masterSeed the seed every game's dice rolls are derived from
+     * @return the aggregated finishing positions, the same as those of {@link Tournament#run(long, long)}
+     * @throws IOException if the checkpoint cannot be read or written
+     * @throws InvalidDataException if the checkpoint file belongs to another run
+     */
+    public TournamentResult run(long games, long masterSeed) throws IOException, InvalidDataException {
+        String key = runKey(games, masterSeed);
+        long chunks = Tournament.getChunkCount(games);
+        long completed = 0;
+        TournamentResult result = null;
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (in.readInt() != MAGIC) throw new InvalidDataException(file + " is not a checkpoint!");
+                if (in.readInt() != VERSION || in.readInt() != GameEngine.VERSION) {
+                    throw new InvalidDataException(file + " was written by another version of the game!");
+                }
+                if (!in.readUTF().equals(key)) {
+                    throw new InvalidDataException(file + " is the checkpoint of another configuration, seed or number of games!");
+                }
+                completed = in.readLong();
+                if (completed < 0 || completed > chunks) throw new InvalidDataException(completed + " is not a valid number of chunks!");
+                result = TournamentResult.read(in);
+            }
+        }
+
+        long step = (long) tournament.getThreads() * CHUNKS_PER_THREAD;
+        long lastCheckpoint = System.nanoTime();
+        while (completed < chunks) {
+            long end = Math.min(chunks, completed + step);
+            TournamentResult part = tournament.run(games, masterSeed, completed, end);
+            if (result == null) result = part;
+            else result.merge(part);
+            completed = end;
+
+            if (completed < chunks && System.nanoTime() - lastCheckpoint >= intervalMillis * 1_000_000) {
+                write(key, completed, result);
+                lastCheckpoint = System.nanoTime();
+            }
+        }
+        if (result == null) result = tournament.run(games, masterSeed, 0, 0);
+        write(key, completed, result);
+        return result;
+    }
+
+    /**
+     * Identifies the run, so a checkpoint is only continued by the same run.
+     */
+    private String runKey(long games, long masterSeed) {
+        String key = ResultCache.key(tournament.getConfig(), games, masterSeed);
+        // A strategy that can't be hashed: at least the seed and the number of games have to match
+        return key != null ? key : "games " + games + " seed " + masterSeed;
+    }
+
+    private void write(String key, long completed, TournamentResult result) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(GameEngine.VERSION);
+            out.writeUTF(key);
+            out.writeLong(completed);
+            result.write(out);
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
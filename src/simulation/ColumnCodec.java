@@ -0,0 +1,196 @@
+package simulation;
+
+import exceptions.InvalidDataException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes a chunk of one column of {@link GameResultsWriter} into bytes, and decodes it.
+ * <p>
+ * A chunk is bit-packed: every value is stored in as many bits as the range of the chunk needs. It is either the
+ * values minus the smallest one ({@link #PLAIN}), or the differences of the neighbouring values minus the smallest
+ * difference after the first value ({@link #DELTA}), whichever takes fewer bits. The numbers of the games only grow
+ * by one, so they take no bits at all, and the turns, money and properties of a chunk take a few bits each.
+ * The first value, the smallest value or difference are zigzag varints.
+ * </p>
+ */
+final class ColumnCodec {
+    static final byte PLAIN = 0;
+    static final byte DELTA = 1;
+    /** The largest number of bytes a header of a chunk takes. */
+    static final int MAX_HEADER_SIZE = 1 + 10 + 10 + 1;
+
+    private ColumnCodec() {
+    }
+
+    /**
+     * @param count the number of values of a chunk
+     * @return the largest number of bytes the chunk takes
+     */
+    static int maxSize(int count) {
+        return MAX_HEADER_SIZE + count * Long.BYTES + Long.BYTES;
+    }
+
+    /**
+     * Encodes the values at the position of the buffer.
+     *
+     * @param values the values, the first {@code count} of them are encoded
+     * @param count the number of values
+     * @param out the buffer, with at least {@link #maxSize(int)} bytes remaining
+     */
+    static void encode(long[] values, int count, ByteBuffer out) {
+        if (count == 0) {
+            out.put(PLAIN);
+            putVarLong(out, 0);
+            out.put((byte) 0);
+            return;
+        }
+        long min = values[0];
+        long max = values[0];
+        long minDelta = Long.MAX_VALUE;
+        long maxDelta = Long.MIN_VALUE;
+        for (int i = 1; i < count; i++) {
+            long value = values[i];
+            if (value < min) min = value;
+            if (value > max) max = value;
+            long delta = value - values[i - 1];
+            if (delta < minDelta) minDelta = delta;
+            if (delta > maxDelta) maxDelta = delta;
+        }
+        int plainWidth = width(max - min);
+        int deltaWidth = count > 1 ? width(maxDelta - minDelta) : 64;
+
+        BitPacker packer = new BitPacker(out);
+        if (deltaWidth < plainWidth) {
+            out.put(DELTA);
+            putVarLong(out, values[0]);
+            putVarLong(out, minDelta);
+            out.put((byte) deltaWidth);
+            for (int i = 1; i < count; i++) packer.pack(values[i] - values[i - 1] - minDelta, deltaWidth);
+        } else {
+            out.put(PLAIN);
+            putVarLong(out, min);
+            out.put((byte) plainWidth);
+            for (int i = 0; i < count; i++) packer.pack(values[i] - min, plainWidth);
+        }
+        packer.flush();
+    }
+
+    /**
+     * Decodes a chunk encoded by {@link #encode(long[], int, ByteBuffer)}.
+     *
+     * @param in the buffer, from the start of the chunk
+     * @param values the array to fill, with room for {@code count} values
+     * @param count the number of values of the chunk
+     * @throws InvalidDataException if the chunk is not valid
+     */
+    static void decode(ByteBuffer in, long[] values, int count) throws InvalidDataException {
+        byte encoding = in.get();
+        if (encoding == DELTA) {
+            long value = getVarLong(in);
+            long minDelta = getVarLong(in);
+            int width = width(in.get());
+            BitUnpacker unpacker = new BitUnpacker(in);
+            if (count > 0) values[0] = value;
+            for (int i = 1; i < count; i++) {
+                value += unpacker.unpack(width) + minDelta;
+                values[i] = value;
+            }
+        } else if (encoding == PLAIN) {
+            long min = getVarLong(in);
+            int width = width(in.get());
+            BitUnpacker unpacker = new BitUnpacker(in);
+            for (int i = 0; i < count; i++) values[i] = unpacker.unpack(width) + min;
+        } else {
+            throw new InvalidDataException(encoding + " is not a valid encoding of a column!");
+        }
+    }
+
+    private static int width(long range) {
+        return 64 - Long.numberOfLeadingZeros(range);
+    }
+
+    private static int width(byte width) throws InvalidDataException {
+        if (width < 0 || width > 64) throw new InvalidDataException(width + " is not a valid number of bits!");
+        return width;
+    }
+
+    private static void putVarLong(ByteBuffer out, long value) {
+        long zigzag = value << 1 ^ value >> 63;
+        while ((zigzag & ~0x7FL) != 0) {
+            out.put((byte) (zigzag & 0x7F | 0x80));
+            zigzag >>>= 7;
+        }
+        out.put((byte) zigzag);
+    }
+
+    private static long getVarLong(ByteBuffer in) throws InvalidDataException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return zigzag >>> 1 ^ -(zigzag & 1);
+        }
+        throw new InvalidDataException("A number of a column is too long!");
+    }
+
+    /**
+     * Writes values of up to 64 bits, lowest bits first, as whole bytes.
+     */
+    private static final class BitPacker {
+        private final ByteBuffer out;
+        private long bits;
+        private int count;
+
+        BitPacker(ByteBuffer out) {
+            this.out = out;
+        }
+
+        void pack(long value, int width) {
+            // At most 32 bits at a time, so the 7 bits left over always fit beside them
+            if (width > 32) {
+                pack(value & 0xFFFFFFFFL, 32);
+                pack(value >>> 32, width - 32);
+                return;
+            }
+            bits |= (value & (1L << width) - 1) << count;
+            count += width;
+            while (count >= 8) {
+                out.put((byte) bits);
+                bits >>>= 8;
+                count -= 8;
+            }
+        }
+
+        void flush() {
+            if (count > 0) out.put((byte) bits);
+            bits = 0;
+            count = 0;
+        }
+    }
+
+    private static final class BitUnpacker {
+        private final ByteBuffer in;
+        private long bits;
+        private int count;
+
+        BitUnpacker(ByteBuffer in) {
+            this.in = in;
+        }
+
+        long unpack(int width) {
+            if (width > 32) {
+                long low = unpack(32);
+                return low | unpack(width - 32) << 32;
+            }
+            while (count < width) {
+                bits |= (in.get() & 0xFFL) << count;
+                count += 8;
+            }
+            long value = bits & (1L << width) - 1;
+            bits >>>= width;
+            count -= width;
+            return value;
+        }
+    }
+}
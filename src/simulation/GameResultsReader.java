@@ -0,0 +1,163 @@
+package simulation;
+
+import engine.GameEngine;
+import exceptions.InvalidDataException;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Reads a file written by {@link GameResultsWriter} column by column.
+ * <p>
+ * Scanning a column reads the small header of every group and then only the chunk of that column, at its position in
+ * the file, so the other columns are neither read nor decoded.
+ * </p>
+ */
+public final class GameResultsReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final long masterSeed;
+    private final String[] playerNames;
+    private final String[] playstyles;
+    private final List<String> columnNames = new ArrayList<>();
+    private final long dataStart;
+    private final ByteBuffer groupHeader;
+    private ByteBuffer chunk = ByteBuffer.allocateDirect(0);
+    private long[] values = new long[0];
+
+    /**
+     * Opens the file and reads its header.
+     *
+     * @param file the file to read
+     * @throws IOException if the file cannot be read
+     * @throws InvalidDataException if the file is not a results file of this version of the game
+     */
+    public GameResultsReader(Path file) throws IOException, InvalidDataException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer start = read(0, 4 * Integer.BYTES);
+            if (start.getInt() != GameResultsWriter.MAGIC) throw new InvalidDataException(file + " is not a results file!");
+            if (start.getInt() != GameResultsWriter.VERSION || start.getInt() != GameEngine.VERSION) {
+                throw new InvalidDataException(file + " was written by another version of the game!");
+            }
+            int headerSize = start.getInt();
+            if (headerSize < 0 || headerSize > channel.size()) throw new InvalidDataException(headerSize + " is not a valid header size!");
+            byte[] bytes = new byte[headerSize];
+            read(start.capacity(), headerSize).get(bytes);
+
+            DataInputStream header = new DataInputStream(new ByteArrayInputStream(bytes));
+            masterSeed = header.readLong();
+            int players = header.readInt();
+            if (players < 1 || players > 1 << 16) throw new InvalidDataException(players + " is not a valid number of players!");
+            playerNames = new String[players];
+            playstyles = new String[players];
+            for (int player = 0; player < players; player++) {
+                playerNames[player] = header.readUTF();
+                playstyles[player] = header.readUTF();
+            }
+            dataStart = start.capacity() + (long) headerSize;
+        } catch (IOException | InvalidDataException e) {
+            channel.close();
+            throw e;
+        }
+
+        columnNames.add("game");
+        columnNames.add("turns");
+        columnNames.add("end_reason");
+        for (int i = 1; i <= playerNames.length; i++) columnNames.add("lost_" + i);
+        for (int player = 0; player < playerNames.length; player++) columnNames.add("money_" + player);
+        for (int player = 0; player < playerNames.length; player++) columnNames.add("properties_" + player);
+        groupHeader = ByteBuffer.allocateDirect(GameResultsWriter.groupHeaderSize(columnNames.size()));
+    }
+
+    public long getMasterSeed(){ return masterSeed; }
+    public int getPlayerCount(){ return playerNames.length; }
+    public String getPlayerName(int player){ return playerNames[player]; }
+    public String getPlaystyle(int player){ return playstyles[player]; }
+    public List<String> getColumnNames(){ return List.copyOf(columnNames); }
+
+    /**
+     * @param name the name of a column
+     * @return the index of the column
+     * @throws IllegalArgumentException if there is no such column
+     */
+    public int getColumn(String name) {
+        int column = columnNames.indexOf(name);
+        if (column < 0) throw new IllegalArgumentException(name + " is not a column! " + columnNames);
+        return column;
+    }
+
+    /**
+     * Gives every value of a column to the consumer, in the order of the rows.
+     *
+     * @param column the index of the column
+     * @param consumer receives the values
+     * @return the number of rows
+     * @throws IOException if the file cannot be read
+     * @throws InvalidDataException if the file is broken
+     */
+    public long scan(int column, LongConsumer consumer) throws IOException, InvalidDataException {
+        if (column < 0 || column >= columnNames.size()) throw new IllegalArgumentException(column + " is not a column!");
+        long rowCount = 0;
+        long position = dataStart;
+        long size = channel.size();
+        while (position < size) {
+            groupHeader.clear();
+            readFully(groupHeader, position);
+            groupHeader.flip();
+            int rows = groupHeader.getInt();
+            // The writer never puts more rows in a group, so a broken header cannot make the values huge
+            if (rows < 1 || rows > GameResultsWriter.MAX_GROUP_ROWS) throw new InvalidDataException(rows + " is not a valid number of rows!");
+            long chunkPosition = position + groupHeader.capacity();
+            int chunkSize = 0;
+            for (int i = 0; i < columnNames.size(); i++) {
+                int length = groupHeader.getInt();
+                if (length < 0) throw new InvalidDataException(length + " is not a valid size of a column!");
+                if (i < column) chunkPosition += length;
+                else if (i == column) chunkSize = length;
+                position += length;
+            }
+            position += groupHeader.capacity();
+            if (position > size) throw new InvalidDataException("The file ends in the middle of a group!");
+
+            if (chunk.capacity() < chunkSize) chunk = ByteBuffer.allocateDirect(chunkSize);
+            if (values.length < rows) values = new long[rows];
+            chunk.clear().limit(chunkSize);
+            readFully(chunk, chunkPosition);
+            chunk.flip();
+            try {
+                ColumnCodec.decode(chunk, values, rows);
+            } catch (BufferUnderflowException e) {
+                throw new InvalidDataException("A chunk of " + columnNames.get(column) + " is too short!");
+            }
+            for (int row = 0; row < rows; row++) consumer.accept(values[row]);
+            rowCount += rows;
+        }
+        return rowCount;
+    }
+
+    private ByteBuffer read(long position, int size) throws IOException, InvalidDataException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        readFully(buffer, position);
+        return buffer.flip();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException, InvalidDataException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) throw new InvalidDataException("The file ends too early!");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
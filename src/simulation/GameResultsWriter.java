@@ -0,0 +1,231 @@
+package simulation;
+
+import engine.GameEngine;
+import engine.GameSnapshot;
+import engine.LockstepEngine;
+import game.GameConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the outcome of every game of a run into a columnar file, read by {@link GameResultsReader}.
+ * <p>
+ * A row is one game: its number in the run (see {@link Tournament}, with the master seed it gives the game's rolls),
+ * the number of turns, how it ended, the players in the order they lost, and the money and the number of properties
+ * of every player at the end. The rows are written in groups, and every group stores every column as a separate chunk,
+ * compressed by {@link ColumnCodec}. Before the chunks, the group stores its number of rows and the size of every
+ * chunk, so a reader can go from a chunk of a column to the next one without reading the others.
+ * </p>
+ * <p>
+ * The file starts with {@link #MAGIC}, {@link #VERSION}, {@link GameEngine#VERSION} and the size of the rest of the
+ * header: the master seed, and the number, names and playstyles of the players. The columns are {@code game},
+ * {@code turns}, {@code end_reason}, {@code lost_1} to {@code lost_n} (the player who lost as the given one,
+ * -1 for nobody), {@code money_0} to {@code money_<n-1>} and {@code properties_0} to {@code properties_<n-1>}.
+ * </p>
+ * <p>
+ * Every worker thread fills its own {@link Rows} and only a full group is written, under the lock of the writer,
+ * through a direct buffer into a {@link FileChannel}. The groups of the workers are written in the order they are full,
+ * so the games are not in order in the file, but each of them is there exactly once.
+ * </p>
+ */
+public final class GameResultsWriter implements AutoCloseable {
+    public static final int MAGIC = 0x43415043; // "CAPC"
+    public static final int VERSION = 1;
+    /** The most values of a group of rows, over all the columns. */
+    private static final int MAX_GROUP_VALUES = 1 << 22;
+    static final int MAX_GROUP_ROWS = 1 << 14;
+    static final int FIXED_COLUMNS = 3;
+
+    private final FileChannel channel;
+    private final int players;
+    private final int fields;
+    private final int columns;
+    private final int groupRows;
+    private ByteBuffer chunk;
+    private final ByteBuffer groupHeader;
+
+    /**
+     * Creates the file, replacing it if it exists, and writes its header.
+     *
+     * @param file the file to write to
+     * @param config the configuration of the games
+     * @param masterSeed the master seed of the run
+     * @throws IOException if the file cannot be written
+     */
+    public GameResultsWriter(Path file, GameConfig config, long masterSeed) throws IOException {
+        players = config.getPlayerCount();
+        fields = config.getFieldCount();
+        columns = columnCount(players);
+        groupRows = Math.max(1, Math.min(MAX_GROUP_ROWS, MAX_GROUP_VALUES / columns));
+        chunk = ByteBuffer.allocateDirect(ColumnCodec.maxSize(groupRows));
+        groupHeader = ByteBuffer.allocateDirect(groupHeaderSize(columns));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeLong(masterSeed);
+        header.writeInt(players);
+        for (int player = 0; player < players; player++) {
+            header.writeUTF(config.getPlayerName(player));
+            header.writeUTF(config.getPlaystyle(player));
+        }
+        header.flush();
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ByteBuffer start = ByteBuffer.allocate(4 * Integer.BYTES + bytes.size());
+        start.putInt(MAGIC).putInt(VERSION).putInt(GameEngine.VERSION).putInt(bytes.size()).put(bytes.toByteArray()).flip();
+        writeFully(start);
+    }
+
+    static int columnCount(int players) {
+        return FIXED_COLUMNS + 3 * players;
+    }
+
+    static int groupHeaderSize(int columns) {
+        return Integer.BYTES + columns * Integer.BYTES;
+    }
+
+    /**
+     * @return a new buffer of rows for one worker thread
+     */
+    public Rows newRows() {
+        return new Rows(groupRows, false);
+    }
+
+    /**
+     * Gives a buffer that writes nothing until it is {@link Rows#flush() flushed}, for rows that may still be
+     * dropped: then they are written as one group, otherwise the buffer is just left.
+     *
+     * @param capacity the most rows the buffer holds, from 1 to {@link #MAX_GROUP_ROWS}
+     * @return a new buffer of rows for one worker thread
+     */
+    public Rows newHeldRows(int capacity) {
+        if (capacity < 1 || capacity > MAX_GROUP_ROWS) throw new IllegalArgumentException(capacity + " is not a valid number of rows!");
+        return new Rows(capacity, true);
+    }
+
+    /**
+     * Writes the rows as one group: the header, with the size of every chunk filled in after, and the chunks.
+     */
+    private synchronized void writeGroup(long[][] values, int rows) throws IOException {
+        long headerPosition = channel.position();
+        channel.position(headerPosition + groupHeader.capacity());
+        groupHeader.clear();
+        groupHeader.putInt(rows);
+        if (chunk.capacity() < ColumnCodec.maxSize(rows)) chunk = ByteBuffer.allocateDirect(ColumnCodec.maxSize(rows));
+        for (int column = 0; column < columns; column++) {
+            chunk.clear();
+            ColumnCodec.encode(values[column], rows, chunk);
+            chunk.flip();
+            groupHeader.putInt(chunk.remaining());
+            writeFully(chunk);
+        }
+        long end = channel.position();
+        groupHeader.flip();
+        while (groupHeader.hasRemaining()) channel.write(groupHeader, headerPosition + groupHeader.position());
+        channel.position(end);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    /**
+     * Closes the file. The rows of every worker have to be {@link Rows#flush() flushed} before.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * The rows of one worker thread, written to the file when a group is full.
+     */
+    public final class Rows {
+        /** values[column][row] */
+        private final long[][] values;
+        private final GameSnapshot snapshot = new GameSnapshot(fields, players);
+        private final int capacity;
+        /** Whether the rows are only written when flushed. */
+        private final boolean held;
+        private int rows;
+
+        private Rows(int capacity, boolean held) {
+            this.capacity = capacity;
+            this.held = held;
+            values = new long[columns][capacity];
+        }
+
+        /**
+         * Adds the outcome of a game that ended.
+         *
+         * @param game the number of the game in the run
+         * @param engine the engine that played it
+         * @throws IOException if a full group cannot be written
+         */
+        public void add(long game, GameEngine engine) throws IOException {
+            engine.writeSnapshot(snapshot);
+            int row = start(game, snapshot.getTurn(), snapshot.getEndReason().ordinal());
+            for (int i = 0; i < players; i++) {
+                values[FIXED_COLUMNS + i][row] = i < snapshot.getLostCount() ? snapshot.getLost(i) : -1;
+                values[FIXED_COLUMNS + players + i][row] = snapshot.getMoney(i);
+            }
+            for (int field = 0; field < fields; field++) {
+                int owner = snapshot.getOwner(field);
+                if (owner != GameSnapshot.NO_OWNER) values[FIXED_COLUMNS + 2 * players + owner][row]++;
+            }
+            end();
+        }
+
+        /**
+         * Adds the outcome of a game that ended in a lane of a lockstep engine.
+         *
+         * @param game the number of the game in the run
+         * @param engine the engine that played it
+         * @param lane the lane of the game
+         * @throws IOException if a full group cannot be written
+         */
+        public void add(long game, LockstepEngine engine, int lane) throws IOException {
+            int row = start(game, engine.getTurn(lane), engine.getEndReason(lane).ordinal());
+            int lost = engine.getLostCount(lane);
+            for (int i = 0; i < players; i++) {
+                values[FIXED_COLUMNS + i][row] = i < lost ? engine.getLost(lane, i) : -1;
+                values[FIXED_COLUMNS + players + i][row] = engine.getMoney(lane, i);
+            }
+            for (int field = 0; field < fields; field++) {
+                int owner = engine.getOwner(lane, field);
+                if (owner >= 0) values[FIXED_COLUMNS + 2 * players + owner][row]++;
+            }
+            end();
+        }
+
+        private int start(long game, int turns, int endReason) {
+            if (rows == capacity) throw new IllegalStateException("The held rows are full!");
+            values[0][rows] = game;
+            values[1][rows] = turns;
+            values[2][rows] = endReason;
+            for (int player = 0; player < players; player++) values[FIXED_COLUMNS + 2 * players + player][rows] = 0;
+            return rows;
+        }
+
+        private void end() throws IOException {
+            if (++rows == capacity && !held) flush();
+        }
+
+        /**
+         * Writes the rows added since the last group.
+         *
+         * @throws IOException if the group cannot be written
+         */
+        public void flush() throws IOException {
+            if (rows == 0) return;
+            writeGroup(values, rows);
+            rows = 0;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package simulation;
+
+/**
+ * The count, mean and variance of a stream of values in constant memory, with Welford's update.
+ * <p>
+ * Two moments of separate parts of the stream are merged with the parallel form of the update (Chan et al.),
+ * which gives the moments of the whole stream whatever the order of the parts, up to rounding.
+ * </p>
+ */
+public final class Moments {
+    private long count;
+    private double mean;
+    /** The sum of the squared differences from the mean. */
+    private double squares;
+
+    /**
+     * @param value the next value of the stream
+     */
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        squares += delta * (value - mean);
+    }
+
+    /**
+     * Adds the values of another stream to this one.
+     *
+     * @param other the moments of the other stream
+     */
+    public void merge(Moments other) {
+        if (other.count == 0) return;
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        squares += other.squares + delta * delta * ((double) count * other.count / total);
+        count = total;
+    }
+
+    public long getCount(){ return count; }
+    public double getMean(){ return mean; }
+    /** @return the sample variance, 0 with fewer than 2 values */
+    public double getVariance(){ return count < 2 ? 0 : squares / (count - 1); }
+    public double getStandardDeviation(){ return Math.sqrt(getVariance()); }
+}
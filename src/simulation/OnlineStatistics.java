@@ -0,0 +1,139 @@
+package simulation;
+
+import ConsoleColors.ConsoleColors;
+import game.GameConfig;
+import metrics.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statistics of the games of a run that are updated game by game in constant memory, whatever the number of games.
+ * <p>
+ * For the games it keeps the {@link Moments} of their length. For every player, and for every playstyle over the
+ * players playing it, it keeps the moments of the turns they stayed in the game (until they went bankrupt, or the
+ * whole game), a {@link Histogram} of the turns they went bankrupt in, from which any quantile is read to about 3%,
+ * and how many times they finished in each position, from which the probabilities come with their Wilson intervals.
+ * The probabilities of a playstyle are per game, that one of its players wins or finishes second to last, the same as
+ * in {@link TournamentResult}.
+ * </p>
+ * <p>
+ * Every worker thread adds its games to its own statistics, and the statistics of the workers are
+ * {@link #merge(OnlineStatistics) merged}; merging is associative, so the order the workers finish in doesn't matter.
+ * </p>
+ */
+public final class OnlineStatistics {
+    private final String[] playerNames;
+    private final List<String> playstyles = new ArrayList<>();
+    /** The index of the playstyle of every player. */
+    private final int[] playstyleOf;
+
+    private final Moments gameLength = new Moments();
+    // ---- By player, then by playstyle ----
+    private final Moments[] survival;
+    private final Histogram[] bankruptcyTurns;
+    /** positionCounts[player or players + playstyle][position - 1] */
+    private final long[][] positionCounts;
+    private long games;
+
+    /**
+     * @param config the configuration of the games
+     */
+    public OnlineStatistics(GameConfig config) {
+        int players = config.getPlayerCount();
+        playerNames = new String[players];
+        playstyleOf = new int[players];
+        for (int player = 0; player < players; player++) {
+            playerNames[player] = config.getPlayerName(player);
+            String playstyle = config.getPlaystyle(player);
+            if (!playstyles.contains(playstyle)) playstyles.add(playstyle);
+            playstyleOf[player] = playstyles.indexOf(playstyle);
+        }
+
+        int groups = players + playstyles.size();
+        survival = new Moments[groups];
+        bankruptcyTurns = new Histogram[groups];
+        positionCounts = new long[groups][players];
+        for (int group = 0; group < groups; group++) {
+            survival[group] = new Moments();
+            bankruptcyTurns[group] = new Histogram();
+        }
+    }
+
+    /**
+     * Adds a game that ended.
+     *
+     * @param turns the number of turns of the game
+     * @param positions the finishing position of every player, 1 being the winner
+     * @param lostTurns the number of turns played when every player went bankrupt, 0 for the players who didn't
+     */
+    public void addGame(int turns, int[] positions, int[] lostTurns) {
+        gameLength.add(turns);
+        for (int player = 0; player < playerNames.length; player++) {
+            add(player, turns, positions[player], lostTurns[player]);
+            add(playerNames.length + playstyleOf[player], turns, positions[player], lostTurns[player]);
+        }
+        games++;
+    }
+
+    private void add(int group, int turns, int position, int lostTurn) {
+        survival[group].add(lostTurn > 0 ? lostTurn : turns);
+        if (lostTurn > 0) bankruptcyTurns[group].record(lostTurn);
+        positionCounts[group][position - 1]++;
+    }
+
+    /**
+     * Adds the games of other statistics of the same configuration to these ones.
+     * The other statistics must not be added to at the same time.
+     *
+     * @param other the statistics to merge into these ones
+     */
+    public synchronized void merge(OnlineStatistics other) {
+        gameLength.merge(other.gameLength);
+        for (int group = 0; group < survival.length; group++) {
+            survival[group].merge(other.survival[group]);
+            bankruptcyTurns[group].add(other.bankruptcyTurns[group]);
+            for (int position = 0; position < positionCounts[group].length; position++) {
+                positionCounts[group][position] += other.positionCounts[group][position];
+            }
+        }
+        games += other.games;
+    }
+
+    public long getGames(){ return games; }
+    public Moments getGameLength(){ return gameLength; }
+    /** @return the moments of the turns the player stayed in the game */
+    public Moments getSurvival(int player){ return survival[player]; }
+    /** @return the turns the player went bankrupt in */
+    public Histogram getBankruptcyTurns(int player){ return bankruptcyTurns[player]; }
+
+    /**
+     * Writes the game length, and the survival, bankruptcy quantiles and win and second to last probabilities
+     * of every player and playstyle to the console.
+     */
+    public void writeToConsole() {
+        System.out.println(ConsoleColors.CYAN + "Game length" + ConsoleColors.RESET
+                + String.format(": mean %.2f, standard deviation %.2f", gameLength.getMean(), gameLength.getStandardDeviation()));
+        System.out.println(ConsoleColors.CYAN + "Players" + ConsoleColors.RESET);
+        for (int player = 0; player < playerNames.length; player++) {
+            writeGroup(playerNames[player], player);
+        }
+        System.out.println(ConsoleColors.CYAN + "Playstyles" + ConsoleColors.RESET);
+        for (int style = 0; style < playstyles.size(); style++) {
+            writeGroup(playstyles.get(style), playerNames.length + style);
+        }
+    }
+
+    private void writeGroup(String label, int group) {
+        // A game has one winner and one second to last, so the positions of a playstyle are counted per game too
+        double[] win = BranchResult.wilson(positionCounts[group][0], games, BranchResult.Z);
+        double[] secondToLast = playerNames.length < 2 ? new double[]{0, 0}
+                : BranchResult.wilson(positionCounts[group][playerNames.length - 2], games, BranchResult.Z);
+        Histogram bankruptcies = bankruptcyTurns[group];
+        System.out.println(label + String.format(": in the game for %.2f (sd %.2f) turns", survival[group].getMean(),
+                survival[group].getStandardDeviation())
+                + (bankruptcies.getCount() == 0 ? "" : ", bankrupt at turn p50 " + bankruptcies.getValueAtPercentile(50)
+                        + " p90 " + bankruptcies.getValueAtPercentile(90) + " p99 " + bankruptcies.getValueAtPercentile(99))
+                + String.format(" | win: [%.4f, %.4f] second to last: [%.4f, %.4f]", win[0], win[1], secondToLast[0], secondToLast[1]));
+    }
+}
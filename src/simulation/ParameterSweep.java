@@ -0,0 +1,195 @@
+package simulation;
+
+import engine.EngineType;
+import engine.GameEngine;
+import game.GameConfig;
+import game.GameRules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Searches for the {@link GameRules} (prices and playstyle thresholds) under which the players of one playstyle
+ * win the most, by simulating many games of every candidate on a fixed pool of worker threads.
+ * <p>
+ * Every candidate plays the same games: chunk {@code k} of every candidate is seeded like chunk {@code k}
+ * of a {@link Tournament} with the same master seed, so the candidates are compared on common random numbers
+ * and the difference of two candidates is measured much more precisely than their win rates.
+ * The chunks are played in waves of {@link #WAVE_CHUNKS}. After every wave, a candidate whose paired difference
+ * to the current best is below zero by more than {@link #PRUNE_Z} standard errors is pruned and plays no more games.
+ * The pruning only depends on completed waves, so the result doesn't depend on the number of threads.
+ * </p>
+ * <p>
+ * The board is parsed once: every candidate plays a copy of the configuration with its own rules,
+ * which shares the map and the players of the original.
+ * </p>
+ */
+public class ParameterSweep {
+    /** The number of chunks every remaining candidate plays between two rounds of pruning. */
+    public static final int WAVE_CHUNKS = 8;
+    /** How many standard errors worse than the best a candidate has to be to be pruned. */
+    public static final double PRUNE_Z = 3.0;
+
+    private final GameConfig config;
+    private final String playstyle;
+    private final int threads;
+    private final EngineType engineType;
+
+    /**
+     * @param config the board the candidates are evaluated on
+     * @param playstyle the playstyle whose wins are maximised
+     * @param threads the number of worker threads, at least 1
+     * @param engineType the engine the games are played with
+     */
+    public ParameterSweep(GameConfig config, String playstyle, int threads, EngineType engineType) {
+        if (threads < 1) throw new IllegalArgumentException("The number of threads must be at least 1!");
+        this.config = config;
+        this.playstyle = playstyle;
+        this.threads = threads;
+        this.engineType = engineType;
+    }
+
+    /**
+     * Gives every combination of the given values.
+     *
+     * @return the candidates of a grid search
+     */
+    public static List<GameRules> grid(int[] propertyPrices, int[] housePrices, int[] carefulDivisors, int[] tacticianPeriods) {
+        List<GameRules> candidates = new ArrayList<>();
+        for (int propertyPrice : propertyPrices) {
+            for (int housePrice : housePrices) {
+                for (int carefulDivisor : carefulDivisors) {
+                    for (int tacticianPeriod : tacticianPeriods) {
+                        candidates.add(new GameRules(propertyPrice, housePrice, carefulDivisor, tacticianPeriod));
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Draws candidates uniformly from the given ranges, each given as its smallest and largest value.
+     *
+     * @param count the number of candidates
+     * @param seed the seed of the draws
+     * @return the candidates of a random search
+     */
+    public static List<GameRules> random(int count, int[] propertyPrices, int[] housePrices,
+                                         int[] carefulDivisors, int[] tacticianPeriods, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<GameRules> candidates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            candidates.add(new GameRules(draw(random, propertyPrices), draw(random, housePrices),
+                    draw(random, carefulDivisors), draw(random, tacticianPeriods)));
+        }
+        return candidates;
+    }
+
+    private static int draw(SplittableRandom random, int[] range) {
+        return random.nextInt(range[0], range[range.length - 1] + 1);
+    }
+
+    /**
+     * Evaluates every candidate on up to the given number of games.
+     *
+     * @param candidates the rules to compare
+     * @param games the number of games of a candidate that is never pruned
+     * @param masterSeed the seed every game's dice rolls are derived from
+     * @return the win counts of every candidate
+     */
+    public SweepResult run(List<GameRules> candidates, long games, long masterSeed) {
+        int chunks = (int) ((games + Tournament.GAMES_PER_CHUNK - 1) / Tournament.GAMES_PER_CHUNK);
+        SweepResult result = new SweepResult(playstyle, candidates);
+        /** chunkWins[candidate][chunk] = games of the chunk won by the playstyle */
+        long[][] chunkWins = new long[candidates.size()][chunks];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try {
+            for (int first = 0; first < chunks; first += WAVE_CHUNKS) {
+                int last = Math.min(chunks, first + WAVE_CHUNKS);
+
+                List<Callable<Long>> tasks = new ArrayList<>();
+                List<int[]> taskChunks = new ArrayList<>();
+                for (int candidate = 0; candidate < candidates.size(); candidate++) {
+                    if (result.isPruned(candidate)) continue;
+                    GameConfig candidateConfig = config.withRules(candidates.get(candidate));
+                    for (int chunk = first; chunk < last; chunk++) {
+                        long chunkGames = Math.min(Tournament.GAMES_PER_CHUNK, games - (long) chunk * Tournament.GAMES_PER_CHUNK);
+                        int seedChunk = chunk;
+                        tasks.add(() -> playChunk(candidateConfig, seedChunk, masterSeed, chunkGames));
+                        taskChunks.add(new int[]{candidate, chunk, (int) chunkGames});
+                    }
+                }
+
+                List<Future<Long>> wins = pool.invokeAll(tasks);
+                for (int i = 0; i < wins.size(); i++) {
+                    int[] task = taskChunks.get(i);
+                    chunkWins[task[0]][task[1]] = wins.get(i).get();
+                    result.addChunk(task[0], task[2], chunkWins[task[0]][task[1]]);
+                }
+                prune(result, chunkWins, last);
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The sweep was interrupted!", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game failed during the sweep!", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays every game of one chunk with the same seeds as a {@link Tournament}.
+     *
+     * @return the number of games won by a player of the playstyle
+     */
+    private long playChunk(GameConfig candidateConfig, long chunk, long masterSeed, long games) {
+        GameEngine game = engineType.create(candidateConfig);
+        SplittableRandom chunkRandom = new SplittableRandom(Tournament.chunkSeed(masterSeed, chunk));
+        int[] positions = new int[candidateConfig.getPlayerCount()];
+
+        long wins = 0;
+        for (long i = 0; i < games; i++) {
+            game.reset();
+            game.simulatePlay(chunkRandom.split());
+            game.writeFinishingPositions(positions);
+            for (int player = 0; player < positions.length; player++) {
+                if (positions[player] == 1 && candidateConfig.getPlaystyle(player).equals(playstyle)) wins++;
+            }
+        }
+        return wins;
+    }
+
+    /**
+     * Prunes the candidates clearly worse than the best one, comparing their wins chunk by chunk.
+     */
+    private static void prune(SweepResult result, long[][] chunkWins, int chunks) {
+        int best = result.getBestCandidate();
+        if (best < 0 || chunks < 2) return;
+
+        for (int candidate = 0; candidate < chunkWins.length; candidate++) {
+            if (candidate == best || result.isPruned(candidate)) continue;
+
+            double sum = 0;
+            double sumOfSquares = 0;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                double difference = chunkWins[candidate][chunk] - chunkWins[best][chunk];
+                sum += difference;
+                sumOfSquares += difference * difference;
+            }
+            double mean = sum / chunks;
+            double variance = Math.max(0, (sumOfSquares - sum * mean) / (chunks - 1));
+            double standardError = Math.sqrt(variance / chunks);
+            if (mean + PRUNE_Z * standardError < 0) result.prune(candidate);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package simulation;
+
+import engine.GameEngine;
+import exceptions.InvalidDataException;
+import game.GameConfig;
+import game.GameLimits;
+import game.GameRules;
+import strategy.BuiltInStrategies;
+import strategy.DecisionTable;
+import strategy.Strategies;
+import strategy.Strategy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+
+/**
+ * Keeps the results of tournaments, so running the same configuration with the same seed and number of games
+ * again returns the result at once instead of playing every game.
+ * <p>
+ * A result is found by its key, the SHA-256 hash of everything that decides the outcome: the parsed configuration
+ * (fields, players, predefined rolls, movement, limits and rules), the strategies of the playstyles, the number of games,
+ * the seed and {@link GameEngine#VERSION}. Two files that parse into the same configuration have the same key,
+ * whatever their whitespace. The results of an older version of the engines are only left behind if the version was
+ * increased with the change that made games end differently: the version is a constant, bumped by hand, not derived
+ * from the code. The engine type is not part of the key, because the engines play by the same rules and give the
+ * same result game for game (checked with every engine on configurations with negative service and luck values,
+ * like {@code testNegativeValues.txt}); a change that breaks this has to increase the version too.
+ * </p>
+ * <p>
+ * The most recently used results are kept in memory, up to a given number. With a directory, every result is also
+ * stored in a file named by its key, written to a temporary file first and renamed, so the cache survives restarts
+ * and is shared by every process using the directory. A configuration with a strategy that can't be hashed (one of
+ * a {@link strategy.StrategyProvider} that isn't a {@link DecisionTable}) is never cached.
+ * </p>
+ */
+public final class ResultCache {
+    public static final int MAGIC = 0x43415052; // "CAPR"
+    public static final int VERSION = 1;
+    private static final String SUFFIX = ".result";
+    private static final List<String> BUILT_IN = Arrays.asList(new BuiltInStrategies().getNames());
+
+    private final Path directory;
+    private final LinkedHashMap<String, TournamentResult> memory;
+
+    /**
+     * @param directory the directory the results are stored in, created if it is missing; null to keep them in memory only
+     * @param memoryEntries the number of results kept in memory
+     * @throws IOException if the directory cannot be created
+     */
+    public ResultCache(Path directory, int memoryEntries) throws IOException {
+        if (memoryEntries < 0) throw new IllegalArgumentException("The number of results must not be negative!");
+        this.directory = directory;
+        if (directory != null) Files.createDirectories(directory);
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TournamentResult> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+    }
+
+    /**
+     * Gives the cached result of the run, or runs the tournament and caches its result.
+     *
+     * @param tournament the tournament to run
+     * @param games the number of games
+     * @param masterSeed the seed every game's dice rolls are derived from
+     * @return the result of the run
+     */
+    public TournamentResult getOrRun(Tournament tournament, long games, long masterSeed) {
+        String key = key(tournament.getConfig(), games, masterSeed);
+        TournamentResult result = key == null ? null : get(key);
+        if (result != null) return result;
+
+        result = tournament.run(games, masterSeed);
+        if (key != null) put(key, result);
+        return result;
+    }
+
+    /**
+     * Hashes everything that decides the result of a run.
+     *
+     * @param config the configuration of the games
+     * @param games the number of games
+     * @param masterSeed the seed of the run
+     * @return the key of the result as 64 hexadecimal digits, null if the configuration can't be cached
+     */
+    public static String key(GameConfig config, long games, long masterSeed) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available!", e);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new DigestOutputStream(OutputStream.nullOutputStream(), digest)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(GameEngine.VERSION);
+
+            // ---- Map ----
+            out.writeInt(config.getFieldCount());
+            for (int field = 0; field < config.getFieldCount(); field++) {
+                out.writeByte(config.getFieldKind(field));
+                out.writeInt(config.getFieldValue(field));
+            }
+
+            // ---- Players, and the strategies of their playstyles ----
+            out.writeInt(config.getPlayerCount());
+            for (int player = 0; player < config.getPlayerCount(); player++) {
+                out.writeUTF(config.getPlayerName(player));
+                String playstyle = config.getPlaystyle(player);
+                out.writeUTF(playstyle);
+                if (BUILT_IN.contains(playstyle)) continue;
+                Strategy strategy = Strategies.get(playstyle);
+                if (!(strategy instanceof DecisionTable)) return null;
+                int[] table = ((DecisionTable) strategy).toArray();
+                out.writeInt(table.length);
+                for (int value : table) out.writeInt(value);
+            }
+
+            // ---- Dice rolls ----
+            out.writeLong(config.getPreDefinedDiceRollCount());
+            if (config.hasPreDefinedDiceRolls()) {
+                PrimitiveIterator.OfInt rolls = config.getPreDefinedDiceRolls().open();
+                while (rolls.hasNext()) out.writeByte(rolls.nextInt());
+            }
+
+            // ---- Rules of the run ----
+            out.writeUTF(config.getMovement().name());
+            GameLimits limits = config.getLimits();
+            out.writeLong(limits.getMaxTurns());
+            out.writeLong(limits.getMaxLaps());
+            out.writeInt(limits.getStalemateWindow());
+            GameRules rules = config.getRules();
+            out.writeInt(rules.getPropertyPrice());
+            out.writeInt(rules.getHousePrice());
+            out.writeInt(rules.getCarefulDivisor());
+            out.writeInt(rules.getTacticianPeriod());
+            out.writeLong(games);
+            out.writeLong(masterSeed);
+        } catch (IOException e) {
+            throw new IllegalStateException("The configuration could not be hashed!", e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @param key the key of the result
+     * @return the cached result, null if it isn't cached
+     */
+    public synchronized TournamentResult get(String key) {
+        TournamentResult result = memory.get(key);
+        if (result != null || directory == null) return copy(result);
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file(key))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            result = TournamentResult.read(in);
+        } catch (IOException | InvalidDataException e) {
+            // A missing or damaged file is only a miss, the result is computed and stored again
+            return null;
+        }
+        memory.put(key, result);
+        return copy(result);
+    }
+
+    /**
+     * Caches a result, in memory and in the directory.
+     *
+     * @param key the key of the result
+     * @param result the result of the run
+     */
+    public synchronized void put(String key, TournamentResult result) {
+        memory.put(key, copy(result));
+        if (directory == null) return;
+
+        Path file = file(key);
+        Path temporary = directory.resolve(key + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                result.write(out);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The cache is only an optimisation: a result that can't be stored is computed again next time
+            System.err.println("The result could not be stored in " + file + ": " + e.getMessage());
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    /**
+     * Results can be merged into, so the cache only hands out copies.
+     */
+    private static TournamentResult copy(TournamentResult result) {
+        if (result == null) return null;
+        String[] names = new String[result.getPlayerCount()];
+        String[] playstyles = new String[result.getPlayerCount()];
+        for (int player = 0; player < names.length; player++) {
+            names[player] = result.getPlayerName(player);
+            playstyles[player] = result.getPlaystyle(player);
+        }
+        TournamentResult copy = new TournamentResult(names, playstyles);
+        copy.merge(result);
+        return copy;
+    }
+}
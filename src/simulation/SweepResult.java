@@ -0,0 +1,87 @@
+package simulation;
+
+import ConsoleColors.ConsoleColors;
+import game.GameRules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the outcome of a {@link ParameterSweep}: how many games every candidate played,
+ * how many of them a player of the target playstyle won, and whether the candidate was pruned.
+ */
+public class SweepResult {
+    private final String playstyle;
+    private final List<GameRules> candidates;
+    private final long[] games;
+    private final long[] wins;
+    private final boolean[] pruned;
+
+    public SweepResult(String playstyle, List<GameRules> candidates) {
+        this.playstyle = playstyle;
+        this.candidates = List.copyOf(candidates);
+        this.games = new long[candidates.size()];
+        this.wins = new long[candidates.size()];
+        this.pruned = new boolean[candidates.size()];
+    }
+
+    /**
+     * Records one played chunk of a candidate.
+     *
+     * @param candidate the index of the candidate
+     * @param chunkGames the number of games of the chunk
+     * @param chunkWins the number of those games won by the playstyle
+     */
+    void addChunk(int candidate, long chunkGames, long chunkWins) {
+        games[candidate] += chunkGames;
+        wins[candidate] += chunkWins;
+    }
+
+    void prune(int candidate) {
+        pruned[candidate] = true;
+    }
+
+    public String getPlaystyle(){ return playstyle; }
+    public int getCandidateCount(){ return candidates.size(); }
+    public GameRules getCandidate(int candidate){ return candidates.get(candidate); }
+    public long getGames(int candidate){ return games[candidate]; }
+    public long getWins(int candidate){ return wins[candidate]; }
+    public boolean isPruned(int candidate){ return pruned[candidate]; }
+
+    public double getWinRate(int candidate) {
+        return games[candidate] == 0 ? 0 : (double) wins[candidate] / games[candidate];
+    }
+
+    /**
+     * @return the index of the candidate with the highest win rate that wasn't pruned, or -1 if there are none
+     */
+    public int getBestCandidate() {
+        int best = -1;
+        for (int candidate = 0; candidate < candidates.size(); candidate++) {
+            if (pruned[candidate] || games[candidate] == 0) continue;
+            if (best < 0 || getWinRate(candidate) > getWinRate(best)) best = candidate;
+        }
+        return best;
+    }
+
+    /**
+     * Writes the candidates to the console, from the highest win rate to the lowest.
+     */
+    public void writeToConsole() {
+        List<Integer> order = new ArrayList<>();
+        for (int candidate = 0; candidate < candidates.size(); candidate++) order.add(candidate);
+        order.sort((a, b) -> Double.compare(getWinRate(b), getWinRate(a)));
+
+        System.out.println();
+        System.out.println(ConsoleColors.CYAN + "Win rate of " + playstyle + " | games | rules" + ConsoleColors.RESET);
+        for (int candidate : order) {
+            System.out.printf("%.4f | %d | %s%s%n", getWinRate(candidate), games[candidate], candidates.get(candidate),
+                    pruned[candidate] ? " (pruned)" : "");
+        }
+
+        int best = getBestCandidate();
+        if (best >= 0) {
+            System.out.println(ConsoleColors.YELLOW + "Best: " + candidates.get(best) + ConsoleColors.RESET);
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package simulation;
+
+import engine.EngineType;
+import engine.GameEngine;
+import engine.LockstepEngine;
+import game.GameConfig;
+import metrics.SimulationMetrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs many independent games of the same configuration on a fixed pool of worker threads
+ * and aggregates the finishing positions into a {@link TournamentResult}.
+ * <p>
+ * The games are split into chunks of {@link #GAMES_PER_CHUNK} games. Every chunk gets its own
+ * {@link SplittableRandom}, seeded from the master seed and the index of the chunk, and every game
+ * of the chunk plays with a generator split from it. Which worker plays a chunk does not matter,
+ * so a given master seed always gives the same aggregated result regardless of the thread count.
+ * </p>
+ * <p>
+ * The configuration is parsed only once and shared by the workers. Every worker builds a single
+ * {@link GameEngine} from it and resets it between games, so no fields or players are allocated per game.
+ * With {@link EngineType#LOCKSTEP} a worker plays the games of a chunk together in a {@link LockstepEngine} instead,
+ * every game still with its own generator of the chunk, so the result is the same as with the other engines.
+ * </p>
+ * <p>
+ * With {@link #setMetrics(SimulationMetrics) metrics} every worker also records the turns, bankruptcies
+ * and wall time of its games; without them the workers don't even read the clock.
+ * With a {@link #setResults(GameResultsWriter) results writer} the outcome of every game is also written to a file,
+ * and with {@link #setStatistics(OnlineStatistics) statistics} it is aggregated into them.
+ * </p>
+ */
+public class Tournament {
+    public static final int GAMES_PER_CHUNK = 1024;
+    /** The number of chunks between two checks of {@link #runUntil(double, long, long)}. */
+    public static final int CHUNKS_PER_CHECK = 16;
+
+    private final GameConfig config;
+    private final int threads;
+    private final EngineType engineType;
+    private SimulationMetrics metrics;
+    private GameResultsWriter results;
+    private OnlineStatistics statistics;
+    private ExecutorService executor;
+
+    /**
+     * @param config the configuration every game is played with
+     * @param threads the number of worker threads, at least 1
+     * @param engineType the engine the games are played with
+     */
+    public Tournament(GameConfig config, int threads, EngineType engineType) {
+        if (threads < 1) throw new IllegalArgumentException("The number of threads must be at least 1!");
+        this.config = config;
+        this.threads = threads;
+        this.engineType = engineType;
+    }
+
+    /**
+     * Creates a tournament that plays with the {@link EngineType#ARRAY array engine}
+     * and uses every available processor.
+     *
+     * @param config the configuration every game is played with
+     */
+    public Tournament(GameConfig config) {
+        this(config, Runtime.getRuntime().availableProcessors(), EngineType.ARRAY);
+    }
+
+    public GameConfig getConfig(){ return config; }
+    public int getThreads(){ return threads; }
+
+    /**
+     * Sets the metrics the games of the next runs are recorded into.
+     *
+     * @param metrics the metrics, null to record nothing
+     */
+    public void setMetrics(SimulationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the writer the outcome of every game of the next runs is written to.
+     *
+     * @param results the writer, null to write nothing
+     */
+    public void setResults(GameResultsWriter results) {
+        this.results = results;
+    }
+
+    /**
+     * Sets the statistics the games of the next runs are added to. Every worker adds its games to statistics of
+     * its own, which are merged into these when it is done.
+     *
+     * @param statistics the statistics, null to keep none
+     */
+    public void setStatistics(OnlineStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Sets the pool the workers of the next runs are submitted to, which can be shared by many tournaments.
+     * A run then cancels its workers when it is done instead of shutting the pool down.
+     *
+     * @param executor the pool, null to start a pool of {@code threads} threads for every run
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Simulates the given number of games and aggregates their results.
+     *
+     * @param games the number of games to simulate
+     * @param masterSeed the seed every game's dice rolls are derived from
+     * @return the aggregated finishing positions
+     */
+    public TournamentResult run(long games, long masterSeed) {
+        return run(games, masterSeed, 0, getChunkCount(games));
+    }
+
+    /**
+     * Simulates a range of the chunks of a run and aggregates their results. The results of the ranges
+     * of a run, merged, are the same as the result of the whole run, so a long run can report its progress
+     * range by range.
+     *
+     * @param games the number of games of the whole run
+     * @param masterSeed the seed every game's dice rolls are derived from
+     * @param firstChunk the index of the first chunk to simulate
+     * @param endChunk the index after the last chunk to simulate, at most {@link #getChunkCount(long)}
+     * @return the aggregated finishing positions of the games of the chunks
+     */
+    public TournamentResult run(long games, long masterSeed, long firstChunk, long endChunk) {
+        AtomicLong nextChunk = new AtomicLong(firstChunk);
+        TournamentResult result = emptyResult(config);
+        for (TournamentResult partial : runWorkers(() -> {
+            try (Worker worker = new Worker()) {
+                Output output = new Output(results == null ? null : results.newRows());
+                long chunk;
+                while ((chunk = nextChunk.getAndIncrement()) < endChunk && !Thread.currentThread().isInterrupted()) {
+                    long first = chunk * GAMES_PER_CHUNK;
+                    worker.playChunk(chunk, masterSeed, Math.min(GAMES_PER_CHUNK, games - first), output);
+                }
+                output.finish();
+                return output.result;
+            }
+        })) {
+            result.merge(partial);
+        }
+        return result;
+    }
+
+    /**
+     * Simulates games until the probability of every player to finish second to last is known precisely enough:
+     * after every {@link #CHUNKS_PER_CHECK} chunks, the run stops if none of their 95% Wilson intervals is wider than
+     * the target. The checks don't depend on the number of threads, so a seed always stops after the same games,
+     * which are the first games of {@link #run(long, long)} with the same seed.
+     * <p>
+     * The workers don't wait for the checks: they go on with the next chunks while the chunks before are still being
+     * played, a few dozen chunks ahead at most. Every chunk is played into an {@link Output} of its own, and the
+     * outputs are taken in the order of the chunks, so the checks are done on the first chunks whatever order they
+     * finish in, and the chunks after the one the run stops at are dropped, also from the statistics and the results
+     * file. Only the metrics count them, as games that were played.
+     * </p>
+     *
+     * @param targetWidth the widest interval to stop at
+     * @param maxGames the number of games to stop at anyway
+     * @param masterSeed the seed every game's dice rolls are derived from
+     * @return the aggregated finishing positions of the games played
+     */
+    public TournamentResult runUntil(double targetWidth, long maxGames, long masterSeed) {
+        OrderedChunks chunks = new OrderedChunks(targetWidth, getChunkCount(maxGames), 2L * threads + CHUNKS_PER_CHECK);
+        runWorkers(() -> {
+            try (Worker worker = new Worker()) {
+                long chunk;
+                while ((chunk = chunks.claim()) >= 0) {
+                    Output output = new Output(results == null ? null : results.newHeldRows(GAMES_PER_CHUNK));
+                    long first = chunk * GAMES_PER_CHUNK;
+                    worker.playChunk(chunk, masterSeed, Math.min(GAMES_PER_CHUNK, maxGames - first), output);
+                    chunks.complete(chunk, output);
+                }
+                return null;
+            } catch (Exception | Error e) {
+                // The other workers may be waiting for the chunk of this one
+                chunks.stop();
+                throw e;
+            }
+        });
+        return chunks.result;
+    }
+
+    /**
+     * Runs the given work on {@code threads} workers of the pool and waits for all of them.
+     *
+     * @return what every worker returned
+     */
+    private List<TournamentResult> runWorkers(Callable<TournamentResult> work) {
+        ExecutorService pool = executor != null ? executor : Executors.newFixedThreadPool(threads);
+        List<Future<TournamentResult>> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) workers.add(pool.submit(work));
+            List<TournamentResult> partials = new ArrayList<>();
+            for (Future<TournamentResult> worker : workers) partials.add(worker.get());
+            return partials;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The tournament was interrupted!", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game failed during the tournament!", e.getCause());
+        } finally {
+            if (pool != executor) pool.shutdownNow();
+            else for (Future<TournamentResult> worker : workers) worker.cancel(true);
+        }
+    }
+
+    /**
+     * @param games the number of games of a run
+     * @return the number of chunks the games are split into
+     */
+    public static long getChunkCount(long games) {
+        return (games + GAMES_PER_CHUNK - 1) / GAMES_PER_CHUNK;
+    }
+
+    /**
+     * Everything the outcome of games goes into: the games of a whole worker for {@link #run(long, long, long, long)},
+     * or of one chunk for {@link #runUntil(double, long, long)}.
+     */
+    private final class Output {
+        private final TournamentResult result = emptyResult(config);
+        private final OnlineStatistics partialStatistics = statistics == null ? null : new OnlineStatistics(config);
+        private final GameResultsWriter.Rows rows;
+
+        Output(GameResultsWriter.Rows rows) {
+            this.rows = rows;
+        }
+
+        /**
+         * Writes the last rows and merges the statistics into those of the tournament.
+         */
+        void finish() throws IOException {
+            if (rows != null) rows.flush();
+            if (partialStatistics != null) statistics.merge(partialStatistics);
+        }
+    }
+
+    /**
+     * The chunks of {@link #runUntil(double, long, long)}: gives them to the workers in order and takes their outputs
+     * in order, checking the width after every {@link #CHUNKS_PER_CHECK} of them.
+     */
+    private final class OrderedChunks {
+        private final double targetWidth;
+        /** The chunk the run stops before, lowered when the target is reached. */
+        private long end;
+        /** The most chunks given out after the first one whose output wasn't taken. */
+        private final long window;
+        private long next;
+        private long taken;
+        private final Map<Long, Output> finished = new HashMap<>();
+        private final TournamentResult result = emptyResult(config);
+
+        OrderedChunks(double targetWidth, long end, long window) {
+            this.targetWidth = targetWidth;
+            this.end = end;
+            this.window = window;
+        }
+
+        /**
+         * @return the next chunk to play, -1 when there are no more
+         */
+        synchronized long claim() throws InterruptedException {
+            while (next < end && next - taken >= window) wait();
+            return next < end ? next++ : -1;
+        }
+
+        /**
+         * Takes the outputs of the chunks finished so far in order, up to the first one still being played.
+         */
+        synchronized void complete(long chunk, Output output) throws IOException {
+            finished.put(chunk, output);
+            Output first;
+            while (taken < end && (first = finished.remove(taken)) != null) {
+                result.merge(first.result);
+                first.finish();
+                taken++;
+                if ((taken % CHUNKS_PER_CHECK == 0 || taken == end) && result.getSecondToLastWidth() <= targetWidth) {
+                    end = taken;
+                }
+            }
+            if (taken == end) finished.clear();
+            notifyAll();
+        }
+
+        /**
+         * Gives out no more chunks and takes no more outputs, when a worker failed.
+         */
+        synchronized void stop() {
+            end = taken;
+            finished.clear();
+            notifyAll();
+        }
+    }
+
+    /**
+     * The engine of one worker thread and its recorder.
+     */
+    private final class Worker implements AutoCloseable {
+        private final GameEngine game;
+        /** The engine of {@link EngineType#LOCKSTEP}, instead of {@link #game}. */
+        private final LockstepEngine lanes;
+        private final SimulationMetrics.Recorder recorder = metrics == null ? null : metrics.newRecorder();
+        private final int[] positions = new int[config.getPlayerCount()];
+        private final int[] lostTurns = new int[config.getPlayerCount()];
+
+        Worker() {
+            boolean lockstep = engineType == EngineType.LOCKSTEP;
+            game = lockstep ? null : engineType.create(config);
+            lanes = lockstep ? new LockstepEngine(config, LockstepEngine.DEFAULT_LANES) : null;
+        }
+
+        /**
+         * Plays every game of one chunk and adds their outcome to the output.
+         */
+        void playChunk(long chunk, long masterSeed, long games, Output output) throws IOException {
+            SplittableRandom chunkRandom = new SplittableRandom(chunkSeed(masterSeed, chunk));
+            if (recorder != null) recorder.startChunk();
+            if (lanes != null) {
+                playLanes(chunk, chunkRandom, games, output);
+            } else {
+                for (long i = 0; i < games; i++) {
+                    game.reset();
+                    game.simulatePlay(chunkRandom.split());
+                    if (recorder != null) recorder.recordGame(game);
+                    if (output.rows != null) output.rows.add(chunk * GAMES_PER_CHUNK + i, game);
+                    game.writeFinishingPositions(positions);
+                    output.result.addGame(positions, game.getEndReason());
+                    if (output.partialStatistics != null) {
+                        for (int player = 0; player < lostTurns.length; player++) lostTurns[player] = game.getLostTurn(player);
+                        output.partialStatistics.addGame(game.getTurn(), positions, lostTurns);
+                    }
+                }
+            }
+            if (recorder != null) recorder.endChunk();
+        }
+
+        /**
+         * Plays every game of one chunk at once. The games get their generators in the same order as one by one.
+         */
+        private void playLanes(long chunk, SplittableRandom chunkRandom, long games, Output output) {
+            lanes.play(games, chunkRandom::split, (engine, lane, game) -> {
+                if (recorder != null) {
+                    recorder.recordGame(engine.getTurn(lane));
+                    for (int player = 0; player < positions.length; player++) {
+                        if (engine.hasLost(lane, player)) recorder.recordBankruptcy(player);
+                    }
+                }
+                if (output.rows != null) {
+                    try {
+                        output.rows.add(chunk * GAMES_PER_CHUNK + game, engine, lane);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                engine.writeFinishingPositions(lane, positions);
+                output.result.addGame(positions, engine.getEndReason(lane));
+                if (output.partialStatistics != null) {
+                    for (int player = 0; player < lostTurns.length; player++) lostTurns[player] = engine.getLostTurn(lane, player);
+                    output.partialStatistics.addGame(engine.getTurn(lane), positions, lostTurns);
+                }
+            });
+        }
+
+        /**
+         * Closes the recorder of the worker, whether its games were finished or not.
+         */
+        @Override
+        public void close() {
+            if (recorder != null) recorder.close();
+        }
+    }
+
+    /**
+     * @param config a configuration
+     * @return a result of no games of the players of the configuration, to merge partial results into
+     */
+    public static TournamentResult emptyResult(GameConfig config) {
+        String[] names = new String[config.getPlayerCount()];
+        String[] playstyles = new String[config.getPlayerCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = config.getPlayerName(i);
+            playstyles[i] = config.getPlaystyle(i);
+        }
+        return new TournamentResult(names, playstyles);
+    }
+
+    /**
+     * Derives the seed of a chunk from the master seed (SplitMix64 finalizer),
+     * so neighbouring chunks get unrelated generators.
+     */
+    static long chunkSeed(long masterSeed, long chunk) {
+        long z = masterSeed + (chunk + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
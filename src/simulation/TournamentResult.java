@@ -0,0 +1,204 @@
+package simulation;
+
+import ConsoleColors.ConsoleColors;
+import engine.EndReason;
+import exceptions.InvalidDataException;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+
+/**
+ * Holds the aggregated outcome of many simulated games played from the same configuration.
+ * <p>
+ * For every player and every playstyle it counts how many times they finished in each position.
+ * Position 1 is the winner and the last position is the player who lost first, so the
+ * second to last position is the one {@code Game.writeSecondToLastPlayer()} reports.
+ * It also counts how the games ended, see {@link EndReason}.
+ * Results only hold sums, so results of separate workers can be merged in any order.
+ * </p>
+ */
+public class TournamentResult {
+    private final String[] playerNames;
+    private final String[] playstyles;
+    /** positionCounts[player][position - 1] = number of games the player finished in that position */
+    private final long[][] positionCounts;
+    /** endReasonCounts[reason.ordinal()] = number of games that ended that way */
+    private final long[] endReasonCounts = new long[EndReason.values().length];
+    private long games;
+
+    public TournamentResult(String[] playerNames, String[] playstyles) {
+        this.playerNames = playerNames.clone();
+        this.playstyles = playstyles.clone();
+        this.positionCounts = new long[playerNames.length][playerNames.length];
+    }
+
+    /**
+     * Records the finishing positions of one game.
+     *
+     * @param positions the finishing position of every player, 1 being the winner
+     * @param endReason how the game ended
+     */
+    public void addGame(int[] positions, EndReason endReason) {
+        for (int player = 0; player < positions.length; player++) {
+            positionCounts[player][positions[player] - 1]++;
+        }
+        endReasonCounts[endReason.ordinal()]++;
+        games++;
+    }
+
+    /**
+     * Adds the counts of another result (of the same configuration) to this one.
+     *
+     * @param other the result to merge into this one
+     */
+    public void merge(TournamentResult other) {
+        for (int player = 0; player < positionCounts.length; player++) {
+            for (int position = 0; position < positionCounts[player].length; position++) {
+                positionCounts[player][position] += other.positionCounts[player][position];
+            }
+        }
+        for (int reason = 0; reason < endReasonCounts.length; reason++) {
+            endReasonCounts[reason] += other.endReasonCounts[reason];
+        }
+        games += other.games;
+    }
+
+    /**
+     * Writes the names, the playstyles and every count in a compact binary form, read back by {@link #read(DataInput)}.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(playerNames.length);
+        for (int player = 0; player < playerNames.length; player++) {
+            out.writeUTF(playerNames[player]);
+            out.writeUTF(playstyles[player]);
+        }
+        out.writeLong(games);
+        for (long[] counts : positionCounts) {
+            for (long count : counts) out.writeLong(count);
+        }
+        out.writeInt(endReasonCounts.length);
+        for (long count : endReasonCounts) out.writeLong(count);
+    }
+
+    /**
+     * Reads a result written by {@link #write(DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the result
+     * @throws IOException if the input cannot be read
+     * @throws InvalidDataException if the input is not a result of this version of the game
+     */
+    public static TournamentResult read(DataInput in) throws IOException, InvalidDataException {
+        int players = in.readInt();
+        if (players < 1 || players > 1 << 16) throw new InvalidDataException(players + " is not a valid number of players!");
+        String[] names = new String[players];
+        String[] playstyles = new String[players];
+        for (int player = 0; player < players; player++) {
+            names[player] = in.readUTF();
+            playstyles[player] = in.readUTF();
+        }
+        TournamentResult result = new TournamentResult(names, playstyles);
+        result.games = in.readLong();
+        for (long[] counts : result.positionCounts) {
+            for (int position = 0; position < counts.length; position++) counts[position] = in.readLong();
+        }
+        if (in.readInt() != result.endReasonCounts.length) {
+            throw new InvalidDataException("The result was written by another version of the game!");
+        }
+        for (int reason = 0; reason < result.endReasonCounts.length; reason++) result.endReasonCounts[reason] = in.readLong();
+        return result;
+    }
+
+    public long getGames() { return games; }
+    public int getPlayerCount() { return playerNames.length; }
+    public String getPlayerName(int player) { return playerNames[player]; }
+    public String getPlaystyle(int player) { return playstyles[player]; }
+
+    /**
+     * @param player the index of the player, in the order they were read
+     * @param position the finishing position, 1 being the winner
+     * @return how many games the player finished in the given position
+     */
+    public long getPositionCount(int player, int position) {
+        return positionCounts[player][position - 1];
+    }
+
+    /**
+     * @param reason how a game ended
+     * @return how many games ended that way
+     */
+    public long getEndReasonCount(EndReason reason) {
+        return endReasonCounts[reason.ordinal()];
+    }
+
+    /**
+     * @return the width of the widest 95% Wilson interval of the probability of a player to finish second to last,
+     *         1 without games
+     */
+    public double getSecondToLastWidth() {
+        if (playerNames.length < 2) return 0;
+        double width = 0;
+        for (long[] counts : positionCounts) {
+            double[] interval = BranchResult.wilson(counts[playerNames.length - 2], games, BranchResult.Z);
+            width = Math.max(width, interval[1] - interval[0]);
+        }
+        return width;
+    }
+
+    /**
+     * Sums the position histograms of every player with the same playstyle.
+     *
+     * @return the position histogram of every playstyle, in the order they first appear
+     */
+    public LinkedHashMap<String, long[]> getPlaystyleCounts() {
+        LinkedHashMap<String, long[]> counts = new LinkedHashMap<>();
+        for (int player = 0; player < playerNames.length; player++) {
+            long[] styleCounts = counts.computeIfAbsent(playstyles[player], style -> new long[playerNames.length]);
+            for (int position = 0; position < styleCounts.length; position++) {
+                styleCounts[position] += positionCounts[player][position];
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Writes the position histograms and the win / second to last probabilities to the console.
+     */
+    public void writeToConsole() {
+        int secondToLast = playerNames.length - 1;
+
+        System.out.println();
+        System.out.println(ConsoleColors.YELLOW + games + " games simulated" + ConsoleColors.RESET);
+        System.out.println(ConsoleColors.CYAN + "Players" + ConsoleColors.RESET);
+        for (int player = 0; player < playerNames.length; player++) {
+            writeHistogram(playerNames[player] + " (" + playstyles[player] + ")", positionCounts[player], secondToLast);
+        }
+        System.out.println(ConsoleColors.CYAN + "Playstyles" + ConsoleColors.RESET);
+        getPlaystyleCounts().forEach((style, counts) -> writeHistogram(style, counts, secondToLast));
+
+        StringBuilder endings = new StringBuilder(ConsoleColors.CYAN + "Endings" + ConsoleColors.RESET + ":");
+        for (EndReason reason : EndReason.values()) {
+            if (endReasonCounts[reason.ordinal()] > 0) {
+                endings.append(' ').append(reason.name().toLowerCase()).append(' ').append(endReasonCounts[reason.ordinal()]);
+            }
+        }
+        System.out.println(endings);
+    }
+
+    private void writeHistogram(String label, long[] counts, int secondToLast) {
+        StringBuilder line = new StringBuilder(label).append(':');
+        for (long count : counts) line.append(' ').append(count);
+        line.append(String.format(" | win: %.4f second to last: %.4f",
+                probability(counts[0]), probability(counts[secondToLast - 1])));
+        System.out.println(line);
+    }
+
+    private double probability(long count) {
+        return games == 0 ? 0 : (double) count / games;
+    }
+}
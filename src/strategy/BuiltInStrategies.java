@@ -0,0 +1,31 @@
+package strategy;
+
+/**
+ * The playstyles of the original game as decision tables.
+ * <p>
+ * The engines play these playstyles with their own code ({@code players.Greedy}, {@code players.Careful},
+ * {@code players.Tactician}), so the tables are only the reference the rules of the other strategies
+ * can be compared to, and they decide exactly like the originals.
+ * </p>
+ */
+public class BuiltInStrategies implements StrategyProvider {
+    private static final String[] NAMES = {"greedy", "careful", "tactician"};
+    private static final String[] RULES = {
+            "any -> buy",
+            "any after >= money/2 -> buy",
+            "any every 2 -> buy"
+    };
+
+    @Override
+    public String[] getNames() {
+        return NAMES.clone();
+    }
+
+    @Override
+    public Strategy create(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name)) return DecisionTable.compileBuiltIn(RULES[i]);
+        }
+        throw new IllegalArgumentException(name + " is not a built-in strategy!");
+    }
+}
@@ -0,0 +1,189 @@
+package strategy;
+
+import exceptions.InvalidDataException;
+
+import java.util.Arrays;
+
+/**
+ * A strategy written as threshold rules, compiled once into a flat table of ints.
+ * <p>
+ * Every line of the rules is one rule: the kind of offer it is about, the conditions it needs,
+ * and whether the player buys. The first rule whose conditions all hold decides; if none does,
+ * the player doesn't buy. Empty lines and lines starting with {@code #} are ignored.
+ * </p>
+ * <pre>
+ * &lt;property|house|any&gt; [condition ...] -&gt; buy|skip
+ *
+ * money &gt;= N          the money before buying is at least N
+ * after &gt;= N          the money left after buying is at least N
+ * after &gt;= money/N    the money left is at least the N-th part of the money before buying
+ * turn &gt;= N, turn &lt; N  the turn of the game is in the range
+ * every N [from K]    only every N-th opportunity, starting with the K-th (counted from 0)
+ * </pre>
+ * <p>
+ * For example the careful playstyle is {@code any after >= money/2 -> buy}, and the tactician
+ * is {@code any every 2 -> buy}. The rules are compiled into one int array, a row of {@link #ROW_SIZE}
+ * thresholds per rule, so a decision is a few comparisons with no objects, strings or calls,
+ * as fast as the code of the built-in playstyles.
+ * </p>
+ */
+public final class DecisionTable implements Strategy {
+    // ---- The columns of a row ----
+    static final int KIND = 0;
+    static final int MIN_MONEY = 1;
+    static final int MIN_AFTER = 2;
+    static final int AFTER_DIVISOR = 3;
+    static final int MIN_TURN = 4;
+    static final int MAX_TURN = 5;
+    static final int PERIOD = 6;
+    static final int PHASE = 7;
+    static final int ACTION = 8;
+    static final int ROW_SIZE = 9;
+
+    // ---- Kinds of offers, as bits ----
+    static final int PROPERTY = 1;
+    static final int HOUSE = 2;
+
+    private static final int SKIP = 0;
+    private static final int BUY = 1;
+
+    private final int[] table;
+
+    private DecisionTable(int[] table) {
+        this.table = table;
+    }
+
+    /**
+     * Compiles the given rules into a decision table.
+     *
+     * @param rules the rules, one per line
+     * @return the strategy deciding by the rules
+     * @throws InvalidDataException if a rule is not valid
+     */
+    public static DecisionTable compile(String rules) throws InvalidDataException {
+        String[] lines = rules.split("\r?\n");
+        int[] table = new int[lines.length * ROW_SIZE];
+        int rows = 0;
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            try {
+                compileRule(line, table, rows * ROW_SIZE);
+            } catch (NumberFormatException e) {
+                throw new InvalidDataException("line " + (i + 1) + ": " + e.getMessage() + " is not a valid number!");
+            } catch (InvalidDataException e) {
+                throw new InvalidDataException("line " + (i + 1) + ": " + e.getMessage());
+            }
+            rows++;
+        }
+        return new DecisionTable(Arrays.copyOf(table, rows * ROW_SIZE));
+    }
+
+    /**
+     * Compiles rules that are known to be valid.
+     */
+    static DecisionTable compileBuiltIn(String rules) {
+        try {
+            return compile(rules);
+        } catch (InvalidDataException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private static void compileRule(String line, int[] table, int row) throws InvalidDataException {
+        String[] tokens = line.split("\\s+");
+        if (tokens.length < 3 || !tokens[tokens.length - 2].equals("->")) {
+            throw new InvalidDataException("A rule must be: <property|house|any> [condition ...] -> buy|skip");
+        }
+
+        switch (tokens[0]) {
+            case "property": table[row + KIND] = PROPERTY; break;
+            case "house": table[row + KIND] = HOUSE; break;
+            case "any": table[row + KIND] = PROPERTY | HOUSE; break;
+            default: throw new InvalidDataException(tokens[0] + " is not a valid offer! (property/house/any)");
+        }
+        switch (tokens[tokens.length - 1]) {
+            case "buy": table[row + ACTION] = BUY; break;
+            case "skip": table[row + ACTION] = SKIP; break;
+            default: throw new InvalidDataException(tokens[tokens.length - 1] + " is not a valid action! (buy/skip)");
+        }
+
+        table[row + MIN_MONEY] = Integer.MIN_VALUE;
+        table[row + MIN_AFTER] = Integer.MIN_VALUE;
+        table[row + AFTER_DIVISOR] = 0;
+        table[row + MIN_TURN] = Integer.MIN_VALUE;
+        table[row + MAX_TURN] = Integer.MAX_VALUE;
+        table[row + PERIOD] = 1;
+        table[row + PHASE] = 0;
+
+        int end = tokens.length - 2;
+        int i = 1;
+        while (i < end) {
+            String subject = tokens[i];
+            if (subject.equals("every")) {
+                if (i + 1 >= end) throw new InvalidDataException("every must have a period!");
+                int period = Integer.parseInt(tokens[i + 1]);
+                if (period < 1) throw new InvalidDataException("The period must be at least 1!");
+                table[row + PERIOD] = period;
+                i += 2;
+                if (i + 1 < end && tokens[i].equals("from")) {
+                    int phase = Integer.parseInt(tokens[i + 1]);
+                    if (phase < 0 || phase >= period) throw new InvalidDataException("The start must be less than the period!");
+                    table[row + PHASE] = phase;
+                    i += 2;
+                }
+                continue;
+            }
+
+            if (i + 2 >= end) throw new InvalidDataException(subject + " is not a complete condition!");
+            String operator = tokens[i + 1];
+            String value = tokens[i + 2];
+            switch (subject + " " + operator) {
+                case "money >=":
+                    table[row + MIN_MONEY] = Integer.parseInt(value);
+                    break;
+                case "after >=":
+                    if (value.startsWith("money/")) {
+                        int divisor = Integer.parseInt(value.substring("money/".length()));
+                        if (divisor < 1) throw new InvalidDataException("The divisor must be at least 1!");
+                        table[row + AFTER_DIVISOR] = divisor;
+                    }
+                    else table[row + MIN_AFTER] = Integer.parseInt(value);
+                    break;
+                case "turn >=":
+                    table[row + MIN_TURN] = Integer.parseInt(value);
+                    break;
+                case "turn <":
+                    table[row + MAX_TURN] = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new InvalidDataException(subject + " " + operator + " is not a valid condition!");
+            }
+            i += 3;
+        }
+    }
+
+    @Override
+    public boolean buys(int money, int price, boolean house, int turn, int opportunity) {
+        int kind = house ? HOUSE : PROPERTY;
+        int after = money - price;
+        for (int row = 0; row < table.length; row += ROW_SIZE) {
+            if ((table[row + KIND] & kind) != 0
+                    && money >= table[row + MIN_MONEY]
+                    && after >= table[row + MIN_AFTER]
+                    && (table[row + AFTER_DIVISOR] == 0 || after >= money / table[row + AFTER_DIVISOR])
+                    && turn >= table[row + MIN_TURN]
+                    && turn < table[row + MAX_TURN]
+                    && (table[row + PERIOD] == 1 || opportunity % table[row + PERIOD] == table[row + PHASE])) {
+                return table[row + ACTION] == BUY;
+            }
+        }
+        return false;
+    }
+
+    /** @return a copy of the compiled table, {@link #ROW_SIZE} ints per rule */
+    public int[] toArray(){ return table.clone(); }
+
+    /** @return the number of rules of the table */
+    public int getRuleCount(){ return table.length / ROW_SIZE; }
+}
@@ -0,0 +1,53 @@
+package strategy;
+
+import exceptions.InvalidDataException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+
+/**
+ * Offers the strategies written in rule files, see {@link DecisionTable}.
+ * <p>
+ * Every {@code <name>.rules} file of the directory given by the {@value #DIRECTORY_PROPERTY} system property
+ * is a strategy with that name. The files are compiled when the provider is loaded, so an invalid file is
+ * reported before any game starts. Without the property the provider offers no strategies.
+ * </p>
+ */
+public class RuleFileStrategies implements StrategyProvider {
+    public static final String DIRECTORY_PROPERTY = "capitaly.strategies";
+
+    private final LinkedHashMap<String, DecisionTable> strategies = new LinkedHashMap<>();
+
+    public RuleFileStrategies() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory == null) return;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Path.of(directory), "*.rules")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                name = name.substring(0, name.length() - ".rules".length());
+                try {
+                    strategies.put(name, DecisionTable.compile(Files.readString(file)));
+                } catch (InvalidDataException e) {
+                    throw new IllegalArgumentException("Invalid data in " + file + ": " + e.getMessage(), e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("The strategies could not be read from " + directory, e);
+        }
+    }
+
+    @Override
+    public String[] getNames() {
+        return strategies.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public Strategy create(String name) {
+        return strategies.get(name);
+    }
+}
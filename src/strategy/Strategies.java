@@ -0,0 +1,54 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * The registry of every strategy: the {@link BuiltInStrategies built-in ones} and those of the
+ * {@link StrategyProvider providers} found by {@link ServiceLoader} on the class path.
+ * <p>
+ * The providers are loaded once, on first use, and every strategy is created only once,
+ * so every player with the same playstyle shares the same strategy.
+ * </p>
+ */
+public final class Strategies {
+    private static LinkedHashMap<String, Strategy> strategies;
+
+    private Strategies() {}
+
+    /**
+     * @param name the name of a playstyle, as written in the configuration files
+     * @return the strategy with the given name, null if there is no such strategy
+     */
+    public static Strategy get(String name) {
+        return registry().get(name);
+    }
+
+    /**
+     * @return the name of every strategy, the built-in ones first
+     */
+    public static List<String> getNames() {
+        return new ArrayList<>(registry().keySet());
+    }
+
+    private static synchronized LinkedHashMap<String, Strategy> registry() {
+        if (strategies == null) {
+            LinkedHashMap<String, Strategy> loaded = new LinkedHashMap<>();
+            register(loaded, new BuiltInStrategies());
+            for (StrategyProvider provider : ServiceLoader.load(StrategyProvider.class)) {
+                register(loaded, provider);
+            }
+            strategies = loaded;
+        }
+        return strategies;
+    }
+
+    private static void register(LinkedHashMap<String, Strategy> strategies, StrategyProvider provider) {
+        for (String name : provider.getNames()) {
+            // The first provider of a name wins, so the built-in playstyles can't be replaced
+            strategies.putIfAbsent(name, provider.create(name));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package strategy;
+
+/**
+ * The decision of a playstyle whether to buy a property or a house it is offered.
+ * <p>
+ * A strategy is stateless: everything it may decide on comes in the arguments as primitives,
+ * so one instance is shared by every player, game and thread, and a decision allocates nothing.
+ * A strategy that changes its mind over time, like the tactician, decides on the number of its
+ * earlier opportunities instead of keeping a toggle.
+ * </p>
+ * <p>
+ * The engines only ask a strategy when the player can afford the price, and they handle everything
+ * else (paying rent, services and luck) by the rules of the game.
+ * New strategies are added with a {@link StrategyProvider}.
+ * </p>
+ */
+public interface Strategy {
+    /**
+     * @param money the money of the player before buying, at least the price
+     * @param price the price of the property or the house
+     * @param house whether the offer is a house on a property the player owns (otherwise an unowned property)
+     * @param turn the turn of the game, starting at 0
+     * @param opportunity the number of earlier offers the player could afford in this game
+     * @return whether the player buys
+     */
+    boolean buys(int money, int price, boolean house, int turn, int opportunity);
+}
@@ -0,0 +1,22 @@
+package strategy;
+
+/**
+ * Offers strategies by name, discovered with {@link java.util.ServiceLoader}.
+ * <p>
+ * A provider is registered by listing its class in {@code META-INF/services/strategy.StrategyProvider}
+ * on the class path. The names of its strategies can then be used as playstyles in the configuration
+ * files, without any change to the games.
+ * </p>
+ */
+public interface StrategyProvider {
+    /**
+     * @return the names of the strategies of this provider, as they are written in the configuration files
+     */
+    String[] getNames();
+
+    /**
+     * @param name one of the {@link #getNames() names} of this provider
+     * @return the strategy with the given name
+     */
+    Strategy create(String name);
+}